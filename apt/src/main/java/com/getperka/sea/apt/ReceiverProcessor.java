@@ -0,0 +1,281 @@
+package com.getperka.sea.apt;
+
+/*
+ * #%L
+ * Simple Event Architecture - Annotation Processor
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.ReceiverDescriptor;
+
+/**
+ * Generates a {@link ReceiverDescriptor} for each type that declares {@link Receiver} methods. The
+ * descriptor allows the receiver to be registered without reflective scanning of its class
+ * hierarchy and allows the receiver methods to be invoked directly.
+ * <p>
+ * A descriptor can only be generated if every receiver method, the types that declare them, and
+ * their parameter types are accessible from the package of the receiver. Types that cannot be
+ * described fall back to reflective registration.
+ */
+@SupportedAnnotationTypes("com.getperka.sea.Receiver")
+public class ReceiverProcessor extends AbstractProcessor {
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Set<TypeElement> receivers = new LinkedHashSet<TypeElement>();
+    for (Element elt : roundEnv.getElementsAnnotatedWith(Receiver.class)) {
+      Element enclosing = elt.getEnclosingElement();
+      if (elt.getKind() == ElementKind.METHOD && enclosing instanceof TypeElement) {
+        receivers.add((TypeElement) enclosing);
+      }
+    }
+
+    for (TypeElement receiver : receivers) {
+      try {
+        generate(receiver);
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Kind.ERROR,
+            "Could not write " + ReceiverDescriptor.class.getSimpleName() + ": " + e.getMessage(),
+            receiver);
+      }
+    }
+
+    // Allow other processors to see the Receiver annotation
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if the type can be named from source in the given package.
+   */
+  private boolean isAccessible(TypeMirror type, PackageElement from) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return isAccessible(((ArrayType) type).getComponentType(), from);
+      case DECLARED:
+        return isAccessible(((DeclaredType) type).asElement(), from);
+      default:
+        return type.getKind().isPrimitive();
+    }
+  }
+
+  /**
+   * Returns {@code true} if the element and all of its enclosing types can be referred to from the
+   * given package.
+   */
+  private boolean isAccessible(Element elt, PackageElement from) {
+    for (Element e = elt; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+      if (e instanceof TypeElement
+        && ((TypeElement) e).getNestingKind() != NestingKind.TOP_LEVEL
+        && ((TypeElement) e).getNestingKind() != NestingKind.MEMBER) {
+        return false;
+      }
+      if (!e.getModifiers().contains(Modifier.PUBLIC)
+        && !processingEnv.getElementUtils().getPackageOf(e).equals(from)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void generate(TypeElement receiver) throws IOException {
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(receiver);
+    if (!isAccessible(receiver, pkg)) {
+      return;
+    }
+
+    // Collect receiver methods in the same order as a reflective scan of the class hierarchy
+    List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+    for (TypeElement lookAt = receiver; lookAt != null; lookAt = superclass(lookAt)) {
+      for (ExecutableElement method : ElementFilter.methodsIn(lookAt.getEnclosedElements())) {
+        if (method.getAnnotation(Receiver.class) == null) {
+          continue;
+        }
+        if (!isAccessible(method, pkg)) {
+          note(receiver, method + " is not accessible");
+          return;
+        }
+        for (VariableElement param : method.getParameters()) {
+          if (!isAccessible(erasure(param.asType()), pkg)) {
+            note(receiver, "a parameter of " + method + " is not accessible");
+            return;
+          }
+        }
+        methods.add(method);
+      }
+    }
+
+    String binaryName = processingEnv.getElementUtils().getBinaryName(receiver).toString();
+    String packageName = pkg.getQualifiedName().toString();
+    String simpleName = (packageName.isEmpty() ? binaryName :
+        binaryName.substring(packageName.length() + 1)) + ReceiverDescriptor.SUFFIX;
+    String sourceName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    PrintWriter out = new PrintWriter(processingEnv.getFiler()
+        .createSourceFile(sourceName, receiver).openWriter());
+    try {
+      write(out, packageName, simpleName, methods);
+    } finally {
+      out.close();
+    }
+  }
+
+  private TypeMirror erasure(TypeMirror type) {
+    return processingEnv.getTypeUtils().erasure(type);
+  }
+
+  private void note(TypeElement receiver, String message) {
+    processingEnv.getMessager().printMessage(Kind.NOTE,
+        "Not generating a " + ReceiverDescriptor.class.getSimpleName() + " because " + message,
+        receiver);
+  }
+
+  private TypeElement superclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) superclass).asElement();
+  }
+
+  /**
+   * Convert an argument from {@code Object} to the parameter type.
+   */
+  private String unbox(TypeMirror type, String expr) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "((java.lang.Boolean) " + expr + ").booleanValue()";
+      case BYTE:
+        return "((java.lang.Byte) " + expr + ").byteValue()";
+      case CHAR:
+        return "((java.lang.Character) " + expr + ").charValue()";
+      case DOUBLE:
+        return "((java.lang.Double) " + expr + ").doubleValue()";
+      case FLOAT:
+        return "((java.lang.Float) " + expr + ").floatValue()";
+      case INT:
+        return "((java.lang.Integer) " + expr + ").intValue()";
+      case LONG:
+        return "((java.lang.Long) " + expr + ").longValue()";
+      case SHORT:
+        return "((java.lang.Short) " + expr + ").shortValue()";
+      default:
+        return "(" + type + ") " + expr;
+    }
+  }
+
+  private void write(PrintWriter out, String packageName, String simpleName,
+      List<ExecutableElement> methods) {
+    if (!packageName.isEmpty()) {
+      out.println("package " + packageName + ";");
+      out.println();
+    }
+    out.println("// Generated by " + getClass().getName());
+    out.println("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })");
+    out.println("public final class " + simpleName + " extends "
+      + ReceiverDescriptor.class.getCanonicalName() + " {");
+    out.println("  @Override");
+    out.println("  public java.util.List<Entry> getEntries() {");
+    out.println("    return java.util.Arrays.<Entry> asList(");
+
+    for (int i = 0, j = methods.size(); i < j; i++) {
+      ExecutableElement method = methods.get(i);
+      TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+      String declaringName = erasure(declaringType.asType()).toString();
+      boolean synchronous = method.getAnnotation(Receiver.class).synchronous();
+
+      List<TypeMirror> paramTypes = new ArrayList<TypeMirror>();
+      for (VariableElement param : method.getParameters()) {
+        paramTypes.add(erasure(param.asType()));
+      }
+
+      // Entry constructor
+      StringBuilder sb = new StringBuilder();
+      sb.append("        new Entry(").append(declaringName).append(".class, \"")
+          .append(method.getSimpleName()).append("\", ").append(synchronous);
+      for (TypeMirror paramType : paramTypes) {
+        sb.append(", ").append(paramType).append(".class");
+      }
+      sb.append(") {");
+      out.println(sb);
+
+      // Direct invocation
+      out.println("          @Override");
+      out.println("          public Object invoke(Object instance, Object[] args) "
+        + "throws Throwable {");
+      sb = new StringBuilder();
+      if (method.getModifiers().contains(Modifier.STATIC)) {
+        sb.append(declaringName);
+      } else {
+        sb.append("((").append(declaringName).append(") instance)");
+      }
+      sb.append(".").append(method.getSimpleName()).append("(");
+      for (int k = 0, l = paramTypes.size(); k < l; k++) {
+        if (k > 0) {
+          sb.append(", ");
+        }
+        sb.append(unbox(paramTypes.get(k), "args[" + k + "]"));
+      }
+      sb.append(");");
+      if (method.getReturnType().getKind() == TypeKind.VOID) {
+        out.println("            " + sb);
+        out.println("            return null;");
+      } else {
+        out.println("            return " + sb);
+      }
+      out.println("          }");
+      out.println(i == j - 1 ? "        });" : "        },");
+    }
+
+    out.println("  }");
+    out.println("}");
+  }
+}
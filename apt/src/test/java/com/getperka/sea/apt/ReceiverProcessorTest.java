@@ -0,0 +1,170 @@
+package com.getperka.sea.apt;
+
+/*
+ * #%L
+ * Simple Event Architecture - Annotation Processor
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.ReceiverDescriptor;
+import com.getperka.sea.util.EventLatch;
+
+public class ReceiverProcessorTest {
+  public static class CountingEvent implements Event {
+    public final AtomicInteger count = new AtomicInteger();
+  }
+
+  private static final String EVENT = CountingEvent.class.getCanonicalName();
+
+  private File dir;
+  private ClassLoader loader;
+
+  @After
+  public void after() {
+    delete(dir);
+  }
+
+  @Before
+  public void before() throws IOException {
+    dir = File.createTempFile("sea-apt", "");
+    assertTrue(dir.delete());
+    assertTrue(dir.mkdir());
+  }
+
+  @Test
+  public void testInaccessibleReceiver() throws Exception {
+    compile("gen.Hidden",
+        "package gen;",
+        "public class Hidden {",
+        "  @com.getperka.sea.Receiver",
+        "  private void receive(" + EVENT + " evt) {}",
+        "}");
+    assertFalse(new File(dir, "gen/Hidden" + ReceiverDescriptor.SUFFIX + ".class").exists());
+  }
+
+  @Test
+  public void testDirectDispatch() throws Exception {
+    compile("gen.MyReceiver",
+        "package gen;",
+        "public class MyReceiver extends Base {",
+        "  @com.getperka.sea.Receiver(synchronous = true)",
+        "  int receive(" + EVENT + " evt, com.getperka.sea.ext.EventContext ctx) {",
+        "    return evt.count.incrementAndGet();",
+        "  }",
+        "  public static class Nested {",
+        "    @com.getperka.sea.Receiver",
+        "    static void receive(" + EVENT + " evt) {",
+        "      evt.count.addAndGet(100);",
+        "    }",
+        "  }",
+        "}",
+        "class Base {",
+        "  @com.getperka.sea.Receiver",
+        "  static void receiveStatic(" + EVENT + " evt) {",
+        "    evt.count.addAndGet(10);",
+        "  }",
+        "}");
+
+    ReceiverDescriptor descriptor = (ReceiverDescriptor) loader
+        .loadClass("gen.MyReceiver" + ReceiverDescriptor.SUFFIX).newInstance();
+    assertEquals(2, descriptor.getEntries().size());
+    assertTrue(descriptor.getEntries().get(0).isSynchronous());
+    assertFalse(descriptor.getEntries().get(1).isSynchronous());
+
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.register(loader.loadClass("gen.MyReceiver").newInstance());
+    dispatch.register(loader.loadClass("gen.MyReceiver$Nested"));
+
+    CountingEvent evt = new CountingEvent();
+    EventLatch.create(dispatch, DispatchCompleteEvent.class, 1)
+        .awaitSingleEventAfter(evt, 1, TimeUnit.SECONDS);
+    assertEquals(111, evt.count.get());
+  }
+
+  private void compile(String className, String... lines) throws Exception {
+    File source = new File(dir, className.replace('.', File.separatorChar) + ".java");
+    assertTrue(source.getParentFile().mkdirs());
+    Writer out = new FileWriter(source);
+    try {
+      for (String line : lines) {
+        out.write(line);
+        out.write('\n');
+      }
+    } finally {
+      out.close();
+    }
+
+    // Surefire may hide the real classpath, so build it from the types that the source requires
+    StringBuilder classpath = new StringBuilder();
+    for (Class<?> clazz : Arrays.asList(Event.class, Inject.class, getClass())) {
+      if (classpath.length() > 0) {
+        classpath.append(File.pathSeparator);
+      }
+      classpath.append(new File(clazz.getProtectionDomain().getCodeSource().getLocation()
+          .toURI()).getPath());
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager files = compiler.getStandardFileManager(null, null, null);
+    CompilationTask task = compiler.getTask(null, files, null,
+        Arrays.asList("-classpath", classpath.toString(), "-d", dir.getPath()), null,
+        files.getJavaFileObjects(source));
+    task.setProcessors(Arrays.asList(new ReceiverProcessor()));
+    assertTrue(task.call());
+    files.close();
+
+    loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, getClass().getClassLoader());
+  }
+
+  private void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,80 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+/**
+ * Limits the number of concurrent invocations of a receiver, so that a slow receiver cannot
+ * occupy every dispatch thread. Invocations in excess of {@link #maxConcurrent()} are suspended,
+ * rather than blocking a thread, and are resumed in the order in which they arrived as running
+ * invocations complete. Once {@link #maxQueued()} invocations are waiting, the {@link #overflow()}
+ * policy is applied.
+ * <p>
+ * By default, each receiver method has its own bulkhead. Receivers can share a bulkhead by
+ * specifying the same {@link #name()}:
+ * 
+ * <pre>
+ * &#064;Bulkhead(name = "database", maxConcurrent = 8, maxQueued = 1000)
+ * public class DatabaseReceiver {
+ *   &#064;Receiver
+ *   void load(LoadEvent e) {}
+ * 
+ *   &#064;Receiver
+ *   void store(StoreEvent e) {}
+ * }
+ * </pre>
+ * 
+ * Unlike the JMS module's {@code SubscriptionOptions.concurrencyLevel()}, the limit applies to all
+ * events, regardless of their source.
+ */
+@Documented
+@EventDecoratorBinding(BulkheadDecorator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface Bulkhead {
+  /**
+   * The maximum number of invocations that may execute at once. Must be positive; otherwise every
+   * invocation fails with an {@link IllegalArgumentException}.
+   */
+  int maxConcurrent();
+
+  /**
+   * The maximum number of invocations that may wait for a running invocation to complete.
+   */
+  int maxQueued() default Integer.MAX_VALUE;
+
+  /**
+   * The name of a bulkhead shared by all receivers that specify it. The default value gives each
+   * receiver method its own bulkhead.
+   */
+  String name() default "";
+
+  /**
+   * The policy to apply when {@link #maxQueued()} invocations are already waiting.
+   */
+  OverflowPolicy overflow() default OverflowPolicy.REJECT;
+}
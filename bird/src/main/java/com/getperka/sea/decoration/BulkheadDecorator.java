@@ -0,0 +1,262 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.ext.StatelessDecorator;
+import com.getperka.sea.ext.SuspendedEvent;
+import com.getperka.sea.inject.EventExecutor;
+
+/**
+ * Implementation for {@link Bulkhead}.
+ * <p>
+ * When a running invocation completes, its slot is handed directly to the oldest waiting
+ * invocation, which is then resumed on the dispatch's executor. A resumed invocation passes through
+ * the decorator chain again, and claims its slot by matching the {@link EventContext} and
+ * {@link ReceiverTarget} of the suspended invocation. If the resumed invocation finishes without
+ * claiming its slot, for instance because the event's deadline passed while it was queued for
+ * execution or because an outer decorator didn't invoke its work, the slot is released.
+ */
+@Singleton
+@StatelessDecorator
+class BulkheadDecorator implements EventDecorator<Bulkhead, Event> {
+  /**
+   * The outcome of {@link Compartment#acquire}.
+   */
+  enum Admission {
+    ADMITTED,
+    DISCARDED,
+    REJECTED,
+    SUSPENDED
+  }
+
+  /**
+   * The state of a single bulkhead.
+   */
+  static class Compartment {
+    private final ExecutorService executor;
+    /**
+     * Waiters that have been resumed, either holding a slot or to be rejected.
+     */
+    private final List<Waiter> granted = new ArrayList<Waiter>();
+    private final String name;
+    private final Queue<Waiter> queue = new ArrayDeque<Waiter>();
+    /**
+     * The number of slots in use, including those granted to resumed waiters.
+     */
+    private int running;
+
+    Compartment(String name, ExecutorService executor) {
+      this.executor = executor;
+      this.name = name;
+    }
+
+    Admission acquire(Context<Bulkhead, Event> ctx) {
+      Bulkhead annotation = ctx.getAnnotation();
+      Waiter toReject = null;
+      Admission toReturn;
+      synchronized (this) {
+        Waiter grant = claim(ctx.getContext(), ctx.getTarget());
+        if (grant != null) {
+          return grant.rejected ? Admission.REJECTED : Admission.ADMITTED;
+        }
+        if (running < annotation.maxConcurrent()) {
+          running++;
+          return Admission.ADMITTED;
+        }
+
+        if (queue.size() < annotation.maxQueued()) {
+          toReturn = Admission.SUSPENDED;
+        } else if (annotation.overflow() == OverflowPolicy.DROP_OLDEST && !queue.isEmpty()) {
+          toReject = queue.poll();
+          toReject.rejected = true;
+          granted.add(toReject);
+          toReturn = Admission.SUSPENDED;
+        } else if (annotation.overflow() == OverflowPolicy.DISCARD) {
+          return Admission.DISCARDED;
+        } else {
+          return Admission.REJECTED;
+        }
+        queue.add(new Waiter(this, ctx.getContext(), ctx.getTarget(),
+            ctx.getContext().suspend()));
+      }
+      if (toReject != null) {
+        resume(toReject);
+      }
+      return toReturn;
+    }
+
+    void release() {
+      Waiter next;
+      synchronized (this) {
+        next = queue.poll();
+        if (next == null) {
+          running--;
+          return;
+        }
+        // Keep the slot for the waiter
+        granted.add(next);
+      }
+      resume(next);
+    }
+
+    /**
+     * Called once a resumed waiter's invocation has finished. If it did not claim its slot, the slot
+     * is released.
+     */
+    void resumed(Waiter waiter) {
+      synchronized (this) {
+        if (!granted.remove(waiter) || waiter.rejected) {
+          return;
+        }
+      }
+      release();
+    }
+
+    /**
+     * Must be called while holding the compartment's monitor.
+     */
+    private Waiter claim(EventContext context, ReceiverTarget target) {
+      for (Iterator<Waiter> it = granted.iterator(); it.hasNext();) {
+        Waiter waiter = it.next();
+        if (waiter.context == context && waiter.target.equals(target)) {
+          it.remove();
+          return waiter;
+        }
+      }
+      return null;
+    }
+
+    private void resume(Waiter waiter) {
+      try {
+        executor.execute(waiter);
+      } catch (RejectedExecutionException ignored) {
+        // The dispatch has been shut down, so nothing will want the slot
+      }
+    }
+  }
+
+  /**
+   * A suspended invocation, which is run on the dispatch's executor when it is resumed.
+   */
+  static class Waiter implements Runnable {
+    final Compartment compartment;
+    final EventContext context;
+    /**
+     * Guarded by the compartment's monitor.
+     */
+    boolean rejected;
+    final SuspendedEvent suspended;
+    final ReceiverTarget target;
+
+    Waiter(Compartment compartment, EventContext context, ReceiverTarget target,
+        SuspendedEvent suspended) {
+      this.compartment = compartment;
+      this.context = context;
+      this.suspended = suspended;
+      this.target = target;
+    }
+
+    @Override
+    public void run() {
+      try {
+        // Already on the dispatch's executor, so don't submit the invocation again
+        suspended.resumeInCurrentThread();
+      } finally {
+        compartment.resumed(this);
+      }
+    }
+  }
+
+  /**
+   * Compartments are keyed by their names or by receiver {@link java.lang.reflect.Method}.
+   */
+  private final ConcurrentMap<Object, Compartment> compartments =
+      new ConcurrentHashMap<Object, Compartment>();
+  @EventExecutor
+  @Inject
+  private ExecutorService executor;
+
+  @Override
+  public Callable<Object> wrap(final Context<Bulkhead, Event> ctx) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        if (ctx.getAnnotation().maxConcurrent() <= 0) {
+          ctx.shortCircuit(new IllegalArgumentException("Bulkhead maxConcurrent must be positive: "
+            + ctx.getAnnotation().maxConcurrent()));
+          return null;
+        }
+        Compartment compartment = getCompartment(ctx);
+        switch (compartment.acquire(ctx)) {
+          case ADMITTED:
+            break;
+          case DISCARDED:
+            ctx.shortCircuit();
+            return null;
+          case REJECTED:
+            ctx.shortCircuit(new BulkheadFullException("Bulkhead " + compartment.name
+              + " is full"));
+            return null;
+          case SUSPENDED:
+            return null;
+        }
+
+        try {
+          return ctx.getWork().call();
+        } finally {
+          compartment.release();
+        }
+      }
+    };
+  }
+
+  private Compartment getCompartment(Context<Bulkhead, Event> ctx) {
+    String name = ctx.getAnnotation().name();
+    Object key = name.isEmpty() ? ctx.getTarget().getMethod() : name;
+    Compartment toReturn = compartments.get(key);
+    if (toReturn == null) {
+      Compartment newCompartment =
+          new Compartment(name.isEmpty() ? ctx.getTarget().toString() : name, executor);
+      toReturn = compartments.putIfAbsent(key, newCompartment);
+      if (toReturn == null) {
+        toReturn = newCompartment;
+      }
+    }
+    return toReturn;
+  }
+}
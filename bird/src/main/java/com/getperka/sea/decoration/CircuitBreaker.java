@@ -0,0 +1,101 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+/**
+ * Stops invoking a receiver that keeps failing. Once {@link #failureThreshold()} consecutive
+ * invocations have thrown one of the {@link #failOn()} types, the circuit opens and further
+ * invocations are short-circuited without occupying a dispatch thread, reporting a
+ * {@link CircuitOpenException} from {@link com.getperka.sea.ext.DispatchResult#getThrown()}.
+ * After {@link #openFor()} has elapsed, up to {@link #trialCalls()} invocations are admitted. If
+ * they all succeed, the circuit closes; if any fails, the circuit opens again.
+ * <p>
+ * By default, each receiver method has its own circuit. Receivers that share a dependency can share
+ * a circuit by specifying the same {@link #name()}:
+ * 
+ * <pre>
+ * &#064;CircuitBreaker(name = "billing", failureThreshold = 10, openFor = 30, unit = TimeUnit.SECONDS)
+ * public class BillingReceiver {
+ *   &#064;Receiver
+ *   void charge(ChargeEvent e) throws IOException {}
+ * 
+ *   &#064;Receiver
+ *   void refund(RefundEvent e) throws IOException {}
+ * }
+ * </pre>
+ */
+@Documented
+@EventDecoratorBinding(CircuitBreakerDecorator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface CircuitBreaker {
+  /**
+   * The number of consecutive failures that open the circuit.
+   */
+  int failureThreshold() default 5;
+
+  /**
+   * The types of exceptions, including their subtypes, that are counted as failures. Other
+   * exceptions are treated as successful invocations.
+   */
+  Class<? extends Throwable>[] failOn() default Exception.class;
+
+  /**
+   * The types of exceptions, including their subtypes, that neither open nor close the circuit,
+   * even if they match {@link #failOn()}. By default, invocations rejected by a {@link Bulkhead} or
+   * a {@link RateLimited} decorator are ignored, since they say nothing about the receiver's
+   * health. A {@link CircuitOpenException} from another circuit is always ignored.
+   */
+  Class<? extends Throwable>[] ignore() default { BulkheadFullException.class,
+      RateLimitExceededException.class };
+
+  /**
+   * The name of a circuit shared by all receivers that specify it. The default value gives each
+   * receiver method its own circuit.
+   */
+  String name() default "";
+
+  /**
+   * The length of time, in {@link #unit() units}, for which an open circuit short-circuits
+   * invocations before admitting trial invocations.
+   */
+  long openFor() default 10000;
+
+  /**
+   * The number of trial invocations that must succeed to close a half-open circuit. No more than
+   * this number of invocations are admitted while the circuit is half-open.
+   */
+  int trialCalls() default 1;
+
+  /**
+   * The unit of measurement for {@link #openFor()}. The default value is
+   * {@link TimeUnit#MILLISECONDS}.
+   */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
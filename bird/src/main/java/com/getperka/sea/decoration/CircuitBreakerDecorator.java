@@ -0,0 +1,226 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
+import com.getperka.sea.inject.EventLogger;
+
+/**
+ * Implementation for {@link CircuitBreaker}. While a circuit is closed, invocations only read a
+ * volatile field and, after a failure, update a counter; the circuit's monitor is acquired only to
+ * change its state or to admit trial invocations.
+ */
+@Singleton
+@StatelessDecorator
+class CircuitBreakerDecorator implements EventDecorator<CircuitBreaker, Event> {
+  /**
+   * The state of a single circuit.
+   */
+  class Circuit {
+    private final AtomicInteger failures = new AtomicInteger();
+    private final String name;
+    /**
+     * The time at which the circuit was last opened. Guarded by the circuit's monitor.
+     */
+    private long openedAt;
+    private volatile State state = State.CLOSED;
+    /**
+     * The number of trials that have succeeded while half-open. Guarded by the circuit's monitor.
+     */
+    private int succeeded;
+    /**
+     * The number of trials admitted while half-open. Guarded by the circuit's monitor.
+     */
+    private int trials;
+
+    Circuit(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Determine whether an invocation may proceed.
+     */
+    Permit acquire(CircuitBreaker annotation) {
+      if (state == State.CLOSED) {
+        return Permit.CLOSED;
+      }
+      synchronized (this) {
+        if (state == State.OPEN) {
+          if (System.nanoTime() - openedAt < annotation.unit().toNanos(annotation.openFor())) {
+            return Permit.REJECTED;
+          }
+          state = State.HALF_OPEN;
+          succeeded = 0;
+          trials = 0;
+          logger.info("Circuit {} is half-open", name);
+        }
+        if (state == State.CLOSED) {
+          return Permit.CLOSED;
+        }
+        if (trials < Math.max(1, annotation.trialCalls())) {
+          trials++;
+          return Permit.TRIAL;
+        }
+        return Permit.REJECTED;
+      }
+    }
+
+    /**
+     * Called when an invocation completed without a definite outcome, so that another trial may be
+     * admitted in its place.
+     */
+    void abandoned(Permit permit) {
+      if (permit == Permit.TRIAL) {
+        synchronized (this) {
+          if (state == State.HALF_OPEN) {
+            trials--;
+          }
+        }
+      }
+    }
+
+    void failed(Permit permit, CircuitBreaker annotation) {
+      if (permit == Permit.CLOSED
+        && failures.incrementAndGet() < Math.max(1, annotation.failureThreshold())) {
+        return;
+      }
+      synchronized (this) {
+        // Ignore the outcome of invocations admitted before the last change of state
+        if (permit == Permit.CLOSED && state == State.CLOSED
+          || permit == Permit.TRIAL && state == State.HALF_OPEN) {
+          openedAt = System.nanoTime();
+          state = State.OPEN;
+          logger.warn("Circuit {} is open", name);
+        }
+      }
+    }
+
+    void succeeded(Permit permit, CircuitBreaker annotation) {
+      if (permit == Permit.CLOSED) {
+        if (failures.get() != 0) {
+          failures.set(0);
+        }
+        return;
+      }
+      synchronized (this) {
+        if (state == State.HALF_OPEN && ++succeeded >= Math.max(1, annotation.trialCalls())) {
+          failures.set(0);
+          state = State.CLOSED;
+          logger.info("Circuit {} is closed", name);
+        }
+      }
+    }
+  }
+
+  /**
+   * The result of {@link Circuit#acquire}.
+   */
+  enum Permit {
+    CLOSED,
+    REJECTED,
+    TRIAL
+  }
+
+  enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  /**
+   * Circuits are keyed by their names or by receiver {@link java.lang.reflect.Method}, so that
+   * repeated or weak registrations of a receiver share one circuit and aren't retained by it.
+   */
+  private final ConcurrentMap<Object, Circuit> circuits = new ConcurrentHashMap<Object, Circuit>();
+  @EventLogger
+  @Inject
+  private Logger logger;
+
+  @Override
+  public Callable<Object> wrap(final Context<CircuitBreaker, Event> ctx) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        // Only take a permit once the work is certain to run, so that a trial is never leaked
+        CircuitBreaker annotation = ctx.getAnnotation();
+        Circuit circuit = getCircuit(ctx);
+        Permit permit = circuit.acquire(annotation);
+        if (permit == Permit.REJECTED) {
+          ctx.shortCircuit(new CircuitOpenException("Circuit " + circuit.name + " is open"));
+          return null;
+        }
+
+        Object toReturn;
+        try {
+          toReturn = ctx.getWork().call();
+        } catch (Exception e) {
+          circuit.abandoned(permit);
+          throw e;
+        }
+
+        Throwable thrown = ctx.wasThrown();
+        if (ctx.wasSuspended() || thrown instanceof CircuitOpenException
+          || thrown != null && isInstance(annotation.ignore(), thrown)) {
+          circuit.abandoned(permit);
+        } else if (thrown != null && isInstance(annotation.failOn(), thrown)) {
+          circuit.failed(permit, annotation);
+        } else {
+          circuit.succeeded(permit, annotation);
+        }
+        return toReturn;
+      }
+    };
+  }
+
+  private Circuit getCircuit(Context<CircuitBreaker, Event> ctx) {
+    String name = ctx.getAnnotation().name();
+    Object key = name.isEmpty() ? ctx.getTarget().getMethod() : name;
+    Circuit toReturn = circuits.get(key);
+    if (toReturn == null) {
+      Circuit newCircuit = new Circuit(name.isEmpty() ? ctx.getTarget().toString() : name);
+      toReturn = circuits.putIfAbsent(key, newCircuit);
+      if (toReturn == null) {
+        toReturn = newCircuit;
+      }
+    }
+    return toReturn;
+  }
+
+  private boolean isInstance(Class<? extends Throwable>[] types, Throwable thrown) {
+    for (Class<? extends Throwable> type : types) {
+      if (type.isInstance(thrown)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
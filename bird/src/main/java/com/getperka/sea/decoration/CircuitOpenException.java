@@ -0,0 +1,41 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Reported as the outcome of an invocation that was short-circuited by an open
+ * {@link CircuitBreaker}.
+ */
+public class CircuitOpenException extends RuntimeException {
+  private static final long serialVersionUID = -3349712870351204637L;
+
+  public CircuitOpenException(String message) {
+    super(message);
+  }
+
+  /**
+   * Omits the stack trace, which would only describe the decorator chain, so that rejecting
+   * invocations remains inexpensive.
+   */
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,84 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+/**
+ * Collapses a burst of events into a single invocation of the receiver. The first event to arrive
+ * opens a window of the given length, during which its invocation is suspended. Events with the
+ * same key that arrive while the window is open are combined with it by the {@link #merger()}.
+ * Once the window closes, the receiver is invoked once with the combined event and the other
+ * invocations are short-circuited. If the invocation that opened the window is not run, for
+ * instance because its deadline has passed, the combined event is delivered by one of the others.
+ * <p>
+ * Events that implement {@link CoalescedEvent} are keyed by
+ * {@link CoalescedEvent#getCoalescingKey()}; other events are combined only with events that are
+ * {@link Object#equals(Object) equal} to them.
+ * <p>
+ * This example reindexes each entity at most once per second, however many times it changes:
+ * 
+ * <pre>
+ * public class IndexReceiver {
+ *   &#064;Coalesce(value = 1, unit = TimeUnit.SECONDS)
+ *   &#064;Receiver
+ *   void reindex(EntityChangedEvent e) {}
+ * }
+ * </pre>
+ * 
+ * The window is measured from the first event, so a continuous stream of events does not postpone
+ * the invocation indefinitely.
+ */
+@Documented
+@EventDecoratorBinding(CoalesceDecorator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface Coalesce {
+  /**
+   * Combines the events in a window. The default implementation passes the most recent event to
+   * the receiver.
+   */
+  Class<? extends EventMerger<?>> merger() default EventMerger.Latest.class;
+
+  /**
+   * The name of a set of windows shared by all receivers that specify it. Each receiver that has
+   * an event in a shared window receives the combined event once. The default value gives each
+   * receiver method its own windows.
+   */
+  String name() default "";
+
+  /**
+   * The unit of measurement for {@link #value()}. The default value is
+   * {@link TimeUnit#MILLISECONDS}.
+   */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+  /**
+   * The length of the window, in {@link #unit() units}.
+   */
+  long value();
+}
@@ -0,0 +1,263 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.ext.StatelessDecorator;
+import com.getperka.sea.ext.SuspendedEvent;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.util.TimingWheel;
+import com.google.inject.Injector;
+
+/**
+ * Implementation for {@link Coalesce}.
+ * <p>
+ * The invocation that opens a window is suspended, as is the most recent invocation of each target
+ * that is merged into it. Older merged invocations of the same target are resumed and
+ * short-circuited. When the window closes, a timeout on the {@link TimingWheel} removes it from its
+ * group and resumes the suspended invocations in place on a dispatch thread, recording each one's
+ * {@link Member} for that thread while it does so. The first invocation of each target to pass
+ * through the decorator chain again receives the combined event and the others are
+ * short-circuited. If the invocation that opened the window never gets back to the decorator, for
+ * instance because its deadline passed or an outer decorator stopped it, a merged invocation of the
+ * same target delivers the combined event instead.
+ */
+@Singleton
+@StatelessDecorator
+class CoalesceDecorator implements EventDecorator<Coalesce, Event> {
+  /**
+   * The open windows for a receiver method or a name, keyed by the events' coalescing keys. Guarded
+   * by the group's monitor.
+   */
+  static class Group {
+    final Map<Object, Window> windows = new HashMap<Object, Window>();
+  }
+
+  /**
+   * A suspended invocation that belongs to a window.
+   */
+  class Member implements Runnable {
+    final EventContext context;
+    /**
+     * Set if a more recent invocation of the same target has replaced this one. Guarded by the
+     * group's monitor.
+     */
+    boolean dismissed;
+    final SuspendedEvent suspended;
+    final ReceiverTarget target;
+    final Window window;
+
+    Member(Window window, EventContext context, ReceiverTarget target, SuspendedEvent suspended) {
+      this.context = context;
+      this.suspended = suspended;
+      this.target = target;
+      this.window = window;
+    }
+
+    @Override
+    public void run() {
+      resuming.set(this);
+      try {
+        // Already on the dispatch's executor, so don't submit the invocation again
+        suspended.resumeInCurrentThread();
+      } finally {
+        resuming.remove();
+      }
+    }
+  }
+
+  class Window extends TimingWheel.Timeout implements Runnable {
+    /**
+     * The targets that have received the combined event. Guarded by the group's monitor.
+     */
+    final Set<ReceiverTarget> delivered = new HashSet<ReceiverTarget>();
+    final Group group;
+    final Object key;
+    /**
+     * The most recent merged invocation of each target. Guarded by the group's monitor.
+     */
+    final Map<ReceiverTarget, Member> latest = new LinkedHashMap<ReceiverTarget, Member>();
+    /**
+     * The combined event. Guarded by the group's monitor.
+     */
+    Event merged;
+    Member owner;
+
+    Window(Group group, Object key, Event merged) {
+      this.group = group;
+      this.key = key;
+      this.merged = merged;
+    }
+
+    @Override
+    public void run() {
+      List<Member> toResume = new ArrayList<Member>();
+      synchronized (group) {
+        if (group.windows.get(key) == this) {
+          group.windows.remove(key);
+        }
+        toResume.add(owner);
+        toResume.addAll(latest.values());
+      }
+      for (Member member : toResume) {
+        member.run();
+      }
+    }
+
+    /**
+     * Called with the wheel's slot locked, so the window is closed on the executor.
+     */
+    @Override
+    protected void expire() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ignored) {
+        // The dispatch has been shut down, so there's nothing to resume into
+      }
+    }
+  }
+
+  @EventExecutor
+  @Inject
+  private ExecutorService executor;
+  /**
+   * Groups are keyed by their names or by receiver {@link java.lang.reflect.Method}.
+   */
+  private final ConcurrentMap<Object, Group> groups = new ConcurrentHashMap<Object, Group>();
+  @Inject
+  private Injector injector;
+  private final ConcurrentMap<Class<?>, EventMerger<Event>> mergers =
+      new ConcurrentHashMap<Class<?>, EventMerger<Event>>();
+  /**
+   * The member being resumed by the current thread.
+   */
+  private final ThreadLocal<Member> resuming = new ThreadLocal<Member>();
+  private final TimingWheel wheel = TimingWheel.shared();
+
+  @Override
+  public Callable<Object> wrap(final Context<Coalesce, Event> ctx) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        Coalesce annotation = ctx.getAnnotation();
+        Event event = ctx.getEvent();
+        Member member = resuming.get();
+        if (member != null && member.context == ctx.getContext()
+          && member.target.equals(ctx.getTarget())) {
+          resuming.remove();
+          Event merged = null;
+          synchronized (member.window.group) {
+            if (!member.dismissed && member.window.delivered.add(member.target)) {
+              merged = member.window.merged;
+            }
+          }
+          if (merged == null) {
+            // Superseded by another invocation in the window
+            ctx.shortCircuit();
+            return null;
+          }
+          if (merged != event) {
+            ctx.replaceEvent(merged);
+          }
+          return ctx.getWork().call();
+        }
+
+        Object key = event instanceof CoalescedEvent ?
+            ((CoalescedEvent) event).getCoalescingKey() : event;
+        Group group = getGroup(ctx);
+        SuspendedEvent suspended = ctx.getContext().suspend();
+        Window toOpen = null;
+        Member toDismiss;
+        synchronized (group) {
+          Window window = group.windows.get(key);
+          if (window == null) {
+            toOpen = new Window(group, key, event);
+            toOpen.owner = new Member(toOpen, ctx.getContext(), ctx.getTarget(), suspended);
+            group.windows.put(key, toOpen);
+            toDismiss = null;
+          } else {
+            window.merged = getMerger(annotation).merge(window.merged, event);
+            toDismiss = window.latest.put(ctx.getTarget(),
+                new Member(window, ctx.getContext(), ctx.getTarget(), suspended));
+            if (toDismiss != null) {
+              toDismiss.dismissed = true;
+            }
+          }
+        }
+
+        if (toOpen != null) {
+          wheel.schedule(toOpen, annotation.value(), annotation.unit());
+        }
+        if (toDismiss != null) {
+          try {
+            executor.execute(toDismiss);
+          } catch (RejectedExecutionException ignored) {
+            // The dispatch has been shut down
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  private Group getGroup(Context<Coalesce, Event> ctx) {
+    String name = ctx.getAnnotation().name();
+    Object key = name.isEmpty() ? ctx.getTarget().getMethod() : name;
+    Group toReturn = groups.get(key);
+    if (toReturn == null) {
+      Group newGroup = new Group();
+      toReturn = groups.putIfAbsent(key, newGroup);
+      if (toReturn == null) {
+        toReturn = newGroup;
+      }
+    }
+    return toReturn;
+  }
+
+  @SuppressWarnings("unchecked")
+  private EventMerger<Event> getMerger(Coalesce annotation) {
+    Class<? extends EventMerger<?>> clazz = annotation.merger();
+    EventMerger<Event> toReturn = mergers.get(clazz);
+    if (toReturn == null) {
+      toReturn = (EventMerger<Event>) injector.getInstance(clazz);
+      mergers.putIfAbsent(clazz, toReturn);
+    }
+    return toReturn;
+  }
+}
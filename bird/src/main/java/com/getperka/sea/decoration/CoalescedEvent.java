@@ -0,0 +1,34 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.getperka.sea.Event;
+
+/**
+ * An event type that is merged by {@link Coalesce} with other events that have an equal key.
+ */
+public interface CoalescedEvent extends Event {
+  /**
+   * Returns the key that identifies events to combine, for instance the id of the entity that the
+   * event describes. The key must implement {@link Object#equals(Object)} and
+   * {@link Object#hashCode()}.
+   */
+  Object getCoalescingKey();
+}
@@ -0,0 +1,67 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+/**
+ * Skips the receiver if the event was fired longer ago than the specified time allotment, because
+ * whoever fired it is assumed to have given up waiting. The receiver is also skipped if the event's
+ * own {@link EventContext#getDeadline() deadline} has passed. A skipped invocation's
+ * {@link com.getperka.sea.ext.DispatchResult#wasExpired()} method returns {@code true}.
+ * <p>
+ * This example drops lookups that have waited in the queue for more than 250 milliseconds.
+ * 
+ * <pre>
+ * &#064;Deadline(250)
+ * public class LookupReceiver {
+ *   &#064;Receiver
+ *   void lookup(LookupEvent e) {}
+ * }
+ * </pre>
+ * 
+ * The check is repeated when a suspended invocation is resumed, so the time allotment also bounds
+ * the time spent suspended.
+ */
+@Documented
+@EventDecoratorBinding(DeadlineDecorator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface Deadline {
+  /**
+   * The unit of measurement for {@link #value()}. The default value is
+   * {@link TimeUnit#MILLISECONDS}.
+   */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+  /**
+   * The maximum age of an event, expressed as the number of {@link #unit() units} since it was
+   * fired.
+   */
+  long value();
+}
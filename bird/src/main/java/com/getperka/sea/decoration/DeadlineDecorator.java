@@ -0,0 +1,48 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
+
+/**
+ * Implementation for {@link Deadline}.
+ */
+@StatelessDecorator
+class DeadlineDecorator implements EventDecorator<Deadline, Event> {
+  @Override
+  public Callable<Object> wrap(Context<Deadline, Event> ctx) {
+    Deadline annotation = ctx.getAnnotation();
+    EventContext context = ctx.getContext();
+
+    long now = System.nanoTime();
+    long deadline = context.getDeadline();
+    if (now - context.getFireTime() > annotation.unit().toNanos(annotation.value())
+        || deadline != 0 && now - deadline > 0) {
+      ctx.expire();
+      return null;
+    }
+    return ctx.getWork();
+  }
+}
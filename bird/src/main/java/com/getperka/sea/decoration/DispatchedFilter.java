@@ -23,10 +23,12 @@ import java.util.concurrent.Callable;
 
 import com.getperka.sea.ext.DispatchCompleteEvent;
 import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
 
 /**
  * Implementation for {@link Dispatched}.
  */
+@StatelessDecorator
 class DispatchedFilter implements EventDecorator<Dispatched, DispatchCompleteEvent> {
   @Override
   public Callable<Object> wrap(Context<Dispatched, DispatchCompleteEvent> ctx) {
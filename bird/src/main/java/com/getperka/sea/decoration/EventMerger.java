@@ -0,0 +1,50 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.getperka.sea.Event;
+
+/**
+ * Combines events that have been coalesced by {@link Coalesce}. Implementations are obtained from
+ * the dispatch's injector and must be thread-safe.
+ * 
+ * @param <E> the type of event to combine
+ */
+public interface EventMerger<E extends Event> {
+  /**
+   * Keeps the most recent event.
+   */
+  class Latest implements EventMerger<Event> {
+    @Override
+    public Event merge(Event previous, Event next) {
+      return next;
+    }
+  }
+
+  /**
+   * Combine two events. This method is called while the events for the receiver are locked, so it
+   * should return quickly.
+   * 
+   * @param previous the event, or the result of an earlier merge, that is waiting to be received
+   * @param next the event that arrived most recently
+   * @return the event to pass to the receiver
+   */
+  E merge(E previous, E next);
+}
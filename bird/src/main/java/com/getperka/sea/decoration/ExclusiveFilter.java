@@ -30,9 +30,11 @@ import javax.inject.Singleton;
 
 import com.getperka.sea.Event;
 import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
 import com.getperka.sea.util.WeakEventReference;
 
 @Singleton
+@StatelessDecorator
 class ExclusiveFilter implements EventDecorator<Exclusive, Event> {
 
   private final Lock cleanupLock = new ReentrantLock();
@@ -29,7 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import com.getperka.sea.Event;
 import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
 
+@StatelessDecorator
 class LoggingDecorator implements EventDecorator<Logged, Event> {
   @Inject
   LoggingDecorator() {}
@@ -0,0 +1,40 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Determines what happens to an invocation that arrives while a {@link Bulkhead} and its queue are
+ * full.
+ */
+public enum OverflowPolicy {
+  /**
+   * The invocation is short-circuited and reports a {@link BulkheadFullException}.
+   */
+  REJECT,
+  /**
+   * The invocation is short-circuited without reporting an exception.
+   */
+  DISCARD,
+  /**
+   * The invocation that has been queued the longest is rejected with a
+   * {@link BulkheadFullException} and the new invocation is queued in its place.
+   */
+  DROP_OLDEST;
+}
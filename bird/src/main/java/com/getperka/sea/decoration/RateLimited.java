@@ -0,0 +1,91 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+/**
+ * Limits the rate at which a receiver is invoked, using a token bucket that holds up to
+ * {@link #burst()} tokens and is refilled with {@link #permits()} tokens every {@link #period()}.
+ * An invocation that arrives when the bucket is empty reserves the next token and is suspended
+ * until it becomes available, so waiting does not occupy a dispatch thread. If the wait would
+ * exceed {@link #maxDelay()}, the invocation is instead short-circuited and reports a
+ * {@link RateLimitExceededException}.
+ * <p>
+ * By default, each receiver method has its own bucket. Receivers that share a quota can share a
+ * bucket by specifying the same {@link #name()}:
+ * 
+ * <pre>
+ * &#064;RateLimited(name = "geocoder", permits = 50, maxDelay = 10)
+ * public class GeocodingReceiver {
+ *   &#064;Receiver
+ *   void geocode(AddressEvent e) {}
+ * }
+ * </pre>
+ */
+@Documented
+@EventDecoratorBinding(RateLimitedDecorator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface RateLimited {
+  /**
+   * The maximum number of tokens in the bucket, which bounds the number of invocations that may
+   * proceed at once after an idle period. The default value uses {@link #permits()}.
+   */
+  int burst() default 0;
+
+  /**
+   * The longest time, in {@link #unit() units}, that an invocation may be suspended. Use {@code 0}
+   * to reject invocations whenever the bucket is empty. The default value allows invocations to
+   * reserve up to {@link #burst()} tokens ahead of the refill rate, so the backlog of suspended
+   * invocations is bounded.
+   */
+  long maxDelay() default -1;
+
+  /**
+   * The name of a bucket shared by all receivers that specify it. The default value gives each
+   * receiver method its own bucket.
+   */
+  String name() default "";
+
+  /**
+   * The length, in {@link #unit() units}, of the period in which {@link #permits()} invocations are
+   * allowed.
+   */
+  long period() default 1;
+
+  /**
+   * The number of invocations allowed in each {@link #period()}.
+   */
+  int permits();
+
+  /**
+   * The unit of measurement for {@link #period()} and {@link #maxDelay()}. The default value is
+   * {@link TimeUnit#SECONDS}.
+   */
+  TimeUnit unit() default TimeUnit.SECONDS;
+}
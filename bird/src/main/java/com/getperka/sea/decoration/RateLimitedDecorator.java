@@ -0,0 +1,201 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.ext.StatelessDecorator;
+import com.getperka.sea.ext.SuspendedEvent;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.util.TimingWheel;
+
+/**
+ * Implementation for {@link RateLimited}.
+ * <p>
+ * The bucket may go into debt: an invocation that finds it empty takes a token anyway and waits
+ * until the debt has been repaid. Because the token is reserved, the resumed invocation must not
+ * compete for a new one. The decorator resumes the invocation itself, on a dispatch thread, and
+ * records the {@link Reservation} for that thread while it does so. When the invocation passes
+ * through the decorator chain again, it is admitted by matching the {@link EventContext} and
+ * {@link ReceiverTarget} of the reservation. A reserved token is spent whether or not the resumed
+ * invocation gets back to the decorator.
+ */
+@Singleton
+@StatelessDecorator
+class RateLimitedDecorator implements EventDecorator<RateLimited, Event> {
+  /**
+   * The state of a single token bucket.
+   */
+  static class Bucket {
+    private final String name;
+    /**
+     * The time at which {@link #tokens} was last updated.
+     */
+    private long refilled = System.nanoTime();
+    /**
+     * The number of tokens in the bucket, which is negative if tokens have been reserved.
+     */
+    private double tokens;
+
+    Bucket(String name, RateLimited annotation) {
+      this.name = name;
+      tokens = capacity(annotation);
+    }
+
+    /**
+     * Take a token from the bucket.
+     * 
+     * @return {@code 0} if the invocation may proceed, the number of nanoseconds for which it
+     *         should be suspended, or {@code -1} if it should be rejected
+     */
+    synchronized long acquire(RateLimited annotation) {
+      long now = System.nanoTime();
+      double nanosPerToken = annotation.unit().toNanos(annotation.period())
+        / (double) Math.max(1, annotation.permits());
+      tokens = Math.min(capacity(annotation), tokens + (now - refilled) / nanosPerToken);
+      refilled = now;
+
+      if (tokens >= 1) {
+        tokens--;
+        return 0;
+      }
+      long delay = Math.max(1, (long) Math.ceil((1 - tokens) * nanosPerToken));
+      long maxDelay = annotation.maxDelay() < 0 ? (long) (capacity(annotation) * nanosPerToken)
+          : annotation.unit().toNanos(annotation.maxDelay());
+      if (delay > maxDelay) {
+        return -1;
+      }
+      tokens--;
+      return delay;
+    }
+
+    private int capacity(RateLimited annotation) {
+      return Math.max(1, annotation.burst() > 0 ? annotation.burst() : annotation.permits());
+    }
+  }
+
+  /**
+   * A token reserved by a suspended invocation, which is resumed on the dispatch's executor once
+   * the token becomes available.
+   */
+  class Reservation extends TimingWheel.Timeout implements Runnable {
+    final EventContext context;
+    final SuspendedEvent suspended;
+    final ReceiverTarget target;
+
+    Reservation(EventContext context, ReceiverTarget target, SuspendedEvent suspended) {
+      this.context = context;
+      this.suspended = suspended;
+      this.target = target;
+    }
+
+    @Override
+    public void run() {
+      reserved.set(this);
+      try {
+        // Already on the dispatch's executor, so don't submit the invocation again
+        suspended.resumeInCurrentThread();
+      } finally {
+        reserved.remove();
+      }
+    }
+
+    /**
+     * Called with the wheel's slot locked, so the invocation is handed off to the executor.
+     */
+    @Override
+    protected void expire() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ignored) {
+        // The dispatch has been shut down, so there's nothing to resume into
+      }
+    }
+  }
+
+  /**
+   * Buckets are keyed by their names or by receiver {@link java.lang.reflect.Method}.
+   */
+  private final ConcurrentMap<Object, Bucket> buckets = new ConcurrentHashMap<Object, Bucket>();
+  @EventExecutor
+  @Inject
+  private ExecutorService executor;
+  /**
+   * The reservation of the invocation being resumed by the current thread.
+   */
+  private final ThreadLocal<Reservation> reserved = new ThreadLocal<Reservation>();
+  private final TimingWheel wheel = TimingWheel.shared();
+
+  @Override
+  public Callable<Object> wrap(final Context<RateLimited, Event> ctx) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        Reservation reservation = reserved.get();
+        if (reservation != null && reservation.context == ctx.getContext()
+          && reservation.target.equals(ctx.getTarget())) {
+          reserved.remove();
+          return ctx.getWork().call();
+        }
+
+        Bucket bucket = getBucket(ctx);
+        long delay = bucket.acquire(ctx.getAnnotation());
+        if (delay < 0) {
+          ctx.shortCircuit(new RateLimitExceededException("Rate limit " + bucket.name
+            + " exceeded"));
+          return null;
+        }
+        if (delay > 0) {
+          wheel.schedule(new Reservation(ctx.getContext(), ctx.getTarget(),
+              ctx.getContext().suspend()), delay, TimeUnit.NANOSECONDS);
+          return null;
+        }
+        return ctx.getWork().call();
+      }
+    };
+  }
+
+  private Bucket getBucket(Context<RateLimited, Event> ctx) {
+    String name = ctx.getAnnotation().name();
+    Object key = name.isEmpty() ? ctx.getTarget().getMethod() : name;
+    Bucket toReturn = buckets.get(key);
+    if (toReturn == null) {
+      Bucket newBucket =
+          new Bucket(name.isEmpty() ? ctx.getTarget().toString() : name, ctx.getAnnotation());
+      toReturn = buckets.putIfAbsent(key, newBucket);
+      if (toReturn == null) {
+        toReturn = newBucket;
+      }
+    }
+    return toReturn;
+  }
+}
@@ -0,0 +1,85 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+/**
+ * Attempts a receiver again if it throws an exception. Between attempts the invocation is
+ * suspended, so no dispatch thread is occupied while waiting; the delay before each successive
+ * attempt is multiplied by {@link #multiplier()}.
+ * <p>
+ * This example makes up to four attempts, waiting 100, 200, and then 400 milliseconds:
+ * 
+ * <pre>
+ * &#064;Retry(maxAttempts = 4, backoff = 100, retryOn = IOException.class)
+ * public class RemoteReceiver {
+ *   &#064;Receiver
+ *   void send(RemoteEvent e) throws IOException {}
+ * }
+ * </pre>
+ * 
+ * The number of retries is available from
+ * {@link com.getperka.sea.ext.DispatchResult#getRetryCount()}. The receiver must be able to
+ * tolerate receiving the same event more than once.
+ */
+@Documented
+@EventDecoratorBinding(RetryDecorator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface Retry {
+  /**
+   * The delay before the first retry, in {@link #unit() units}.
+   */
+  long backoff() default 100;
+
+  /**
+   * The total number of times the receiver may be invoked, including the first attempt.
+   */
+  int maxAttempts() default 3;
+
+  /**
+   * The maximum delay between attempts, in {@link #unit() units}, or {@code 0} for no limit.
+   */
+  long maxBackoff() default 0;
+
+  /**
+   * The factor by which the delay increases after each attempt.
+   */
+  double multiplier() default 2;
+
+  /**
+   * The types of exceptions, including their subtypes, that cause the receiver to be retried.
+   */
+  Class<? extends Throwable>[] retryOn() default Exception.class;
+
+  /**
+   * The unit of measurement for {@link #backoff()} and {@link #maxBackoff()}. The default value is
+   * {@link TimeUnit#MILLISECONDS}.
+   */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,117 @@
+package com.getperka.sea.decoration;
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
+import com.getperka.sea.ext.SuspendedEvent;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.util.TimingWheel;
+
+/**
+ * Implementation for {@link Retry}. Each suspended attempt is scheduled directly on the
+ * {@link TimingWheel#shared() shared timing wheel}, and is resumed on the dispatch's executor once
+ * its backoff has elapsed.
+ */
+@Singleton
+@StatelessDecorator
+class RetryDecorator implements EventDecorator<Retry, Event> {
+  /**
+   * Resumes a suspended attempt once its backoff has elapsed.
+   */
+  class Backoff extends TimingWheel.Timeout implements Runnable {
+    private final SuspendedEvent suspended;
+
+    Backoff(SuspendedEvent suspended) {
+      this.suspended = suspended;
+    }
+
+    @Override
+    public void run() {
+      // Already on the dispatch's executor, so don't submit the invocation again
+      suspended.resumeInCurrentThread();
+    }
+
+    /**
+     * Called with the wheel's slot locked, so the attempt is handed off to the executor.
+     */
+    @Override
+    protected void expire() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ignored) {
+        // The dispatch has been shut down, so there's nothing to retry into
+      }
+    }
+  }
+
+  @EventExecutor
+  @Inject
+  private ExecutorService executor;
+  private final TimingWheel wheel = TimingWheel.shared();
+
+  @Override
+  public Callable<Object> wrap(final Context<Retry, Event> ctx) {
+    return new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        Object toReturn = ctx.getWork().call();
+
+        Retry annotation = ctx.getAnnotation();
+        Throwable thrown = ctx.wasThrown();
+        int attempt = ctx.getRetryCount() + 1;
+        if (thrown != null && !ctx.wasSuspended() && attempt < annotation.maxAttempts()
+          && shouldRetry(annotation, thrown)) {
+          wheel.schedule(new Backoff(ctx.retry()), getBackoff(annotation, attempt),
+              annotation.unit());
+        }
+        return toReturn;
+      }
+    };
+  }
+
+  /**
+   * Returns the delay after the given attempt.
+   */
+  private long getBackoff(Retry annotation, int attempt) {
+    double backoff = annotation.backoff() * Math.pow(annotation.multiplier(), attempt - 1);
+    if (annotation.maxBackoff() > 0) {
+      backoff = Math.min(backoff, annotation.maxBackoff());
+    }
+    return (long) Math.min(backoff, Long.MAX_VALUE);
+  }
+
+  private boolean shouldRetry(Retry annotation, Throwable thrown) {
+    for (Class<? extends Throwable> retryOn : annotation.retryOn()) {
+      if (retryOn.isInstance(thrown)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
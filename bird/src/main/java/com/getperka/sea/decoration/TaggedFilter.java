@@ -25,7 +25,9 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 
 import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
 
+@StatelessDecorator
 class TaggedFilter implements EventDecorator<Tagged, TaggedEvent> {
   @Override
   public Callable<Object> wrap(Context<Tagged, TaggedEvent> ctx) {
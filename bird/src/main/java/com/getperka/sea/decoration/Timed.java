@@ -50,7 +50,8 @@ public @interface Timed {
    * <p>
    * Note that the use of {@link Thread#stop()} is inherently unsafe. Additionally, it is possible
    * for the injected exception to be caught by a {@code catch (Throwable t)} block, which may alter
-   * the target thread's termination behavior.
+   * the target thread's termination behavior. If the JVM no longer supports stopping threads, the
+   * thread is interrupted instead.
    */
   boolean stop() default false;
 
@@ -21,6 +21,9 @@ package com.getperka.sea.decoration;
  */
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.inject.Inject;
 
@@ -28,56 +31,172 @@ import org.slf4j.Logger;
 
 import com.getperka.sea.Event;
 import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.StatelessDecorator;
 import com.getperka.sea.inject.EventLogger;
+import com.getperka.sea.util.TimingWheel;
 
 /**
  * Implements a simple timeout mechanism for preventing excessive thread wall-time.
+ * <p>
+ * All timed invocations share the {@link TimingWheel#shared() process-wide timing wheel}. Each
+ * invocation's entry in the wheel is taken from a per-thread free list when the work starts and is
+ * returned when it finishes, so a timed invocation that completes in time never starts a thread.
+ * An expired watchdog only hands the late thread to a separate reaper thread, which interrupts or
+ * stops it outside of the wheel's locks.
  */
+@StatelessDecorator
 class TimedDecorator implements EventDecorator<Timed, Event> {
   /**
-   * Pipe-hitter.
+   * Interrupts or stops the thread of an expired invocation, unless the invocation has completed
+   * in the meantime.
    */
-  static class ThreadKiller extends Thread {
-    private final long killMilliTime;
-    private final Thread toKill;
-    private final boolean stop;
-    private volatile boolean canceled;
-
-    ThreadKiller(Thread toKill, Timed timed) {
-      setName("ThreadKiller for " + toKill.getName());
-      killMilliTime = System.currentTimeMillis() + timed.unit().toMillis(timed.value());
-      this.toKill = toKill;
-      stop = timed.stop();
-    }
+  static class Kill implements Runnable {
+    private final int generation;
+    private final Thread thread;
+    private final Watchdog watchdog;
 
-    public void cancel() {
-      canceled = true;
-      this.interrupt();
+    Kill(Watchdog watchdog, Thread thread, int generation) {
+      this.generation = generation;
+      this.thread = thread;
+      this.watchdog = watchdog;
     }
 
     @Override
     @SuppressWarnings("deprecation")
     public void run() {
-      while (!canceled) {
-        long remaining = killMilliTime - System.currentTimeMillis();
-        if (remaining > 0) {
+      synchronized (watchdog) {
+        // The watchdog may have been recycled for a later invocation on the same thread
+        if (watchdog.toKill != thread || watchdog.generation != generation) {
+          return;
+        }
+        if (watchdog.stop) {
+          TimeoutError error = new TimeoutError();
+          error.setStackTrace(thread.getStackTrace());
           try {
-            Thread.sleep(remaining);
-          } catch (InterruptedException ignored) {}
-        } else {
-          break;
+            thread.stop(error);
+            return;
+          } catch (UnsupportedOperationException e) {
+            // Thread.stop(Throwable) is unsupported on JDK 8 and removed in later versions
+          } catch (NoSuchMethodError e) {}
         }
+        thread.interrupt();
       }
-      if (!canceled && toKill.isAlive()) {
-        if (stop) {
-          TimeoutError error = new TimeoutError();
-          error.setStackTrace(toKill.getStackTrace());
-          toKill.stop(error);
-        } else {
-          toKill.interrupt();
+    }
+  }
+
+  /**
+   * Recycles {@link Watchdog} instances for a single thread. Nested timed invocations, such as
+   * synchronous receivers, use one instance per level of nesting.
+   */
+  class Pool {
+    private Watchdog free;
+
+    void give(Watchdog watchdog) {
+      watchdog.nextFree = free;
+      free = watchdog;
+    }
+
+    Watchdog take() {
+      Watchdog toReturn = free;
+      if (toReturn == null) {
+        return new Watchdog(this);
+      }
+      free = toReturn.nextFree;
+      toReturn.nextFree = null;
+      return toReturn;
+    }
+  }
+
+  /**
+   * Pipe-hitter. Interrupts or stops the thread executing the work if the work does not complete
+   * before the timeout expires.
+   */
+  class Watchdog extends TimingWheel.Timeout {
+    /**
+     * Distinguishes the invocations that reuse the watchdog. Only written under the watchdog's
+     * monitor.
+     */
+    private volatile int generation;
+    private Watchdog nextFree;
+    private final Pool pool;
+    private volatile boolean stop;
+    private volatile Thread toKill;
+
+    Watchdog(Pool pool) {
+      this.pool = pool;
+    }
+
+    /**
+     * Runs the work on the calling thread, which must own the watchdog's pool.
+     */
+    Object watch(Context<Timed, Event> ctx) throws Exception {
+      Timed timed = ctx.getAnnotation();
+      TimeoutError timeout = null;
+      synchronized (this) {
+        generation++;
+        toKill = Thread.currentThread();
+      }
+      stop = timed.stop();
+      wheel.schedule(this, timed.value(), timed.unit());
+      try {
+        return call(ctx.getWork());
+      } catch (TimeoutError e) {
+        /*
+         * It's possible that the timeout error may have been pused into the stack while a
+         * decorator's Callable code is running.
+         */
+        timeout = e;
+        return null;
+      } finally {
+        boolean expired = !cancel();
+        // Once cleared, a pending Kill for this invocation won't touch the thread
+        synchronized (this) {
+          toKill = null;
+        }
+        if (expired) {
+          // Don't leave a late interrupt set on a pooled thread
+          Thread.interrupted();
+        }
+        if (ctx.wasThrown() instanceof TimeoutError) {
+          timeout = (TimeoutError) ctx.wasThrown();
         }
+        if (timeout != null) {
+          logger.error("Timeout while executing " + ctx.getTarget(), ctx.wasThrown());
+        }
+        pool.give(this);
+      }
+    }
+
+    /**
+     * Runs on the wheel thread under the slot lock, so the late thread is only handed to the
+     * reaper.
+     */
+    @Override
+    protected void expire() {
+      Thread thread = toKill;
+      if (thread != null) {
+        Reaper.EXECUTOR.execute(new Kill(this, thread, generation));
       }
     }
+
+    private Object call(Callable<Object> work) throws Exception, TimeoutError {
+      return work.call();
+    }
+  }
+
+  /**
+   * Lazily creates the thread that interrupts or stops late invocations.
+   */
+  private static class Reaper {
+    static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+        new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "SEA Timed reaper");
+            t.setDaemon(true);
+            return t;
+          }
+        });
   }
 
   /**
@@ -89,38 +208,24 @@ class TimedDecorator implements EventDecorator<Timed, Event> {
   @EventLogger
   @Inject
   private Logger logger;
+  private final ThreadLocal<Pool> pools = new ThreadLocal<Pool>() {
+    @Override
+    protected Pool initialValue() {
+      return new Pool();
+    }
+  };
+  private final TimingWheel wheel = TimingWheel.shared();
 
   @Override
   public Callable<Object> wrap(final Context<Timed, Event> ctx) {
     return new Callable<Object>() {
-
       @Override
       public Object call() throws Exception {
-        TimeoutError timeout = null;
-        ThreadKiller killer = new ThreadKiller(Thread.currentThread(), ctx.getAnnotation());
-        killer.start();
-        try {
-          return call(ctx.getWork());
-        } catch (TimeoutError e) {
-          /*
-           * It's possible that the timeout error may have been pused into the stack while a
-           * decorator's Callable code is running.
-           */
-          timeout = e;
-          return null;
-        } finally {
-          killer.cancel();
-          if (ctx.wasThrown() instanceof TimeoutError) {
-            timeout = (TimeoutError) ctx.wasThrown();
-          }
-          if (timeout != null) {
-            logger.error("Timeout while executing " + ctx.getTarget(), ctx.wasThrown());
-          }
-        }
-      }
-
-      private Object call(Callable<Object> work) throws Exception, TimeoutError {
-        return work.call();
+        /*
+         * The watchdog is only taken once the work runs, and from the thread that runs it, so a
+         * callable that is never invoked, or is invoked more than once, can't corrupt the pool.
+         */
+        return pools.get().take().watch(ctx);
       }
     };
   }
@@ -0,0 +1,182 @@
+package com.getperka.sea.shedding;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DrainEvent;
+import com.getperka.sea.ext.EventObserver;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.inject.EventLogger;
+import com.getperka.sea.metrics.DispatchStats;
+import com.getperka.sea.metrics.Histogram;
+
+/**
+ * Implementation for {@link LoadShedding}.
+ */
+class LoadShedder implements EventObserver<LoadShedding, Event> {
+  private LoadShedding annotation;
+  /**
+   * Memoizes {@link #isShed(Class)}, since the answer for an event type never changes.
+   */
+  private final ConcurrentMap<Class<?>, Boolean> decisions =
+      new ConcurrentHashMap<Class<?>, Boolean>();
+  @Inject
+  private EventDispatch dispatch;
+  @EventExecutor
+  @Inject
+  private ExecutorService executor;
+  private long intervalNanos;
+  @EventLogger
+  @Inject
+  private Logger logger;
+  private long maxQueueWaitNanos;
+  /**
+   * The time after which the next thread to fire an event will take a measurement.
+   */
+  private final AtomicLong nextMeasurement = new AtomicLong(System.nanoTime());
+  /**
+   * The cumulative queue wait count and sum at the previous measurement. Guarded by the thread that
+   * advanced {@link #nextMeasurement}.
+   */
+  private long previousCount;
+  private long previousSum;
+  /**
+   * The ratio of the mean queue wait to its limit at the most recent measurement that had samples.
+   * Guarded like {@link #previousCount}.
+   */
+  private double queueWaitLoad;
+  private volatile boolean shedding;
+  private final AtomicLong shedCount = new AtomicLong();
+
+  @Inject
+  LoadShedder() {}
+
+  @Override
+  public void initialize(LoadShedding annotation) {
+    this.annotation = annotation;
+    intervalNanos = annotation.unit().toNanos(annotation.interval());
+    maxQueueWaitNanos = annotation.unit().toNanos(annotation.maxQueueWait());
+  }
+
+  @Override
+  public void observeEvent(Context<Event> context) {
+    long now = System.nanoTime();
+    long next = nextMeasurement.get();
+    if (now - next >= 0 && nextMeasurement.compareAndSet(next, now + intervalNanos)) {
+      measure();
+    }
+
+    if (shedding && isShed(context.getEvent().getClass())) {
+      shedCount.incrementAndGet();
+      context.suppressEvent();
+    }
+  }
+
+  @Override
+  public void shutdown() {}
+
+  private boolean isShed(Class<?> eventType) {
+    Boolean toReturn = decisions.get(eventType);
+    if (toReturn == null) {
+      toReturn = computeShed(eventType);
+      decisions.put(eventType, toReturn);
+    }
+    return toReturn;
+  }
+
+  private boolean computeShed(Class<?> eventType) {
+    // Suppressing these would break draining and the completion of other suppressed events
+    if (DispatchCompleteEvent.class.isAssignableFrom(eventType)
+      || DrainEvent.class.isAssignableFrom(eventType)) {
+      return false;
+    }
+    for (Class<? extends Event> shed : annotation.shed()) {
+      if (shed.isAssignableFrom(eventType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compare each measurement to its limit and update {@link #shedding}.
+   */
+  private void measure() {
+    // The largest ratio of a measurement to its limit
+    double load = 0;
+
+    if (annotation.maxPending() > 0) {
+      load = Math.max(load,
+          (double) dispatch.getMetrics().getPendingCount() / annotation.maxPending());
+    }
+
+    if (maxQueueWaitNanos > 0) {
+      long count = 0;
+      long sum = 0;
+      for (DispatchStats stats : dispatch.getMetrics().getEventTypes().values()) {
+        Histogram queueWait = stats.getQueueWait();
+        count += queueWait.getCount();
+        sum += queueWait.getSum();
+      }
+      if (count > previousCount) {
+        double mean = (double) (sum - previousSum) / (count - previousCount);
+        queueWaitLoad = mean / maxQueueWaitNanos;
+      } else if (dispatch.getMetrics().getPendingCount() == 0) {
+        queueWaitLoad = 0;
+      }
+      /*
+       * Otherwise, nothing has started since the previous measurement even though invocations are
+       * pending. A stalled pool produces no samples, so keep the previous value rather than
+       * treating the stall as an idle dispatch.
+       */
+      load = Math.max(load, queueWaitLoad);
+      previousCount = count;
+      previousSum = sum;
+    }
+
+    if (annotation.maxSaturation() > 0 && executor instanceof ThreadPoolExecutor) {
+      ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+      double saturation = (double) pool.getActiveCount() / pool.getMaximumPoolSize();
+      load = Math.max(load, saturation / annotation.maxSaturation());
+    }
+
+    if (!shedding && load > 1) {
+      shedding = true;
+      logger.warn("Dispatch is overloaded ({}% of limit), shedding optional events",
+          Math.round(load * 100));
+    } else if (shedding && load < annotation.resumeRatio()) {
+      shedding = false;
+      logger.info("Dispatch load has fallen to {}% of limit, resuming after shedding {} events",
+          Math.round(load * 100), shedCount.getAndSet(0));
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.getperka.sea.shedding;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventObserverBinding;
+
+/**
+ * Suppresses optional events, such as analytics or cache warming, while the dispatch is
+ * overloaded, so that the remaining capacity is spent on the events that matter.
+ * <p>
+ * The dispatch is considered overloaded once any of the configured limits is exceeded, and remains
+ * so until every measurement has fallen below {@link #resumeRatio()} of its limit. Limits that are
+ * zero are not checked. The measurements are refreshed at most once per {@link #interval()}, by
+ * the thread that fires an event.
+ * 
+ * <pre>
+ * &#064;LoadShedding(shed = { AnalyticsEvent.class, WarmCacheEvent.class }, maxPending = 10000,
+ *     maxQueueWait = 200)
+ * class MyApp {
+ *   void start(EventDispatch dispatch) {
+ *     dispatch.addGlobalDecorator(MyApp.class);
+ *   }
+ * }
+ * </pre>
+ */
+@Documented
+@EventObserverBinding(LoadShedder.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.PACKAGE, ElementType.TYPE })
+public @interface LoadShedding {
+  /**
+   * The minimum time between measurements, in {@link #unit() units}.
+   */
+  long interval() default 100;
+
+  /**
+   * The number of receiver invocations that may be pending before the dispatch is considered
+   * overloaded.
+   */
+  int maxPending() default 0;
+
+  /**
+   * The mean time, in {@link #unit() units}, that invocations may wait to be executed before the
+   * dispatch is considered overloaded. The mean is computed over the invocations that began since
+   * the previous measurement. If none began while invocations were pending, the previous mean is
+   * retained, so that a stalled executor does not appear idle.
+   */
+  long maxQueueWait() default 0;
+
+  /**
+   * The fraction of the executor's maximum number of threads that may be busy before the dispatch
+   * is considered overloaded. Only a {@link ThreadPoolExecutor} can be measured.
+   */
+  double maxSaturation() default 0;
+
+  /**
+   * Once shedding has begun, it continues until every measurement is below this fraction of its
+   * limit, which prevents shedding from switching on and off with every measurement.
+   */
+  double resumeRatio() default 0.8;
+
+  /**
+   * The event types, including their subtypes, that are suppressed while the dispatch is
+   * overloaded.
+   */
+  Class<? extends Event>[] shed();
+
+  /**
+   * The unit of measurement for {@link #interval()} and {@link #maxQueueWait()}. The default value
+   * is {@link TimeUnit#MILLISECONDS}.
+   */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
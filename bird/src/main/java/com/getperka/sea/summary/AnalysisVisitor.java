@@ -39,13 +39,163 @@ import com.getperka.sea.ext.ConfigurationVisitor;
  * Implementation class for {@link ConfigurationAnalyzer}.
  */
 public class AnalysisVisitor extends ConfigurationVisitor {
+  private final Map<Method, List<DecoratorCost>> decoratorCosts =
+      new HashMap<Method, List<DecoratorCost>>();
+  /**
+   * The position in the decorator chain of the next cost to be reported for each method. Costs are
+   * matched up by position because several decorators on one method may share a display name.
+   */
+  private final Map<Method, Integer> decoratorPositions = new HashMap<Method, Integer>();
+  private final List<EventFlowEdge> edges = new ArrayList<EventFlowEdge>();
+  /**
+   * The events fired by each receiver method, keyed by the type of event fired.
+   */
+  private final Map<Method, Map<Class<? extends Event>, long[]>> flows =
+      new HashMap<Method, Map<Class<? extends Event>, long[]>>();
+  /**
+   * The {@link #flows} reported to the previous visitor for the same dispatch, used to compute
+   * windowed rates.
+   */
+  private final Map<Method, Map<Class<? extends Event>, long[]>> previousFlows;
+  private final Map<Method, Class<? extends Event>> receivedTypes =
+      new HashMap<Method, Class<? extends Event>>();
+  private final Map<Method, long[]> receiverTimings = new HashMap<Method, long[]>();
   private final List<ReceiverSummary> receivers = new ArrayList<ReceiverSummary>();
+  private final Map<ReceiverSummary, Method> summaryMethods =
+      new HashMap<ReceiverSummary, Method>();
   private final List<DecorationTagger<?>> taggers;
 
   AnalysisVisitor(List<DecorationTagger<?>> taggers) {
+    this(taggers, Collections.<Method, Map<Class<? extends Event>, long[]>> emptyMap());
+  }
+
+  AnalysisVisitor(List<DecorationTagger<?>> taggers,
+      Map<Method, Map<Class<? extends Event>, long[]>> previousFlows) {
+    this.previousFlows = previousFlows;
     this.taggers = taggers;
   }
 
+  @Override
+  public void decoratorTiming(Method method, Annotation annotation, long invocations,
+      long shortCircuits, long nanos) {
+    DecoratorCost cost = new DecoratorCost();
+    cost.setDecorator("@" + annotation.annotationType().getSimpleName());
+    cost.setInvocations(invocations);
+    cost.setNanos(nanos);
+    cost.setShortCircuits(shortCircuits);
+
+    // Costs follow the method's receiverTiming() call in chain order
+    Integer position = decoratorPositions.get(method);
+    int index = position == null ? 0 : position;
+    decoratorPositions.put(method, index + 1);
+
+    // A method is visited once per registration, so replace any earlier report for the position
+    List<DecoratorCost> list = decoratorCosts.get(method);
+    if (list == null) {
+      list = new ArrayList<DecoratorCost>();
+      decoratorCosts.put(method, list);
+    }
+    if (index < list.size()) {
+      list.set(index, cost);
+    } else {
+      list.add(cost);
+    }
+  }
+
+  /**
+   * Attach the measured costs to the receiver summaries and build the event flow graph.
+   */
+  @Override
+  public void endConfiguration() {
+    for (Map.Entry<Method, Map<Class<? extends Event>, long[]>> entry : flows.entrySet()) {
+      Method method = entry.getKey();
+      long[] timing = receiverTimings.get(method);
+      Map<Class<? extends Event>, long[]> previousMap = previousFlows.get(method);
+      for (Map.Entry<Class<? extends Event>, long[]> flow : entry.getValue().entrySet()) {
+        long[] current = flow.getValue();
+        long[] previous = previousMap == null ? null : previousMap.get(flow.getKey());
+        // Fall back to the lifetime of the receiver if there's no earlier sample to diff against
+        if (previous == null || previous[1] >= current[1]) {
+          previous = new long[] { 0, 0 };
+        }
+        EventFlowEdge edge = new EventFlowEdge();
+        edge.setCount(current[0]);
+        edge.setElapsedNanos(current[1]);
+        edge.setWindowCount(current[0] - previous[0]);
+        edge.setWindowNanos(current[1] - previous[1]);
+        edge.setFired(flow.getKey().getSimpleName());
+        edge.setInvocations(timing == null ? 0 : timing[0]);
+        edge.setReceived(receivedTypes.get(method).getSimpleName());
+        edge.setReceiver(methodName(method));
+        edges.add(edge);
+      }
+    }
+
+    for (ReceiverSummary summary : receivers) {
+      Method method = summaryMethods.get(summary);
+      long[] timing = receiverTimings.get(method);
+      if (timing != null) {
+        summary.setInvocations(timing[0]);
+        summary.setReceiverNanos(timing[1]);
+      }
+      List<DecoratorCost> costs = decoratorCosts.get(method);
+      if (costs != null) {
+        // Timings are reported innermost first
+        List<DecoratorCost> outermostFirst = new ArrayList<DecoratorCost>(costs);
+        Collections.reverse(outermostFirst);
+        summary.setDecoratorCosts(outermostFirst);
+      } else {
+        summary.setDecoratorCosts(Collections.<DecoratorCost> emptyList());
+      }
+    }
+  }
+
+  @Override
+  public void eventFlow(Method method, Class<? extends Event> fired, long count,
+      long elapsedNanos) {
+    Map<Class<? extends Event>, long[]> map = flows.get(method);
+    if (map == null) {
+      map = new HashMap<Class<? extends Event>, long[]>();
+      flows.put(method, map);
+    }
+    map.put(fired, new long[] { count, elapsedNanos });
+  }
+
+  /**
+   * Returns the total time spent in decorators, counting each receiver method once.
+   */
+  public long getDecoratorNanos() {
+    long toReturn = 0;
+    for (List<DecoratorCost> costs : decoratorCosts.values()) {
+      for (DecoratorCost cost : costs) {
+        toReturn += cost.getNanos();
+      }
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the total time spent in receiver methods, counting each receiver method once.
+   */
+  public long getReceiverNanos() {
+    long toReturn = 0;
+    for (long[] timing : receiverTimings.values()) {
+      toReturn += timing[1];
+    }
+    return toReturn;
+  }
+
+  public EventFlowGraph getEventFlow() {
+    return new EventFlowGraph(edges);
+  }
+
+  /**
+   * Returns the raw event flow counts, to be passed to the next visitor for the same dispatch.
+   */
+  Map<Method, Map<Class<? extends Event>, long[]>> getFlows() {
+    return flows;
+  }
+
   public List<ReceiverSummary> getReceivers() {
     return receivers;
   }
@@ -53,6 +203,7 @@ public class AnalysisVisitor extends ConfigurationVisitor {
   @Override
   public void receiverMethod(Method method, Class<? extends Event> event,
       final List<Annotation> annotations) {
+    receivedTypes.put(method, event);
 
     // Find all taggers that match the receiver
     List<DecorationTagger<?>> matches = new ArrayList<DecorationTagger<?>>();
@@ -136,14 +287,21 @@ public class AnalysisVisitor extends ConfigurationVisitor {
       descriptions.add(new RenderedDescription(tag, values));
     }
 
-    String methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    String methodName = methodName(method);
     List<ReceiverSummary> flattened = flatten(descriptions);
     for (ReceiverSummary summary : flattened) {
       summary.setMethodName(methodName);
       receivers.add(summary);
+      summaryMethods.put(summary, method);
     }
   }
 
+  @Override
+  public void receiverTiming(Method method, long invocations, long nanos) {
+    receiverTimings.put(method, new long[] { invocations, nanos });
+    decoratorPositions.put(method, 0);
+  }
+
   private void flatten(List<ReceiverSummary> accumulator, List<RenderedDescription> prefix,
       List<RenderedDescription> remaining) {
     if (remaining.isEmpty()) {
@@ -170,4 +328,8 @@ public class AnalysisVisitor extends ConfigurationVisitor {
     flatten(toReturn, Collections.<RenderedDescription> emptyList(), descriptions);
     return toReturn;
   }
+
+  private String methodName(Method method) {
+    return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+  }
 }
\ No newline at end of file
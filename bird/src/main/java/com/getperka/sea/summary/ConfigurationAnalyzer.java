@@ -20,12 +20,16 @@ package com.getperka.sea.summary;
  * #L%
  */
 
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+import com.getperka.sea.Event;
 import com.getperka.sea.EventDispatch;
 import com.getperka.sea.Receiver;
 import com.getperka.sea.impl.HasInjector;
@@ -41,8 +45,25 @@ import com.google.inject.Injector;
  * {@link DecorationTagger} will have an opportunity to consume one or more of the decorations and
  * provide some number of tagged values that describe the receiver. Each decorator annotation may be
  * consumed exactly once.
+ * <p>
+ * The summary also reports the measured cost of each receiver method, split between the method
+ * itself and each of its decorators, along with the number of times each decorator prevented the
+ * method from being invoked.
+ * <p>
+ * Finally, the summary includes an {@link EventFlowGraph} of the events that each receiver has
+ * fired, which is examined for event types that amplify into many downstream events, for cycles,
+ * and for edges with high rates. Edge rates are measured since the previous summary of the same
+ * dispatch produced by the analyzer instance, so an analyzer that is retained and called
+ * periodically reports current rates rather than lifetime averages. The thresholds may be adjusted
+ * by overriding {@link #getAmplificationThreshold()} and {@link #getHotEdgeRate()}.
  */
 public class ConfigurationAnalyzer {
+  /**
+   * The event flow counts from the previous summary of each dispatch, so that edge rates cover only
+   * the interval between summaries.
+   */
+  private final Map<EventDispatch, Map<Method, Map<Class<? extends Event>, long[]>>> previousFlows =
+      new WeakHashMap<EventDispatch, Map<Method, Map<Class<? extends Event>, long[]>>>();
 
   public EventDispatchSummary analyze(EventDispatch dispatch) {
     Injector injector = ((HasInjector) dispatch).getInjector();
@@ -54,15 +75,43 @@ public class ConfigurationAnalyzer {
     // Sort the matchers by greediest first
     Collections.sort(whens, Collections.reverseOrder());
 
-    AnalysisVisitor visitor = new AnalysisVisitor(whens);
-    dispatch.accept(visitor);
+    AnalysisVisitor visitor;
+    synchronized (previousFlows) {
+      Map<Method, Map<Class<? extends Event>, long[]>> previous = previousFlows.get(dispatch);
+      visitor = previous == null ? new AnalysisVisitor(whens)
+          : new AnalysisVisitor(whens, previous);
+      dispatch.accept(visitor);
+      previousFlows.put(dispatch, visitor.getFlows());
+    }
 
     EventDispatchSummary toReturn = new EventDispatchSummary();
+    toReturn.setDecoratorNanos(visitor.getDecoratorNanos());
+    EventFlowGraph eventFlow = visitor.getEventFlow();
+    toReturn.setEventFlow(eventFlow);
+    toReturn.setEventFlowFindings(eventFlow.analyze(getAmplificationThreshold(),
+        getHotEdgeRate()));
+    toReturn.setReceiverNanos(visitor.getReceiverNanos());
     toReturn.setReceivers(visitor.getReceivers());
 
     return toReturn;
   }
 
+  /**
+   * Returns the number of downstream events caused by a single event at which the event's type is
+   * reported as amplifying. The default value is {@code 10}.
+   */
+  protected double getAmplificationThreshold() {
+    return 10;
+  }
+
+  /**
+   * Returns the number of events per second at which an edge in the event flow graph is reported as
+   * hot. The default value is {@code 1000}.
+   */
+  protected double getHotEdgeRate() {
+    return 1000;
+  }
+
   /**
    * Examines the {@link ConfigurationAnalyzer} class's supertype hierarchy for any static inner
    * classes that extend {@link DecorationTagger} or for a {@link DecorationTaggers} annotation.
@@ -0,0 +1,78 @@
+package com.getperka.sea.summary;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * The measured cost of a decorator applied to a {@link com.getperka.sea.Receiver} method.
+ */
+public class DecoratorCost {
+  private String decorator;
+  private long invocations;
+  private long nanos;
+  private long shortCircuits;
+
+  /**
+   * Returns the simple name of the decorator's binding annotation, e.g. {@code @Logged}.
+   */
+  public String getDecorator() {
+    return decorator;
+  }
+
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * Returns the total time spent in the decorator, excluding the work that it wraps.
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * Returns the number of invocations in which the decorator did not execute the work that it
+   * wraps.
+   */
+  public long getShortCircuits() {
+    return shortCircuits;
+  }
+
+  public void setDecorator(String decorator) {
+    this.decorator = decorator;
+  }
+
+  public void setInvocations(long invocations) {
+    this.invocations = invocations;
+  }
+
+  public void setNanos(long nanos) {
+    this.nanos = nanos;
+  }
+
+  public void setShortCircuits(long shortCircuits) {
+    this.shortCircuits = shortCircuits;
+  }
+
+  @Override
+  public String toString() {
+    return decorator + " invocations=" + invocations + " shortCircuits=" + shortCircuits
+      + " nanos=" + nanos;
+  }
+}
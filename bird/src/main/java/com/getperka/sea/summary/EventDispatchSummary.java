@@ -22,12 +22,61 @@ package com.getperka.sea.summary;
 import java.util.List;
 
 public class EventDispatchSummary {
+  private long decoratorNanos;
+  private EventFlowGraph eventFlow;
+  private List<EventFlowFinding> eventFlowFindings;
+  private long receiverNanos;
   private List<ReceiverSummary> receivers;
 
+  /**
+   * Returns the total time spent in decorators across all receiver methods.
+   */
+  public long getDecoratorNanos() {
+    return decoratorNanos;
+  }
+
+  /**
+   * Returns the observed flow of events between receivers.
+   */
+  public EventFlowGraph getEventFlow() {
+    return eventFlow;
+  }
+
+  /**
+   * Returns the amplification, cycles, and hot edges found in the {@link #getEventFlow() event
+   * flow}.
+   */
+  public List<EventFlowFinding> getEventFlowFindings() {
+    return eventFlowFindings;
+  }
+
+  /**
+   * Returns the total time spent in receiver methods, excluding their decorators.
+   */
+  public long getReceiverNanos() {
+    return receiverNanos;
+  }
+
   public List<ReceiverSummary> getReceivers() {
     return receivers;
   }
 
+  public void setDecoratorNanos(long decoratorNanos) {
+    this.decoratorNanos = decoratorNanos;
+  }
+
+  public void setEventFlow(EventFlowGraph eventFlow) {
+    this.eventFlow = eventFlow;
+  }
+
+  public void setEventFlowFindings(List<EventFlowFinding> eventFlowFindings) {
+    this.eventFlowFindings = eventFlowFindings;
+  }
+
+  public void setReceiverNanos(long receiverNanos) {
+    this.receiverNanos = receiverNanos;
+  }
+
   public void setReceivers(List<ReceiverSummary> receivers) {
     this.receivers = receivers;
   }
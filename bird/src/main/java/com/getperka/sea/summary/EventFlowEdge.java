@@ -0,0 +1,151 @@
+package com.getperka.sea.summary;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An observed path through the dispatch: events of one type were delivered to a receiver method,
+ * which fired events of another type.
+ */
+public class EventFlowEdge {
+  private long count;
+  private long elapsedNanos;
+  private String fired;
+  private long invocations;
+  private String receiver;
+  private String received;
+  private long windowCount;
+  private long windowNanos;
+
+  /**
+   * Returns the number of events of the {@link #getFired() fired} type that the receiver fired.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the length of time over which {@link #getCount()} was accumulated.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the simple name of the type of event that the receiver fired.
+   */
+  public String getFired() {
+    return fired;
+  }
+
+  /**
+   * Returns the number of times the receiver method was executed.
+   */
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * Returns the average number of events fired each time the receiver method was executed.
+   */
+  public double getPerInvocation() {
+    return (double) count / Math.max(1, invocations);
+  }
+
+  /**
+   * Returns the number of events fired per second during the {@link #getWindowNanos() window}.
+   * This is the change in the count since the previous summary of the dispatch, not a lifetime
+   * average, so a receiver whose traffic has dropped off is no longer reported as hot.
+   */
+  public double getRate() {
+    if (windowNanos <= 0) {
+      return 0;
+    }
+    return windowCount * (double) TimeUnit.SECONDS.toNanos(1) / windowNanos;
+  }
+
+  /**
+   * Returns the simple name of the type of event that the receiver method accepts.
+   */
+  public String getReceived() {
+    return received;
+  }
+
+  /**
+   * Returns the receiver method, in the same format as {@link ReceiverSummary#getMethodName()}.
+   */
+  public String getReceiver() {
+    return receiver;
+  }
+
+  /**
+   * Returns the number of events fired since the previous summary of the dispatch, or since the
+   * receiver was first registered if there was no previous summary.
+   */
+  public long getWindowCount() {
+    return windowCount;
+  }
+
+  /**
+   * Returns the length of time over which {@link #getWindowCount()} was accumulated.
+   */
+  public long getWindowNanos() {
+    return windowNanos;
+  }
+
+  public void setCount(long count) {
+    this.count = count;
+  }
+
+  public void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public void setFired(String fired) {
+    this.fired = fired;
+  }
+
+  public void setInvocations(long invocations) {
+    this.invocations = invocations;
+  }
+
+  public void setReceived(String received) {
+    this.received = received;
+  }
+
+  public void setReceiver(String receiver) {
+    this.receiver = receiver;
+  }
+
+  public void setWindowCount(long windowCount) {
+    this.windowCount = windowCount;
+  }
+
+  public void setWindowNanos(long windowNanos) {
+    this.windowNanos = windowNanos;
+  }
+
+  @Override
+  public String toString() {
+    return received + " -> " + receiver + " -> " + fired + " count=" + count
+        + String.format(" perInvocation=%.2f rate=%.1f/s", getPerInvocation(), getRate());
+  }
+}
@@ -0,0 +1,81 @@
+package com.getperka.sea.summary;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+/**
+ * A potential problem found in an {@link EventFlowGraph}.
+ */
+public class EventFlowFinding {
+  /**
+   * The kinds of problems that are detected.
+   */
+  public enum Kind {
+    /**
+     * A single event results in many downstream dispatches.
+     */
+    AMPLIFICATION,
+    /**
+     * Events of a type can cause further events of the same type.
+     */
+    CYCLE,
+    /**
+     * A receiver fires events at a high rate.
+     */
+    HOT_EDGE
+  }
+
+  private String description;
+  private List<String> eventTypes;
+  private Kind kind;
+
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Returns the simple names of the event types involved, in the order in which they are caused.
+   */
+  public List<String> getEventTypes() {
+    return eventTypes;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public void setEventTypes(List<String> eventTypes) {
+    this.eventTypes = eventTypes;
+  }
+
+  public void setKind(Kind kind) {
+    this.kind = kind;
+  }
+
+  @Override
+  public String toString() {
+    return kind + ": " + description;
+  }
+}
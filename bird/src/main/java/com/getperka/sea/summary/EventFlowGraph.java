@@ -0,0 +1,228 @@
+package com.getperka.sea.summary;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The observed flow of events through a dispatch: each event type is delivered to its receivers,
+ * which fire events of other types. Unlike the static configuration, the graph reveals how many
+ * downstream events a single event actually causes.
+ */
+public class EventFlowGraph {
+  /**
+   * Limits the output of {@link #getCycles()} for densely-connected graphs.
+   */
+  private static final int MAX_CYCLES = 100;
+
+  private final List<EventFlowEdge> edges;
+
+  public EventFlowGraph(List<EventFlowEdge> edges) {
+    this.edges = edges;
+  }
+
+  /**
+   * Examine the graph for amplification, cycles, and hot edges.
+   * 
+   * @param amplificationThreshold the number of downstream events per event at which an event type
+   *          is reported
+   * @param hotEdgeRate the number of events per second at which an edge is reported
+   */
+  public List<EventFlowFinding> analyze(double amplificationThreshold, double hotEdgeRate) {
+    List<EventFlowFinding> toReturn = new ArrayList<EventFlowFinding>();
+
+    for (String eventType : getEventTypes()) {
+      double amplification = getAmplification(eventType);
+      if (amplification >= amplificationThreshold) {
+        toReturn.add(finding(EventFlowFinding.Kind.AMPLIFICATION,
+            String.format("Each %s causes %.1f downstream events", eventType, amplification),
+            Collections.singletonList(eventType)));
+      }
+    }
+
+    for (List<String> cycle : getCycles()) {
+      StringBuilder sb = new StringBuilder();
+      for (String eventType : cycle) {
+        sb.append(eventType).append(" -> ");
+      }
+      sb.append(cycle.get(0));
+      toReturn.add(finding(EventFlowFinding.Kind.CYCLE, sb.toString(), cycle));
+    }
+
+    for (EventFlowEdge edge : getHotEdges(hotEdgeRate)) {
+      toReturn.add(finding(EventFlowFinding.Kind.HOT_EDGE,
+          String.format("%s fires %.1f %s/s while receiving %s", edge.getReceiver(),
+              edge.getRate(), edge.getFired(), edge.getReceived()),
+          Arrays.asList(edge.getReceived(), edge.getFired())));
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the expected number of events that are fired, directly or transitively, as a result of
+   * dispatching a single event of the given type. Each receiver is assumed to be executed once per
+   * event; cycles are followed only once.
+   */
+  public double getAmplification(String eventType) {
+    return amplification(eventType, new HashSet<String>(), new HashMap<String, Double>(),
+        new boolean[1]);
+  }
+
+  /**
+   * Returns the chains of event types that can cause themselves, each starting with the
+   * alphabetically-first type in the chain.
+   */
+  public List<List<String>> getCycles() {
+    List<List<String>> toReturn = new ArrayList<List<String>>();
+    List<String> types = new ArrayList<String>(getEventTypes());
+    for (int i = 0, j = types.size(); i < j; i++) {
+      String start = types.get(i);
+      List<String> path = new ArrayList<String>();
+      path.add(start);
+      findCycles(start, start, path, new HashSet<String>(types.subList(i, j)), toReturn);
+    }
+    return toReturn;
+  }
+
+  public List<EventFlowEdge> getEdges() {
+    return edges;
+  }
+
+  /**
+   * Returns the edges for the receivers of the given event type.
+   */
+  public List<EventFlowEdge> getEdgesFrom(String eventType) {
+    List<EventFlowEdge> toReturn = new ArrayList<EventFlowEdge>();
+    for (EventFlowEdge edge : edges) {
+      if (edge.getReceived().equals(eventType)) {
+        toReturn.add(edge);
+      }
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the simple names of all event types that appear in the graph, in alphabetical order.
+   */
+  public Set<String> getEventTypes() {
+    Set<String> toReturn = new TreeSet<String>();
+    for (EventFlowEdge edge : edges) {
+      toReturn.add(edge.getReceived());
+      toReturn.add(edge.getFired());
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the edges whose rate is at least {@code minRate} events per second, highest rate
+   * first.
+   */
+  public List<EventFlowEdge> getHotEdges(double minRate) {
+    List<EventFlowEdge> toReturn = new ArrayList<EventFlowEdge>();
+    for (EventFlowEdge edge : edges) {
+      if (edge.getRate() >= minRate) {
+        toReturn.add(edge);
+      }
+    }
+    Collections.sort(toReturn, new Comparator<EventFlowEdge>() {
+      @Override
+      public int compare(EventFlowEdge o1, EventFlowEdge o2) {
+        return Double.compare(o2.getRate(), o1.getRate());
+      }
+    });
+    return toReturn;
+  }
+
+  /**
+   * Computes the amplification of an event type.
+   * 
+   * @param path the event types currently being examined, to prevent infinite recursion
+   * @param exact amplifications whose computation did not involve a cycle, and so do not depend on
+   *          the path by which they were reached
+   * @param truncated set to {@code true} if a cycle was encountered
+   */
+  private double amplification(String eventType, Set<String> path, Map<String, Double> exact,
+      boolean[] truncated) {
+    Double known = exact.get(eventType);
+    if (known != null) {
+      return known;
+    }
+
+    boolean outerTruncated = truncated[0];
+    truncated[0] = false;
+    path.add(eventType);
+
+    double toReturn = 0;
+    for (EventFlowEdge edge : getEdgesFrom(eventType)) {
+      toReturn += edge.getPerInvocation();
+      if (path.contains(edge.getFired())) {
+        truncated[0] = true;
+      } else {
+        toReturn += edge.getPerInvocation()
+            * amplification(edge.getFired(), path, exact, truncated);
+      }
+    }
+
+    path.remove(eventType);
+    if (!truncated[0]) {
+      exact.put(eventType, toReturn);
+    }
+    truncated[0] |= outerTruncated;
+    return toReturn;
+  }
+
+  private void findCycles(String start, String current, List<String> path, Set<String> allowed,
+      List<List<String>> accumulator) {
+    Set<String> next = new TreeSet<String>();
+    for (EventFlowEdge edge : getEdgesFrom(current)) {
+      next.add(edge.getFired());
+    }
+    for (String eventType : next) {
+      if (accumulator.size() >= MAX_CYCLES) {
+        return;
+      }
+      if (eventType.equals(start)) {
+        accumulator.add(new ArrayList<String>(path));
+      } else if (allowed.contains(eventType) && !path.contains(eventType)) {
+        path.add(eventType);
+        findCycles(start, eventType, path, allowed, accumulator);
+        path.remove(path.size() - 1);
+      }
+    }
+  }
+
+  private EventFlowFinding finding(EventFlowFinding.Kind kind, String description,
+      List<String> eventTypes) {
+    EventFlowFinding toReturn = new EventFlowFinding();
+    toReturn.setDescription(description);
+    toReturn.setEventTypes(eventTypes);
+    toReturn.setKind(kind);
+    return toReturn;
+  }
+}
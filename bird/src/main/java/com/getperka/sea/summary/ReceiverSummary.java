@@ -19,29 +19,81 @@ package com.getperka.sea.summary;
  * #L%
  */
 
+import java.util.List;
 import java.util.Map;
 
 import com.getperka.sea.Receiver;
 
 /**
- * A summary of the decorations applied to a {@link Receiver} method.
+ * A summary of the decorations applied to a {@link Receiver} method, and the measured cost of the
+ * method and its decorators.
  */
 public class ReceiverSummary {
+  private List<DecoratorCost> decoratorCosts;
+  private long invocations;
   private String methodName;
+  private long receiverNanos;
   private Map<String, String> tags;
 
+  /**
+   * Returns the measured cost of each decorator, in the order in which the decorators are applied,
+   * outermost first.
+   */
+  public List<DecoratorCost> getDecoratorCosts() {
+    return decoratorCosts;
+  }
+
+  /**
+   * Returns the total time spent in the method's decorators, excluding the method itself.
+   */
+  public long getDecoratorNanos() {
+    long toReturn = 0;
+    if (decoratorCosts != null) {
+      for (DecoratorCost cost : decoratorCosts) {
+        toReturn += cost.getNanos();
+      }
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the number of times the receiver method was executed.
+   */
+  public long getInvocations() {
+    return invocations;
+  }
+
   public String getMethodName() {
     return methodName;
   }
 
+  /**
+   * Returns the total time spent in the receiver method, excluding its decorators.
+   */
+  public long getReceiverNanos() {
+    return receiverNanos;
+  }
+
   public Map<String, String> getTags() {
     return tags;
   }
 
+  public void setDecoratorCosts(List<DecoratorCost> decoratorCosts) {
+    this.decoratorCosts = decoratorCosts;
+  }
+
+  public void setInvocations(long invocations) {
+    this.invocations = invocations;
+  }
+
   public void setMethodName(String methodName) {
     this.methodName = methodName;
   }
 
+  public void setReceiverNanos(long receiverNanos) {
+    this.receiverNanos = receiverNanos;
+  }
+
   public void setTags(Map<String, String> tags) {
     this.tags = tags;
   }
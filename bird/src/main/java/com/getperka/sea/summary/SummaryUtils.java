@@ -31,6 +31,58 @@ import java.util.Set;
  * Utility methods.
  */
 public class SummaryUtils {
+  /**
+   * Renders the event flow graph in the Graphviz {@code dot} format. Event types are drawn as boxes
+   * and receiver methods as ellipses, and each edge from a receiver is labeled with the number of
+   * events fired per invocation and per second. Event types named in a finding are highlighted.
+   */
+  public String createEventFlowDot(EventDispatchSummary summary) {
+    Set<String> flagged = new HashSet<String>();
+    for (EventFlowFinding finding : summary.getEventFlowFindings()) {
+      flagged.addAll(finding.getEventTypes());
+    }
+
+    Formatter f = new Formatter();
+    f.format("digraph EventFlow {\n");
+    for (String eventType : summary.getEventFlow().getEventTypes()) {
+      String color = flagged.contains(eventType) ? ", color=red" : "";
+      f.format("  \"%s\" [shape=box%s];\n", eventType, color);
+    }
+    Set<String> receivers = new HashSet<String>();
+    for (EventFlowEdge edge : summary.getEventFlow().getEdges()) {
+      if (receivers.add(edge.getReceived() + "\t" + edge.getReceiver())) {
+        f.format("  \"%s\" -> \"%s\";\n", edge.getReceived(), edge.getReceiver());
+      }
+      f.format("  \"%s\" -> \"%s\" [label=\"%.2f/inv %.1f/s\"];\n", edge.getReceiver(),
+          edge.getFired(), edge.getPerInvocation(), edge.getRate());
+    }
+    f.format("}\n");
+
+    try {
+      return f.toString();
+    } finally {
+      f.close();
+    }
+  }
+
+  /**
+   * Creates a report of the event flow graph edges using a tab-separated-value format.
+   */
+  public String createEventFlowTsvReport(EventDispatchSummary summary) {
+    Formatter f = new Formatter();
+    f.format("Received\tMethod\tFired\tCount\tPer invocation\tPer second\n");
+    for (EventFlowEdge edge : summary.getEventFlow().getEdges()) {
+      f.format("%s\t%s\t%s\t%d\t%.2f\t%.1f\n", edge.getReceived(), edge.getReceiver(),
+          edge.getFired(), edge.getCount(), edge.getPerInvocation(), edge.getRate());
+    }
+
+    try {
+      return f.toString();
+    } finally {
+      f.close();
+    }
+  }
+
   /**
    * Creates a simple report of the receivers and their annotations using a tab-separated-value
    * format.
@@ -0,0 +1,230 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+
+public class BulkheadTest extends DecoratorFixture {
+  interface Blocking extends Event {}
+
+  static class DropEvent implements Blocking {}
+
+  static class MyEvent implements Blocking {}
+
+  static class InvalidEvent implements Blocking {}
+
+  static class MyReceiver {
+    final AtomicInteger concurrent = new AtomicInteger();
+    final AtomicInteger maxConcurrent = new AtomicInteger();
+    final BlockingQueue<Event> others = new LinkedBlockingQueue<Event>();
+    final Semaphore permits = new Semaphore(0);
+    final BlockingQueue<DispatchResult> results = new LinkedBlockingQueue<DispatchResult>();
+    final BlockingQueue<Event> started = new LinkedBlockingQueue<Event>();
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (evt.getSource() instanceof Blocking) {
+        results.addAll(evt.getResults());
+      }
+    }
+
+    @Receiver
+    @Bulkhead(name = "drop", maxConcurrent = 1, maxQueued = 1,
+        overflow = OverflowPolicy.DROP_OLDEST)
+    void drop(DropEvent evt) throws InterruptedException {
+      work(evt);
+    }
+
+    @Receiver
+    @Bulkhead(maxConcurrent = 0)
+    void invalid(InvalidEvent evt) throws InterruptedException {
+      work(evt);
+    }
+
+    @Receiver
+    @Bulkhead(maxConcurrent = 1)
+    void limited(MyEvent evt) throws InterruptedException {
+      work(evt);
+    }
+
+    @Receiver
+    void other(OtherEvent evt) {
+      others.add(evt);
+    }
+
+    @Receiver
+    @Bulkhead(name = "reject", maxConcurrent = 1, maxQueued = 1)
+    void reject(RejectEvent evt) throws InterruptedException {
+      work(evt);
+    }
+
+    private void work(Event evt) throws InterruptedException {
+      int count = concurrent.incrementAndGet();
+      if (count > maxConcurrent.get()) {
+        maxConcurrent.set(count);
+      }
+      started.add(evt);
+      try {
+        permits.acquire();
+      } finally {
+        concurrent.decrementAndGet();
+      }
+    }
+  }
+
+  static class OtherEvent implements Event {}
+
+  static class RejectEvent implements Blocking {}
+
+  private MyReceiver receiver;
+
+  @Override
+  protected ExecutorService createExecutor() {
+    // One thread for the running invocation and one to show that waiters do not block
+    return Executors.newFixedThreadPool(2);
+  }
+
+  @Override
+  protected void register() {
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = testDelay)
+  public void testDropOldest() throws InterruptedException {
+    DropEvent first = new DropEvent();
+    DropEvent second = new DropEvent();
+    DropEvent third = new DropEvent();
+    fireAndWait(first, second, third);
+
+    DispatchResult result = receiver.results.take();
+    assertSame(second, result.getEvent());
+    assertTrue(result.getThrown() instanceof BulkheadFullException);
+
+    receiver.permits.release();
+    assertSame(first, receiver.results.take().getEvent());
+    receiver.permits.release();
+    assertSame(third, receiver.results.take().getEvent());
+    assertEquals(1, receiver.maxConcurrent.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testExpiredGrantee() throws InterruptedException {
+    MyEvent first = new MyEvent();
+    dispatch.fire(first);
+    assertSame(first, receiver.started.take());
+    MyEvent expiring = new MyEvent();
+    dispatch.fireWithDeadline(expiring, 50, TimeUnit.MILLISECONDS);
+    dispatch.fire(new OtherEvent());
+    receiver.others.take();
+
+    // The waiter is granted the slot after its deadline, so it never gets back to the bulkhead
+    Thread.sleep(100);
+    receiver.permits.release();
+    assertSame(first, receiver.results.take().getEvent());
+    DispatchResult result = receiver.results.take();
+    assertSame(expiring, result.getEvent());
+    assertTrue(result.wasExpired());
+
+    // The slot isn't leaked
+    MyEvent last = new MyEvent();
+    dispatch.fire(last);
+    assertSame(last, receiver.started.take());
+    receiver.permits.release();
+    assertSame(last, receiver.results.take().getEvent());
+  }
+
+  @Test(timeout = testDelay)
+  public void testInvalidMaxConcurrent() throws InterruptedException {
+    dispatch.fire(new InvalidEvent());
+    assertTrue(receiver.results.take().getThrown() instanceof IllegalArgumentException);
+    assertTrue(receiver.started.isEmpty());
+  }
+
+  @Test(timeout = testDelay)
+  public void testQueued() throws InterruptedException {
+    MyEvent first = new MyEvent();
+    MyEvent second = new MyEvent();
+    MyEvent third = new MyEvent();
+    fireAndWait(first, second, third);
+    assertTrue(receiver.started.isEmpty());
+
+    for (MyEvent evt : new MyEvent[] { first, second, third }) {
+      receiver.permits.release();
+      DispatchResult result = receiver.results.take();
+      assertSame(evt, result.getEvent());
+      assertNull(result.getThrown());
+      assertTrue(result.wasReceived());
+    }
+    assertEquals(1, receiver.maxConcurrent.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testReject() throws InterruptedException {
+    RejectEvent first = new RejectEvent();
+    RejectEvent second = new RejectEvent();
+    RejectEvent third = new RejectEvent();
+    fireAndWait(first, second, third);
+
+    DispatchResult result = receiver.results.take();
+    assertSame(third, result.getEvent());
+    assertTrue(result.getThrown() instanceof BulkheadFullException);
+
+    receiver.permits.release();
+    assertSame(first, receiver.results.take().getEvent());
+    receiver.permits.release();
+    assertSame(second, receiver.results.take().getEvent());
+  }
+
+  /**
+   * Fire the first event and wait for it to start, then fire the others. The remaining thread
+   * dispatches them in order before receiving an {@link OtherEvent}, so the waiting events cannot
+   * be blocking it.
+   */
+  private void fireAndWait(Blocking first, Blocking... others) throws InterruptedException {
+    dispatch.fire(first);
+    assertSame(first, receiver.started.take());
+    for (Blocking evt : others) {
+      dispatch.fire(evt);
+    }
+    dispatch.fire(new OtherEvent());
+    receiver.others.take();
+  }
+}
@@ -0,0 +1,303 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchGroup;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventDecoratorBinding;
+
+public class CircuitBreakerTest extends DecoratorFixture {
+  /**
+   * Skips the invocations of {@link SkippedEvent SkippedEvents} without calling their work.
+   */
+  @EventDecoratorBinding(GateDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Gate {}
+
+  static class GateDecorator implements EventDecorator<Gate, Event> {
+    @Override
+    public Callable<Object> wrap(final Context<Gate, Event> ctx) {
+      return new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          return ctx.getEvent() instanceof SkippedEvent ? null : ctx.getWork().call();
+        }
+      };
+    }
+  }
+
+  static class GatedEvent implements Event {
+    final boolean failing;
+
+    GatedEvent(boolean failing) {
+      this.failing = failing;
+    }
+  }
+
+  @Gate
+  static class GatedReceiver {
+    final AtomicInteger invocations = new AtomicInteger();
+
+    @Receiver
+    @CircuitBreaker(failureThreshold = 1, openFor = 50)
+    void receive(GatedEvent evt) throws IOException {
+      invocations.incrementAndGet();
+      if (evt.failing) {
+        throw new IOException();
+      }
+    }
+  }
+
+  static class MyEvent implements Event {}
+
+  static class RejectedEvent implements Event {
+    final RuntimeException toThrow;
+
+    RejectedEvent(RuntimeException toThrow) {
+      this.toThrow = toThrow;
+    }
+  }
+
+  static class MyReceiver {
+    final AtomicInteger invocations = new AtomicInteger();
+    final BlockingQueue<DispatchResult> results = new LinkedBlockingQueue<DispatchResult>();
+    volatile boolean failing;
+    final AtomicInteger shared = new AtomicInteger();
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (evt.getSource() instanceof MyEvent || evt.getSource() instanceof OtherEvent
+        || evt.getSource() instanceof RejectedEvent || evt.getSource() instanceof GatedEvent) {
+        results.addAll(evt.getResults());
+      }
+    }
+
+    @Receiver
+    @CircuitBreaker(failureThreshold = 2, openFor = 100, failOn = IOException.class)
+    void receive(MyEvent evt) throws IOException {
+      invocations.incrementAndGet();
+      if (failing) {
+        throw new IOException();
+      }
+    }
+
+    @Receiver
+    @CircuitBreaker(failureThreshold = 1)
+    void receiveRejected(RejectedEvent evt) {
+      invocations.incrementAndGet();
+      throw evt.toThrow;
+    }
+
+    @Receiver
+    @CircuitBreaker(name = "shared", failureThreshold = 1)
+    void receiveOther(OtherEvent evt) throws IOException {
+      shared.incrementAndGet();
+      throw new IOException();
+    }
+
+    @Receiver
+    @CircuitBreaker(name = "shared", failureThreshold = 1)
+    void receiveThird(ThirdEvent evt) {
+      shared.incrementAndGet();
+    }
+  }
+
+  static class OtherEvent implements Event {}
+
+  static class SkippedEvent extends GatedEvent {
+    SkippedEvent() {
+      super(false);
+    }
+  }
+
+  static class ThirdEvent implements Event {}
+
+  private MyReceiver receiver;
+
+  @Override
+  protected void register() {
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = testDelay)
+  public void testGroupIsolation() throws InterruptedException {
+    EventDispatchGroup group = EventDispatchGroup.create(executor);
+    EventDispatch a = group.createDispatch();
+    EventDispatch b = group.createDispatch();
+    MyReceiver receiverA = new MyReceiver();
+    MyReceiver receiverB = new MyReceiver();
+    a.register(receiverA);
+    b.register(receiverB);
+
+    // Open the shared circuit in one dispatch
+    a.fire(new OtherEvent());
+    assertTrue(receiverA.results.take().getThrown() instanceof IOException);
+    a.fire(new OtherEvent());
+    assertTrue(receiverA.results.take().getThrown() instanceof CircuitOpenException);
+
+    // The other dispatch has its own circuit with the same name
+    b.fire(new OtherEvent());
+    assertTrue(receiverB.results.take().getThrown() instanceof IOException);
+    assertEquals(1, receiverB.shared.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testHalfOpenFailure() throws InterruptedException {
+    receiver.failing = true;
+    fire();
+    fire();
+    assertTrue(fire().getThrown() instanceof CircuitOpenException);
+    assertEquals(2, receiver.invocations.get());
+
+    // The trial invocation fails, so the circuit opens again
+    Thread.sleep(150);
+    assertTrue(fire().getThrown() instanceof IOException);
+    assertTrue(fire().getThrown() instanceof CircuitOpenException);
+    assertEquals(3, receiver.invocations.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testHalfOpenSkippedByOuterDecorator() throws InterruptedException {
+    GatedReceiver gated = new GatedReceiver();
+    dispatch.register(gated);
+    dispatch.fire(new GatedEvent(true));
+    assertTrue(receiver.results.take().getThrown() instanceof IOException);
+
+    // An outer decorator skips the first invocation after the circuit becomes half-open
+    Thread.sleep(100);
+    dispatch.fire(new SkippedEvent());
+    DispatchResult result = receiver.results.take();
+    assertNull(result.getThrown());
+    assertFalse(result.wasReceived());
+
+    // The trial wasn't taken by the skipped invocation
+    dispatch.fire(new GatedEvent(false));
+    assertNull(receiver.results.take().getThrown());
+    dispatch.fire(new GatedEvent(false));
+    assertNull(receiver.results.take().getThrown());
+    assertEquals(3, gated.invocations.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testIgnoresRejections() throws InterruptedException {
+    // Rejections by other decorators match the default failOn, but don't open the circuit
+    for (int i = 0; i < 2; i++) {
+      dispatch.fire(new RejectedEvent(new BulkheadFullException("full")));
+      assertTrue(receiver.results.take().getThrown() instanceof BulkheadFullException);
+      dispatch.fire(new RejectedEvent(new RateLimitExceededException("limited")));
+      assertTrue(receiver.results.take().getThrown() instanceof RateLimitExceededException);
+    }
+    assertEquals(4, receiver.invocations.get());
+
+    // Any other exception does
+    dispatch.fire(new RejectedEvent(new IllegalStateException()));
+    assertTrue(receiver.results.take().getThrown() instanceof IllegalStateException);
+    dispatch.fire(new RejectedEvent(new IllegalStateException()));
+    assertTrue(receiver.results.take().getThrown() instanceof CircuitOpenException);
+    assertEquals(5, receiver.invocations.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testKeyedByMethod() throws InterruptedException {
+    // A second registration of the same receiver method shares its circuit
+    MyReceiver other = new MyReceiver();
+    dispatch.register(other);
+    receiver.failing = true;
+    other.failing = true;
+
+    dispatch.fire(new MyEvent());
+    assertTrue(receiver.results.take().getThrown() instanceof IOException);
+    assertTrue(receiver.results.take().getThrown() instanceof IOException);
+
+    dispatch.fire(new MyEvent());
+    assertTrue(receiver.results.take().getThrown() instanceof CircuitOpenException);
+    assertTrue(receiver.results.take().getThrown() instanceof CircuitOpenException);
+    assertEquals(1, receiver.invocations.get());
+    assertEquals(1, other.invocations.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testOpenAndClose() throws InterruptedException {
+    receiver.failing = true;
+    assertTrue(fire().getThrown() instanceof IOException);
+    assertTrue(fire().getThrown() instanceof IOException);
+
+    DispatchResult result = fire();
+    assertTrue(result.getThrown() instanceof CircuitOpenException);
+    assertEquals(2, receiver.invocations.get());
+
+    Thread.sleep(150);
+    receiver.failing = false;
+    assertNull(fire().getThrown());
+    assertNull(fire().getThrown());
+    assertEquals(4, receiver.invocations.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testSharedName() throws InterruptedException {
+    dispatch.fire(new OtherEvent());
+    assertTrue(receiver.results.take().getThrown() instanceof IOException);
+
+    // A different receiver method is rejected by the same circuit
+    dispatch.fire(new ThirdEvent());
+    dispatch.fire(new OtherEvent());
+    assertTrue(receiver.results.take().getThrown() instanceof CircuitOpenException);
+    assertEquals(1, receiver.shared.get());
+  }
+
+  @Test(timeout = testDelay)
+  public void testSuccessResetsCount() throws InterruptedException {
+    receiver.failing = true;
+    fire();
+    receiver.failing = false;
+    fire();
+    receiver.failing = true;
+    assertTrue(fire().getThrown() instanceof IOException);
+    assertEquals(3, receiver.invocations.get());
+  }
+
+  private DispatchResult fire() throws InterruptedException {
+    dispatch.fire(new MyEvent());
+    return receiver.results.take();
+  }
+}
@@ -0,0 +1,192 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+
+public class CoalesceTest extends DecoratorFixture {
+  static class LatestEvent extends MyEvent {
+    LatestEvent(String key, int value) {
+      super(key, value);
+    }
+  }
+
+  static class MyEvent implements CoalescedEvent {
+    final String key;
+    final int value;
+
+    MyEvent(String key, int value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Object getCoalescingKey() {
+      return key;
+    }
+  }
+
+  static class MyReceiver {
+    final BlockingQueue<MyEvent> received = new LinkedBlockingQueue<MyEvent>();
+    final BlockingQueue<String> shared = new LinkedBlockingQueue<String>();
+    final BlockingQueue<DispatchResult> results = new LinkedBlockingQueue<DispatchResult>();
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (evt.getSource() instanceof MyEvent) {
+        results.addAll(evt.getResults());
+      }
+    }
+
+    @Coalesce(100)
+    @Receiver
+    void latest(LatestEvent evt) {
+      received.add(evt);
+    }
+
+    @Coalesce(name = "shared", value = 100)
+    @Receiver
+    void sharedA(SharedEvent evt) {
+      shared.add("a");
+    }
+
+    @Coalesce(name = "shared", value = 100)
+    @Receiver
+    void sharedB(SharedEvent evt) {
+      shared.add("b");
+    }
+
+    @Coalesce(value = 100, merger = SumMerger.class)
+    @Receiver
+    void sum(SumEvent evt) {
+      received.add(evt);
+    }
+  }
+
+  static class SharedEvent extends MyEvent {
+    SharedEvent(String key, int value) {
+      super(key, value);
+    }
+  }
+
+  static class SumEvent extends MyEvent {
+    SumEvent(String key, int value) {
+      super(key, value);
+    }
+  }
+
+  static class SumMerger implements EventMerger<SumEvent> {
+    @Override
+    public SumEvent merge(SumEvent previous, SumEvent next) {
+      return new SumEvent(previous.key, previous.value + next.value);
+    }
+  }
+
+  private MyReceiver receiver;
+
+  @Override
+  protected void register() {
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = testDelay)
+  public void testExpiredOwner() throws InterruptedException {
+    // The invocation that opens the window expires before the window closes
+    LatestEvent first = new LatestEvent("a", 1);
+    dispatch.fireWithDeadline(first, 50, TimeUnit.MILLISECONDS);
+    dispatch.fire(new LatestEvent("a", 2));
+
+    assertEquals(2, receiver.received.take().value);
+    List<DispatchResult> results = new ArrayList<DispatchResult>();
+    results.add(receiver.results.take());
+    results.add(receiver.results.take());
+    for (DispatchResult result : results) {
+      assertEquals(result.getEvent() == first, result.wasExpired());
+    }
+    assertTrue(receiver.received.isEmpty());
+  }
+
+  @Test(timeout = testDelay)
+  public void testLatest() throws InterruptedException {
+    for (int i = 1; i <= 5; i++) {
+      dispatch.fire(new LatestEvent("a", i));
+    }
+    dispatch.fire(new LatestEvent("b", 6));
+
+    List<Integer> values = new ArrayList<Integer>();
+    values.add(receiver.received.take().value);
+    values.add(receiver.received.take().value);
+    assertTrue(values.contains(5));
+    assertTrue(values.contains(6));
+
+    // Every invocation completes, but only two reached the receiver
+    for (int i = 0; i < 6; i++) {
+      assertNull(receiver.results.take().getThrown());
+    }
+    assertTrue(receiver.received.isEmpty());
+  }
+
+  @Test(timeout = testDelay)
+  public void testMerge() throws InterruptedException {
+    for (int i = 1; i <= 3; i++) {
+      dispatch.fire(new SumEvent("a", i));
+    }
+    assertEquals(6, receiver.received.take().value);
+
+    // A new window is opened after the first one closes
+    dispatch.fire(new SumEvent("a", 10));
+    assertEquals(10, receiver.received.take().value);
+  }
+
+  @Test(timeout = testDelay)
+  public void testSharedName() throws InterruptedException {
+    // Both receivers join the same window, and each receives the event
+    dispatch.fire(new SharedEvent("a", 1));
+    dispatch.fire(new SharedEvent("a", 2));
+    Set<String> shared = new HashSet<String>();
+    shared.add(receiver.shared.take());
+    shared.add(receiver.shared.take());
+    assertEquals(2, shared.size());
+
+    for (int i = 0; i < 4; i++) {
+      assertNull(receiver.results.take().getThrown());
+    }
+    assertTrue(receiver.shared.isEmpty());
+  }
+}
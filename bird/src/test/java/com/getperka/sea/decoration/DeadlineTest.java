@@ -0,0 +1,103 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+
+public class DeadlineTest {
+  static class Blocker implements Event {}
+
+  static class MyEvent implements Event {}
+
+  static class MyReceiver {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final BlockingQueue<DispatchResult> results = new LinkedBlockingQueue<DispatchResult>();
+    final CountDownLatch release = new CountDownLatch(1);
+    volatile boolean received;
+
+    @Receiver
+    void block(Blocker evt) throws InterruptedException {
+      blocked.countDown();
+      release.await();
+    }
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (evt.getSource() instanceof MyEvent) {
+        results.addAll(evt.getResults());
+      }
+    }
+
+    @Deadline(50)
+    @Receiver
+    void myEvent(MyEvent evt) {
+      received = true;
+    }
+  }
+
+  @Test(timeout = testDelay)
+  public void test() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    EventDispatch dispatch = EventDispatchers.create(executor);
+    MyReceiver receiver = new MyReceiver();
+    dispatch.register(receiver);
+    dispatch.warmUp();
+
+    // An event that is received promptly
+    dispatch.fire(new MyEvent());
+    DispatchResult result = receiver.results.take();
+    assertTrue(result.wasReceived());
+    assertFalse(result.wasExpired());
+    receiver.received = false;
+
+    // Hold the event in the queue for longer than the deadline
+    dispatch.fire(new Blocker());
+    receiver.blocked.await();
+    dispatch.fire(new MyEvent());
+    Thread.sleep(100);
+    receiver.release.countDown();
+
+    result = receiver.results.take();
+    assertTrue(result.wasExpired());
+    assertFalse(result.wasReceived());
+    assertFalse(receiver.received);
+
+    dispatch.shutdown();
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,64 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+
+/**
+ * Runs each test against a dispatch with a small executor, so that the tests can show that
+ * suspended or waiting invocations do not occupy dispatch threads.
+ */
+public abstract class DecoratorFixture {
+  protected EventDispatch dispatch;
+  protected ExecutorService executor;
+
+  @After
+  public void after() {
+    dispatch.shutdown();
+    executor.shutdownNow();
+  }
+
+  @Before
+  public void before() {
+    executor = createExecutor();
+    dispatch = EventDispatchers.create(executor);
+    register();
+  }
+
+  /**
+   * Returns the executor for the dispatch. The default is a single thread.
+   */
+  protected ExecutorService createExecutor() {
+    return Executors.newSingleThreadExecutor();
+  }
+
+  /**
+   * Register the receivers used by the test with {@link #dispatch}.
+   */
+  protected abstract void register();
+}
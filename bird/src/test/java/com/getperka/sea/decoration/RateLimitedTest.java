@@ -0,0 +1,147 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+
+public class RateLimitedTest extends DecoratorFixture {
+  interface Limited extends Event {}
+
+  static class BoundedEvent implements Limited {}
+
+  static class MyEvent implements Limited {}
+
+  static class MyReceiver {
+    final BlockingQueue<Long> invoked = new LinkedBlockingQueue<Long>();
+    final BlockingQueue<Event> others = new LinkedBlockingQueue<Event>();
+    final BlockingQueue<DispatchResult> results = new LinkedBlockingQueue<DispatchResult>();
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (evt.getSource() instanceof Limited) {
+        results.addAll(evt.getResults());
+      }
+    }
+
+    @Receiver
+    @RateLimited(permits = 1, period = 200, unit = TimeUnit.MILLISECONDS)
+    void bounded(BoundedEvent evt) {}
+
+    @Receiver
+    @RateLimited(permits = 20, burst = 1, maxDelay = 1)
+    void limited(MyEvent evt) {
+      invoked.add(System.nanoTime());
+    }
+
+    @Receiver
+    void other(OtherEvent evt) {
+      others.add(evt);
+    }
+
+    @Receiver
+    @RateLimited(name = "reject", permits = 1, unit = TimeUnit.HOURS, maxDelay = 0)
+    void reject(RejectEvent evt) {}
+  }
+
+  static class OtherEvent implements Event {}
+
+  static class RejectEvent implements Limited {}
+
+  private MyReceiver receiver;
+
+  @Override
+  protected void register() {
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = testDelay)
+  public void testDefaultMaxDelay() throws InterruptedException {
+    BoundedEvent first = new BoundedEvent();
+    dispatch.fire(first);
+    DispatchResult result = receiver.results.take();
+    assertSame(first, result.getEvent());
+    assertNull(result.getThrown());
+
+    // The next event reserves the bucket's single token, after which events are rejected
+    BoundedEvent second = new BoundedEvent();
+    dispatch.fire(second);
+    BoundedEvent third = new BoundedEvent();
+    dispatch.fire(third);
+    result = receiver.results.take();
+    assertSame(third, result.getEvent());
+    assertTrue(result.getThrown() instanceof RateLimitExceededException);
+
+    result = receiver.results.take();
+    assertSame(second, result.getEvent());
+    assertNull(result.getThrown());
+  }
+
+  @Test(timeout = testDelay)
+  public void testDelayed() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      dispatch.fire(new MyEvent());
+    }
+    dispatch.fire(new OtherEvent());
+
+    long first = receiver.invoked.take();
+    receiver.others.take();
+    assertTrue(receiver.invoked.isEmpty());
+
+    // One token is added every 50 milliseconds
+    receiver.invoked.take();
+    long third = receiver.invoked.take();
+    assertTrue(third - first >= TimeUnit.MILLISECONDS.toNanos(95));
+    for (int i = 0; i < 3; i++) {
+      assertNull(receiver.results.take().getThrown());
+    }
+  }
+
+  @Test(timeout = testDelay)
+  public void testRejected() throws InterruptedException {
+    RejectEvent first = new RejectEvent();
+    RejectEvent second = new RejectEvent();
+    dispatch.fire(first);
+    dispatch.fire(second);
+
+    DispatchResult result = receiver.results.take();
+    assertSame(first, result.getEvent());
+    assertNull(result.getThrown());
+
+    result = receiver.results.take();
+    assertSame(second, result.getEvent());
+    assertTrue(result.getThrown() instanceof RateLimitExceededException);
+  }
+}
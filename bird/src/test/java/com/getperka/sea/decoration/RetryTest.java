@@ -0,0 +1,124 @@
+package com.getperka.sea.decoration;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+
+public class RetryTest extends DecoratorFixture {
+  static class FlakyEvent implements Event {
+    final int failures;
+
+    FlakyEvent(int failures) {
+      this.failures = failures;
+    }
+  }
+
+  static class OtherEvent implements Event {}
+
+  static class MyReceiver {
+    final AtomicInteger attempts = new AtomicInteger();
+    final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (!(evt.getSource() instanceof OtherEvent)) {
+        received.addAll(evt.getResults());
+      }
+    }
+
+    @Receiver
+    @Retry(maxAttempts = 3, backoff = 20, retryOn = IOException.class)
+    void flaky(FlakyEvent evt) throws IOException {
+      if (attempts.getAndIncrement() < evt.failures) {
+        throw new IOException();
+      }
+    }
+
+    @Receiver
+    void other(OtherEvent evt) {
+      received.add(evt);
+    }
+
+    @Receiver
+    @Retry(retryOn = IOException.class)
+    void unexpected(UnexpectedEvent evt) {
+      attempts.incrementAndGet();
+      throw new IllegalStateException();
+    }
+  }
+
+  static class UnexpectedEvent implements Event {}
+
+  private MyReceiver receiver;
+
+  @Override
+  protected void register() {
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = testDelay)
+  public void testExhausted() throws InterruptedException {
+    dispatch.fire(new FlakyEvent(Integer.MAX_VALUE));
+    DispatchResult result = (DispatchResult) receiver.received.take();
+    assertEquals(3, receiver.attempts.get());
+    assertEquals(2, result.getRetryCount());
+    assertTrue(result.getThrown() instanceof IOException);
+  }
+
+  @Test(timeout = testDelay)
+  public void testNotRetried() throws InterruptedException {
+    dispatch.fire(new UnexpectedEvent());
+    DispatchResult result = (DispatchResult) receiver.received.take();
+    assertEquals(1, receiver.attempts.get());
+    assertEquals(0, result.getRetryCount());
+    assertTrue(result.getThrown() instanceof IllegalStateException);
+  }
+
+  @Test(timeout = testDelay)
+  public void testSuccess() throws InterruptedException {
+    dispatch.fire(new FlakyEvent(2));
+    // The other event is received while the flaky receiver is waiting to be retried
+    dispatch.fire(new OtherEvent());
+    assertTrue(receiver.received.take() instanceof OtherEvent);
+
+    DispatchResult result = (DispatchResult) receiver.received.take();
+    assertEquals(3, receiver.attempts.get());
+    assertEquals(2, result.getRetryCount());
+    assertNull(result.getThrown());
+    assertTrue(result.wasReceived());
+  }
+}
@@ -29,6 +29,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -140,6 +141,39 @@ public class TimedDecoratorTest {
     void noOp(Event event) {}
   }
 
+  /**
+   * Invokes the work twice.
+   */
+  static class TwiceDecorator implements EventDecorator<Twice, Event> {
+    @Override
+    public Callable<Object> wrap(final Context<Twice, Event> ctx) {
+      return new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          ctx.getWork().call();
+          return ctx.getWork().call();
+        }
+      };
+    }
+  }
+
+  @EventDecoratorBinding(TwiceDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Twice {}
+
+  static class TwiceEvent implements Event {}
+
+  @Twice
+  class TwiceReceiver {
+    final AtomicInteger invoked = new AtomicInteger();
+
+    @Receiver(synchronous = true)
+    @Timed(testDelay)
+    void noOp(TwiceEvent event) {
+      invoked.incrementAndGet();
+    }
+  }
+
   @SuppressWarnings("unchecked")
   static <T extends Throwable> void sneakyThrow(Throwable t) throws T {
     throw (T) t;
@@ -182,4 +216,12 @@ public class TimedDecoratorTest {
     dispatch.fire(new Event() {});
     latch.await();
   }
+
+  @Test(timeout = testDelay)
+  public void testWorkInvokedTwice() {
+    TwiceReceiver receiver = new TwiceReceiver();
+    dispatch.register(receiver);
+    dispatch.fire(new TwiceEvent());
+    assertEquals(2, receiver.invoked.get());
+  }
 }
@@ -0,0 +1,178 @@
+package com.getperka.sea.shedding;
+/*
+ * #%L
+ * Simple Event Architecture - Bits of Independently Reusable Decoration
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+
+@LoadShedding(shed = LoadSheddingTest.Optional.class, maxPending = 2, interval = 0,
+    resumeRatio = 0.5)
+public class LoadSheddingTest {
+  static class Blocker implements Event {}
+
+  static class Critical implements Event {}
+
+  static class Optional implements Event {}
+
+  @LoadShedding(shed = LoadSheddingTest.Optional.class, maxQueueWait = 5, interval = 0)
+  static class QueueWaitLimit {}
+
+  static class MyReceiver {
+    final Semaphore permits = new Semaphore(0);
+    final BlockingQueue<Event> received = new LinkedBlockingQueue<Event>();
+
+    @Receiver
+    void blocker(Blocker evt) throws InterruptedException {
+      permits.acquire();
+    }
+
+    @Receiver
+    void critical(Critical evt) {
+      received.add(evt);
+    }
+
+    @Receiver
+    void optional(Optional evt) {
+      received.add(evt);
+    }
+  }
+
+  @Test(timeout = testDelay)
+  public void test() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    EventDispatch dispatch = EventDispatchers.create(executor);
+    dispatch.addGlobalDecorator(getClass());
+    MyReceiver receiver = new MyReceiver();
+    dispatch.register(receiver);
+
+    // Not overloaded
+    dispatch.fire(new Optional());
+    assertTrue(receiver.received.take() instanceof Optional);
+
+    // Build up a backlog
+    for (int i = 0; i < 3; i++) {
+      dispatch.fire(new Blocker());
+    }
+    dispatch.fire(new Optional());
+    dispatch.fire(new Critical());
+    receiver.permits.release(3);
+    // The optional event was suppressed, but the critical event was not
+    assertTrue(receiver.received.take() instanceof Critical);
+
+    // Wait for the backlog to clear, then check that optional events are delivered again
+    awaitPending(dispatch, 0);
+    dispatch.fire(new Optional());
+    assertTrue(receiver.received.take() instanceof Optional);
+    assertEquals(0, receiver.received.size());
+
+    dispatch.shutdown();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Verifies that shedding continues until the load falls below the resume ratio.
+   */
+  @Test(timeout = testDelay)
+  public void testHysteresis() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    EventDispatch dispatch = EventDispatchers.create(executor);
+    dispatch.addGlobalDecorator(getClass());
+    MyReceiver receiver = new MyReceiver();
+    dispatch.register(receiver);
+
+    for (int i = 0; i < 3; i++) {
+      dispatch.fire(new Blocker());
+    }
+    // Three pending invocations exceed the limit of two
+    dispatch.fire(new Optional());
+
+    // Two and one pending invocations are not below half the limit
+    for (int pending = 2; pending > 0; pending--) {
+      receiver.permits.release();
+      awaitPending(dispatch, pending);
+      dispatch.fire(new Optional());
+    }
+
+    receiver.permits.release();
+    awaitPending(dispatch, 0);
+    dispatch.fire(new Optional());
+    assertTrue(receiver.received.take() instanceof Optional);
+    assertEquals(null, receiver.received.poll(50, TimeUnit.MILLISECONDS));
+
+    dispatch.shutdown();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Verifies that shedding continues while a stalled executor isn't starting any invocations.
+   */
+  @Test(timeout = testDelay)
+  public void testStalledExecutor() throws InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    EventDispatch dispatch = EventDispatchers.create(executor);
+    dispatch.addGlobalDecorator(QueueWaitLimit.class);
+    MyReceiver receiver = new MyReceiver();
+    dispatch.register(receiver);
+
+    // The critical event and the second blocker wait well over the limit to start
+    dispatch.fire(new Blocker());
+    dispatch.fire(new Critical());
+    dispatch.fire(new Blocker());
+    Thread.sleep(50);
+    receiver.permits.release();
+    assertTrue(receiver.received.take() instanceof Critical);
+    awaitPending(dispatch, 1);
+
+    // The executor is now stalled by the second blocker, so no queue wait samples are taken
+    dispatch.fire(new Critical());
+    dispatch.fire(new Optional());
+    dispatch.fire(new Critical());
+
+    receiver.permits.release();
+    assertTrue(receiver.received.take() instanceof Critical);
+    assertTrue(receiver.received.take() instanceof Critical);
+    awaitPending(dispatch, 0);
+    assertEquals(0, receiver.received.size());
+
+    dispatch.shutdown();
+    executor.shutdownNow();
+  }
+
+  private void awaitPending(EventDispatch dispatch, int pending) throws InterruptedException {
+    while (dispatch.getMetrics().getPendingCount() != pending) {
+      Thread.sleep(1);
+    }
+  }
+}
@@ -21,12 +21,20 @@ package com.getperka.sea.summary;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.junit.Test;
 
+import com.getperka.sea.Event;
 import com.getperka.sea.EventDispatch;
 import com.getperka.sea.EventDispatchers;
 import com.getperka.sea.Receiver;
@@ -35,9 +43,56 @@ import com.getperka.sea.decoration.Failure;
 import com.getperka.sea.decoration.Implementation;
 import com.getperka.sea.decoration.Logged;
 import com.getperka.sea.decoration.Success;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventDecoratorBinding;
 
 public class ConfigurationAnalyzerTest {
 
+  static class Amplified implements Event {}
+
+  /**
+   * Declares a decorator annotation whose simple name is shared with {@link Second.Mark}.
+   */
+  static class First {
+    @EventDecoratorBinding(PassThroughDecorator.class)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Mark {}
+  }
+
+  /**
+   * Each Trigger fires many Amplified events, and Ping and Pong fire each other.
+   */
+  static class FlowReceiver {
+    @Receiver(synchronous = true)
+    void amplified(Amplified evt) {}
+
+    @Receiver(synchronous = true)
+    void ping(Ping evt, EventDispatch dispatch) {
+      if (evt.remaining > 0) {
+        dispatch.fire(new Pong(evt.remaining - 1));
+      }
+    }
+
+    @Receiver(synchronous = true)
+    void pong(Pong evt, EventDispatch dispatch) {
+      dispatch.fire(new Ping(evt.remaining));
+    }
+
+    @Receiver(synchronous = true)
+    void trigger(Trigger evt, EventDispatch dispatch) {
+      for (int i = 0; i < 20; i++) {
+        dispatch.fire(new Amplified());
+      }
+    }
+  }
+
+  static class MarkedReceiver {
+    @First.Mark
+    @Receiver(synchronous = true)
+    @Second.Mark
+    void marked(MyEvent evt) {}
+  }
+
   static class MyEvent extends BaseOutcomeEvent {}
 
   static class MyReceiver {
@@ -55,6 +110,47 @@ public class ConfigurationAnalyzerTest {
     void success(MyEvent evt) {}
   }
 
+  static class PassThroughDecorator implements EventDecorator<Annotation, Event> {
+    @Override
+    public Callable<Object> wrap(Context<Annotation, Event> ctx) {
+      return ctx.getWork();
+    }
+  }
+
+  static class Ping implements Event {
+    final int remaining;
+
+    Ping(int remaining) {
+      this.remaining = remaining;
+    }
+  }
+
+  static class Pong implements Event {
+    final int remaining;
+
+    Pong(int remaining) {
+      this.remaining = remaining;
+    }
+  }
+
+  static class Second {
+    @EventDecoratorBinding(PassThroughDecorator.class)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Mark {}
+  }
+
+  static class SynchronousReceiver {
+    @Logged
+    @Receiver(synchronous = true)
+    void logged(MyEvent evt) {}
+
+    @Receiver(synchronous = true)
+    @Success
+    void success(MyEvent evt) {}
+  }
+
+  static class Trigger implements Event {}
+
   @Test
   public void test() {
     EventDispatch dispatch = EventDispatchers.create();
@@ -83,4 +179,147 @@ public class ConfigurationAnalyzerTest {
     // Just verify it doesn't blow up
     assertNotNull(new SummaryUtils().createReceiverTsvReport(summary));
   }
+
+  @Test
+  public void testCosts() {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.getMetrics().setDecoratorTiming(true);
+    dispatch.register(SynchronousReceiver.class);
+
+    // Not a success, so the @Success filter will short-circuit
+    dispatch.fire(new MyEvent());
+    dispatch.fire(new MyEvent());
+
+    EventDispatchSummary summary = new BirdConfigurationAnalyzer().analyze(dispatch);
+    assertEquals(2, summary.getReceivers().size());
+    assertTrue(summary.getReceiverNanos() > 0);
+    assertTrue(summary.getDecoratorNanos() > 0);
+
+    for (ReceiverSummary r : summary.getReceivers()) {
+      String name = r.getMethodName();
+      List<DecoratorCost> costs = r.getDecoratorCosts();
+      if ("SynchronousReceiver.logged".equals(name)) {
+        assertEquals(2, r.getInvocations());
+        assertEquals(1, costs.size());
+        assertEquals("@Logged", costs.get(0).getDecorator());
+        assertEquals(2, costs.get(0).getInvocations());
+        assertEquals(0, costs.get(0).getShortCircuits());
+      } else if ("SynchronousReceiver.success".equals(name)) {
+        assertEquals(0, r.getInvocations());
+        assertEquals(0, r.getReceiverNanos());
+        assertEquals(1, costs.size());
+        assertEquals("@Success", costs.get(0).getDecorator());
+        assertEquals(2, costs.get(0).getInvocations());
+        assertEquals(2, costs.get(0).getShortCircuits());
+      } else {
+        fail(name);
+      }
+    }
+  }
+
+  /**
+   * Decorators whose annotations share a simple name are reported separately.
+   */
+  @Test
+  public void testCostsOfSameNamedDecorators() {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.getMetrics().setDecoratorTiming(true);
+    dispatch.register(MarkedReceiver.class);
+    dispatch.fire(new MyEvent());
+
+    EventDispatchSummary summary = new BirdConfigurationAnalyzer().analyze(dispatch);
+    List<DecoratorCost> costs = summary.getReceivers().get(0).getDecoratorCosts();
+    assertEquals(2, costs.size());
+    for (DecoratorCost cost : costs) {
+      assertEquals("@Mark", cost.getDecorator());
+      assertEquals(1, cost.getInvocations());
+    }
+  }
+
+  @Test
+  public void testEventFlowWindow() {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.register(FlowReceiver.class);
+    dispatch.fire(new Trigger());
+
+    ConfigurationAnalyzer analyzer = new BirdConfigurationAnalyzer();
+    EventFlowEdge first = analyzer.analyze(dispatch).getEventFlow().getEdgesFrom("Trigger").get(0);
+    assertEquals(20, first.getWindowCount());
+    assertTrue(first.getRate() > 0);
+
+    // Nothing has been fired since the previous summary
+    EventFlowEdge second = analyzer.analyze(dispatch).getEventFlow().getEdgesFrom("Trigger")
+        .get(0);
+    assertEquals(20, second.getCount());
+    assertEquals(0, second.getWindowCount());
+    assertEquals(0, second.getRate(), 0);
+
+    dispatch.fire(new Trigger());
+    EventFlowEdge third = analyzer.analyze(dispatch).getEventFlow().getEdgesFrom("Trigger").get(0);
+    assertEquals(40, third.getCount());
+    assertEquals(20, third.getWindowCount());
+  }
+
+  @Test
+  public void testCostsDisabled() {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.register(SynchronousReceiver.class);
+    dispatch.fire(new MyEvent());
+
+    // Timing is opt-in, so nothing is measured by default
+    EventDispatchSummary summary = new BirdConfigurationAnalyzer().analyze(dispatch);
+    assertEquals(0, summary.getReceiverNanos());
+    assertEquals(0, summary.getDecoratorNanos());
+  }
+
+  @Test
+  public void testEventFlow() {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.register(FlowReceiver.class);
+
+    dispatch.fire(new Trigger());
+    dispatch.fire(new Trigger());
+    dispatch.fire(new Ping(3));
+
+    EventDispatchSummary summary = new BirdConfigurationAnalyzer().analyze(dispatch);
+    EventFlowGraph graph = summary.getEventFlow();
+    assertEquals(3, graph.getEdges().size());
+
+    List<EventFlowEdge> fromTrigger = graph.getEdgesFrom("Trigger");
+    assertEquals(1, fromTrigger.size());
+    EventFlowEdge edge = fromTrigger.get(0);
+    assertEquals("FlowReceiver.trigger", edge.getReceiver());
+    assertEquals("Amplified", edge.getFired());
+    assertEquals(40, edge.getCount());
+    assertEquals(2, edge.getInvocations());
+    assertEquals(20, edge.getPerInvocation(), 0.001);
+    assertEquals(20, graph.getAmplification("Trigger"), 0.001);
+    assertEquals(0, graph.getAmplification("Amplified"), 0.001);
+
+    assertEquals(1, graph.getCycles().size());
+    assertEquals(Arrays.asList("Ping", "Pong"), graph.getCycles().get(0));
+
+    boolean amplification = false;
+    boolean cycle = false;
+    for (EventFlowFinding finding : summary.getEventFlowFindings()) {
+      switch (finding.getKind()) {
+        case AMPLIFICATION:
+          assertEquals(Arrays.asList("Trigger"), finding.getEventTypes());
+          amplification = true;
+          break;
+        case CYCLE:
+          assertEquals("Ping -> Pong -> Ping", finding.getDescription());
+          cycle = true;
+          break;
+        case HOT_EDGE:
+          break;
+      }
+    }
+    assertTrue(amplification);
+    assertTrue(cycle);
+
+    SummaryUtils utils = new SummaryUtils();
+    assertTrue(utils.createEventFlowTsvReport(summary).contains("Trigger\tFlowReceiver.trigger"));
+    assertTrue(utils.createEventFlowDot(summary).startsWith("digraph"));
+  }
 }
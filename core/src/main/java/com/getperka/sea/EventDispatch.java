@@ -22,14 +22,20 @@ package com.getperka.sea;
 
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Provider;
 
 import com.getperka.sea.ext.ConfigurationProvider;
 import com.getperka.sea.ext.DecoratorOrder;
+import com.getperka.sea.ext.DispatchResult;
 import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.EventDecorator;
 import com.getperka.sea.ext.EventObserver;
+import com.getperka.sea.metrics.DispatchMetrics;
+import com.getperka.sea.metrics.DispatchStats;
 
 /**
  * This is the main interface for the Simple Event Architecture.
@@ -80,6 +86,85 @@ public interface EventDispatch extends ConfigurationProvider {
    */
   void fire(Event event, Object userObject);
 
+  /**
+   * Asynchronously dispatch an {@link Event} that was caused by an event outside of this dispatch,
+   * such as one received from another process. Events fired from within a receiver do not need to
+   * use this method, since their cause is determined automatically.
+   * 
+   * @param event the Event to dispatch. {@code null} values will be ignored
+   * @param userObject an arbitrary object to make available through
+   *          {@link EventContext#getUserObject()}
+   * @param traceId the value to return from {@link EventContext#getTraceId()}, or {@code 0} to
+   *          begin a new trace
+   * @param parentSequenceNumber the value to return from
+   *          {@link EventContext#getParentSequenceNumber()}
+   */
+  void fire(Event event, Object userObject, long traceId, long parentSequenceNumber);
+
+  /**
+   * Dispatch an {@link Event} once the given delay has elapsed. Delays are measured with a
+   * resolution of about one millisecond. If the delayed event is fired from within a receiver, it
+   * will be considered to have been caused by the event being received.
+   * <p>
+   * An event that comes due while the dispatch is {@link #setDraining(boolean) draining} is
+   * discarded, and events that are not yet due when the dispatch is {@link #shutdown() shut down}
+   * are canceled. Events that have come due are treated as pending by {@link #setDraining}.
+   * 
+   * @param event the Event to dispatch. {@code null} values will be ignored
+   * @param delay the amount of time to wait before dispatching the event
+   * @param unit the measurement unit of {@code delay}
+   * @return a handle that will prevent the event from being dispatched if it is not yet due
+   */
+  Registration fireAfter(Event event, long delay, TimeUnit unit);
+
+  /**
+   * Dispatch an {@link Event} at the given time. A time in the past will cause the event to be
+   * dispatched immediately. Otherwise, this method behaves similarly to
+   * {@link #fireAfter(Event, long, TimeUnit)}.
+   * 
+   * @param event the Event to dispatch. {@code null} values will be ignored
+   * @param when the time at which to dispatch the event
+   * @return a handle that will prevent the event from being dispatched if it is not yet due
+   */
+  Registration fireAt(Event event, Date when);
+
+  /**
+   * Periodically dispatch events, beginning after the initial delay. Occurrences that are missed
+   * because the executor is busy are skipped rather than fired in a burst, and occurrences that
+   * come due while the dispatch is draining are discarded. Otherwise, this method behaves similarly
+   * to {@link #fireAfter(Event, long, TimeUnit)}.
+   * 
+   * @param events supplies a new Event each time the period elapses. {@code null} values will be
+   *          ignored
+   * @param initialDelay the amount of time to wait before dispatching the first event
+   * @param period the amount of time between the start of consecutive dispatches
+   * @param unit the measurement unit of {@code initialDelay} and {@code period}
+   * @return a handle that will stop further events from being dispatched
+   */
+  Registration fireAtFixedRate(Provider<? extends Event> events, long initialDelay, long period,
+      TimeUnit unit);
+
+  /**
+   * Asynchronously dispatch an {@link Event} that is only useful if it is received within the
+   * given amount of time, such as a request whose caller will give up waiting. Receiver invocations
+   * that have not begun by the {@link EventContext#getDeadline() deadline} are skipped without
+   * running any decorator or receiver code; their {@link DispatchResult#wasExpired()} method will
+   * return {@code true} and they are counted by {@link DispatchStats#getExpiredCount()}.
+   * <p>
+   * Events fired by the receivers inherit the deadline. If this method is called from within a
+   * receiver, the earlier of the given deadline and the received event's deadline is used.
+   * 
+   * @param event the Event to dispatch. {@code null} values will be ignored
+   * @param timeout the amount of time after which the event should no longer be received
+   * @param unit the measurement unit of {@code timeout}
+   */
+  void fireWithDeadline(Event event, long timeout, TimeUnit unit);
+
+  /**
+   * Returns the throughput, latency, and error statistics collected by the dispatch.
+   */
+  DispatchMetrics getMetrics();
+
   /**
    * Returns the last value passed to {@link #setDraining(boolean)}.
    */
@@ -133,4 +218,21 @@ public interface EventDispatch extends ConfigurationProvider {
    * their resources. Once shut down, the EventDispatch should be discarded.
    */
   void shutdown();
+
+  /**
+   * Equivalent to calling {@link #warmUp(Collection)} with the event types declared by all
+   * registered receiver methods. Receivers of a supertype of an event will still perform some
+   * one-time work when a subtype is first dispatched.
+   */
+  void warmUp();
+
+  /**
+   * Compute the routing and {@link EventDecorator} configuration for the given event types ahead of
+   * time, so that the first events dispatched after startup do not pay for it. Decorators that are
+   * reused between invocations are also instantiated. Receivers are not invoked.
+   * <p>
+   * This method should be called after receivers and global decorators have been registered, since
+   * registering either will discard the precomputed state.
+   */
+  void warmUp(Collection<Class<? extends Event>> eventTypes);
 }
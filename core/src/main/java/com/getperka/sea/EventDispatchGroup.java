@@ -0,0 +1,112 @@
+package com.getperka.sea;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import com.getperka.sea.inject.DispatchModule;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.inject.EventModule;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+/**
+ * A factory for lightweight {@link EventDispatch} instances. Every dispatch created by a group
+ * shares the group's executor, logger, and receiver metadata, while keeping its own registrations,
+ * global decorators, observers, and draining state. Decorator and observer implementations that
+ * are {@code @Singleton} are instantiated once per dispatch, so that state such as an open circuit
+ * breaker is not shared between dispatches. Creating a dispatch from a group is
+ * considerably cheaper than calling {@link EventDispatchers#create}, which is useful when many
+ * dispatches are needed within a single JVM.
+ * 
+ * <pre>
+ * EventDispatchGroup group = EventDispatchGroup.create();
+ * EventDispatch tenantA = group.createDispatch();
+ * EventDispatch tenantB = group.createDispatch();
+ * </pre>
+ * 
+ * Shutting down a dispatch created by the group does not shut down the shared executor.
+ */
+public class EventDispatchGroup {
+  /**
+   * Replaces the default executor.
+   */
+  static class ExecutorModule extends AbstractModule {
+    private final ExecutorService svc;
+
+    ExecutorModule(ExecutorService svc) {
+      this.svc = svc;
+    }
+
+    @Override
+    protected void configure() {
+      bind(ExecutorService.class).annotatedWith(EventExecutor.class).toInstance(svc);
+    }
+  }
+
+  /**
+   * Binds everything except the per-dispatch types.
+   */
+  private static class SharedModule extends EventModule {
+    @Override
+    protected void configureDispatch() {}
+  }
+
+  /**
+   * Creates a group whose dispatches use the provided {@link ExecutorService}.
+   */
+  public static EventDispatchGroup create(ExecutorService svc) {
+    return create(new ExecutorModule(svc));
+  }
+
+  /**
+   * Creates a group. The modules may override bindings, such as the executor, that are shared by all
+   * dispatches in the group.
+   */
+  public static EventDispatchGroup create(Module... extraModules) {
+    return new EventDispatchGroup(Guice.createInjector(Modules.override(new SharedModule())
+        .with(extraModules)));
+  }
+
+  private final Injector injector;
+
+  private EventDispatchGroup(Injector injector) {
+    this.injector = injector;
+  }
+
+  /**
+   * Creates a new {@link EventDispatch} that shares the group's resources.
+   * 
+   * @param extraModules additional bindings that are visible only to the new dispatch
+   */
+  public EventDispatch createDispatch(Module... extraModules) {
+    List<Module> modules = new ArrayList<Module>();
+    modules.add(new DispatchModule());
+    modules.addAll(Arrays.asList(extraModules));
+    return injector.createChildInjector(modules).getInstance(EventDispatch.class);
+  }
+}
@@ -35,13 +35,8 @@ public class EventDispatchers {
    * Instantiates a new {@link EventDispatch} instance that uses the provided
    * {@link ExecutorService} for scheduling executions.
    */
-  public static EventDispatch create(final ExecutorService svc) {
-    return Guice.createInjector(new EventModule() {
-      @Override
-      protected ExecutorService executorService() {
-        return svc;
-      }
-    }).getInstance(EventDispatch.class);
+  public static EventDispatch create(ExecutorService svc) {
+    return create(new EventDispatchGroup.ExecutorModule(svc));
   }
 
   /**
@@ -0,0 +1,78 @@
+package com.getperka.sea;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows instances of a receiver class registered via {@link EventDispatch#register(Class)} to be
+ * reused. By default, a new instance of the receiver is created and injected for every event that
+ * it receives, which is costly for receivers that are expensive to construct.
+ * <p>
+ * A reusable receiver must not retain per-event state in its fields between invocations. Pooled
+ * and per-thread instances are never used by more than one event at a time, while a
+ * {@link Mode#SINGLETON} receiver must be thread-safe. This annotation has no effect if the
+ * receiver is registered with an explicit {@code Provider} or as an instance.
+ * 
+ * <pre>
+ * &#064;Reusable(value = Reusable.Mode.POOLED, maxPooled = 4)
+ * class ExpensiveReceiver {
+ *   &#064;Receiver
+ *   void onBar(BarEvent event) {}
+ * }
+ * </pre>
+ * 
+ * @see com.getperka.sea.ext.ConfigurationVisitor#receiverInstances
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Reusable {
+  /**
+   * The strategy for reusing receiver instances.
+   */
+  enum Mode {
+    /**
+     * Idle instances are retained in a bounded pool, up to {@link Reusable#maxPooled()}.
+     */
+    POOLED,
+    /**
+     * Each dispatch thread retains its own instance. A synchronous dispatch that reenters the
+     * receiver on the same thread is given a new, unretained instance.
+     */
+    PER_THREAD,
+    /**
+     * A single instance is used for all events received by the registration.
+     */
+    SINGLETON
+  }
+
+  /**
+   * The maximum number of idle instances to retain when using {@link Mode#POOLED}.
+   */
+  int maxPooled() default 16;
+
+  Mode value() default Mode.POOLED;
+}
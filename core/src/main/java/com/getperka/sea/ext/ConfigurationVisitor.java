@@ -25,6 +25,7 @@ import java.util.List;
 
 import com.getperka.sea.Event;
 import com.getperka.sea.EventDispatch;
+import com.getperka.sea.Reusable;
 
 /**
  * Provides a formal interface for examining the state of an {@link EventDispatch} and friends. The
@@ -36,15 +37,62 @@ public class ConfigurationVisitor {
   public void decoratorBinding(Class<? extends Annotation> annotation,
       Class<? extends EventDecorator<?, ?>> decorator) {}
 
+  /**
+   * Reports the measured cost of a decorator applied to a receiver method. Costs are only
+   * recorded while {@link com.getperka.sea.metrics.DispatchMetrics#setDecoratorTiming} is enabled.
+   * 
+   * @param method the decorated receiver method
+   * @param annotation the annotation that bound the decorator
+   * @param invocations the number of times the decorator was applied
+   * @param shortCircuits the number of invocations in which the decorator did not execute the work
+   *          that it wraps
+   * @param nanos the total time spent in the decorator, excluding the work that it wraps
+   */
+  public void decoratorTiming(Method method, Annotation annotation, long invocations,
+      long shortCircuits, long nanos) {}
+
   public void endConfiguration() {}
 
   public void eventDispatch(EventDispatch dispatch) {}
 
+  /**
+   * Reports the events fired by a receiver method, or by its decorators, while the method was being
+   * dispatched.
+   * 
+   * @param method the receiver method
+   * @param fired the type of event that was fired
+   * @param count the number of events of that type that were fired
+   * @param elapsedNanos the length of time over which the events were counted
+   */
+  public void eventFlow(Method method, Class<? extends Event> fired, long count,
+      long elapsedNanos) {}
+
   public void observer(Annotation annotation, EventObserver<?, ?> observer) {}
 
   public void observerBinding(Class<? extends Annotation> annotation,
       Class<? extends EventObserver<?, ?>> observer) {}
 
+  /**
+   * Reports the reuse of receiver instances for a {@link Reusable} receiver registration.
+   * 
+   * @param receiver the registered receiver type
+   * @param mode the reuse strategy
+   * @param hits the number of times an existing instance was reused
+   * @param misses the number of times a new instance was created
+   */
+  public void receiverInstances(Class<?> receiver, Reusable.Mode mode, long hits, long misses) {}
+
   public void receiverMethod(Method method, Class<? extends Event> event,
       List<Annotation> annotations) {}
+
+  /**
+   * Reports the measured cost of executing a receiver method, excluding its decorators. The time
+   * is only recorded while {@link com.getperka.sea.metrics.DispatchMetrics#setDecoratorTiming} is
+   * enabled.
+   * 
+   * @param method the receiver method
+   * @param invocations the number of times the method was executed
+   * @param nanos the total time spent in the method
+   */
+  public void receiverTiming(Method method, long invocations, long nanos) {}
 }
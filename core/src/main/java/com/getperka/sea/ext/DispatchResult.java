@@ -34,6 +34,13 @@ public interface DispatchResult {
    */
   Event getEvent();
 
+  /**
+   * Returns the number of times the invocation was retried before this result was obtained.
+   * 
+   * @see EventDecorator.Context#retry()
+   */
+  int getRetryCount();
+
   /**
    * Returns the value returned by the {@link Receiver} method. This method will return {@code null}
    * if {{@link #wasReceived()} is {@code false}.
@@ -50,6 +57,13 @@ public interface DispatchResult {
    */
   Throwable getThrown();
 
+  /**
+   * Returns {@code true} if the receiver method was not called because the event's
+   * {@link EventContext#getDeadline() deadline} had passed or a decorator called
+   * {@link EventDecorator.Context#expire()}.
+   */
+  boolean wasExpired();
+
   /**
    * Returns {@code true} if the receiver method was actually called.
    */
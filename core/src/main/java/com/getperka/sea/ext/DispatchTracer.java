@@ -0,0 +1,151 @@
+package com.getperka.sea.ext;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Annotation;
+
+import javax.inject.Singleton;
+
+import com.getperka.sea.Event;
+
+/**
+ * Receives notifications of each stage of an event's dispatch, allowing the time spent in the
+ * dispatch plumbing to be distinguished from the time spent in receiver code. The default
+ * implementation does nothing. A subclass may be installed by binding it in a module passed to
+ * {@link com.getperka.sea.EventDispatchers#create(com.google.inject.Module...)}.
+ * <p>
+ * Each {@code beginXxx} method returns a token that will be passed to the matching {@code endXxx}
+ * method on the same thread. Because the methods are called for every event, implementations
+ * should avoid allocating when tracing is disabled.
+ */
+@Singleton
+public class DispatchTracer {
+  protected DispatchTracer() {}
+
+  /**
+   * Called before {@link EventDecorator#wrap} is invoked.
+   */
+  public Object beginDecorator(Event event, EventContext context, ReceiverTarget target,
+      Annotation annotation) {
+    return null;
+  }
+
+  /**
+   * Called when an {@link com.getperka.sea.EventDispatch} begins to wait for pending invocations
+   * to drain.
+   */
+  public Object beginDrain() {
+    return null;
+  }
+
+  /**
+   * Called when an event has been fired, before it is examined by any {@link EventObserver}.
+   */
+  public Object beginFire(Event event, EventContext context) {
+    return null;
+  }
+
+  /**
+   * Called when a receiver invocation, including its decorators, begins.
+   */
+  public Object beginInvocation(Event event, EventContext context, ReceiverTarget target) {
+    return null;
+  }
+
+  /**
+   * Called when a message has been received from an external messaging system, before it is
+   * decoded.
+   */
+  public Object beginMessageReceive() {
+    return null;
+  }
+
+  /**
+   * Called before an event is sent to an external messaging system.
+   */
+  public Object beginMessageSend(Event event, EventContext context) {
+    return null;
+  }
+
+  /**
+   * Called before an {@link EventObserver} examines an event.
+   */
+  public Object beginObserver(Event event, EventContext context, EventObserver<?, ?> observer) {
+    return null;
+  }
+
+  /**
+   * @param token the value returned from {@link #beginDecorator}
+   */
+  public void endDecorator(Object token) {}
+
+  /**
+   * @param token the value returned from {@link #beginDrain}
+   */
+  public void endDrain(Object token) {}
+
+  /**
+   * Called once all receiver invocations for an event have been executed or queued.
+   * 
+   * @param token the value returned from {@link #beginFire}
+   * @param suppressed {@code true} if an {@link EventObserver} suppressed the event
+   */
+  public void endFire(Object token, boolean suppressed) {}
+
+  /**
+   * @param token the value returned from {@link #beginInvocation}
+   * @param result the result of the invocation, or {@code null} if the invocation failed
+   */
+  public void endInvocation(Object token, DispatchResult result) {}
+
+  /**
+   * @param token the value returned from {@link #beginMessageReceive}
+   * @param event the decoded event, or {@code null} if the message could not be decoded
+   */
+  public void endMessageReceive(Object token, Event event) {}
+
+  /**
+   * @param token the value returned from {@link #beginMessageSend}
+   */
+  public void endMessageSend(Object token) {}
+
+  /**
+   * @param token the value returned from {@link #beginObserver}
+   * @param suppressed {@code true} if the event has been suppressed
+   */
+  public void endObserver(Object token, boolean suppressed) {}
+
+  /**
+   * Called just before an asynchronous receiver invocation is submitted to the dispatch's executor,
+   * so that it always precedes any tracing of the invocation itself.
+   */
+  public void invocationQueued(Event event, EventContext context, ReceiverTarget target) {}
+
+  /**
+   * Called when a {@link SuspendedEvent} is resumed.
+   */
+  public void invocationResumed(Event event, EventContext context, ReceiverTarget target) {}
+
+  /**
+   * Called when a receiver invocation has been suspended.
+   */
+  public void invocationSuspended(Event event, EventContext context, ReceiverTarget target) {}
+}
@@ -26,11 +26,42 @@ import com.getperka.sea.EventDispatch;
  * Encapsulates metadata about a specific event and how it was dispatched.
  */
 public interface EventContext {
+  /**
+   * Returns the {@link System#nanoTime()} after which receivers should no longer be invoked with the
+   * event, or {@code 0} if the event has no deadline. Invocations that begin after the deadline are
+   * skipped, and their {@link DispatchResult#wasExpired()} method will return {@code true}. Events
+   * fired by a receiver inherit the deadline of their cause.
+   * 
+   * @see EventDispatch#fireWithDeadline(com.getperka.sea.Event, long,
+   *      java.util.concurrent.TimeUnit)
+   */
+  long getDeadline();
+
+  /**
+   * Returns the {@link System#nanoTime()} at which the event was fired.
+   */
+  long getFireTime();
+
+  /**
+   * Returns the {@link #getSequenceNumber() sequence number} of the event that caused this event to
+   * be fired, or {@code 0} if the event was not fired as a consequence of another event. The parent
+   * of an event that was relayed from another process is a sequence number in that process.
+   */
+  long getParentSequenceNumber();
+
   /**
    * Returns a monotonically-increasing value.
    */
   long getSequenceNumber();
 
+  /**
+   * Returns an identifier that is shared by an originating event and all events fired as a
+   * consequence of it. Events fired by a receiver, deferred with
+   * {@link EventDecorator.Context#fireLater(com.getperka.sea.Event)}, or relayed through a
+   * messaging system inherit the trace id of their cause.
+   */
+  long getTraceId();
+
   /**
    * Returns the user object provided to {@link EventDispatch#fire(com.getperka.sea.Event, Object)
 
@@ -97,6 +97,15 @@ public interface EventDecorator<A extends Annotation, E extends Event> {
    * @param <E> the expected event or event facet type
    */
   public interface Context<A extends Annotation, E extends Event> {
+    /**
+     * Indicates that the event is no longer worth processing, for instance because whoever fired it
+     * has stopped waiting for the outcome. The decorator should then return {@code null} from
+     * {@link EventDecorator#wrap(Context)}; neither the receiver method nor any decorator's
+     * {@link Callable} will be invoked, and {@link DispatchResult#wasExpired()} will return
+     * {@code true}.
+     */
+    void expire();
+
     /**
      * Fire the given event once the entire decorator stack has unwound.
      */
@@ -124,6 +133,12 @@ public interface EventDecorator<A extends Annotation, E extends Event> {
      */
     Event getOriginalEvent();
 
+    /**
+     * Returns the number of times {@link #retry()} has been called for the invocation, which is
+     * {@code 0} during the first attempt.
+     */
+    int getRetryCount();
+
     /**
      * Returns the instance the {@link Receiver} method is being invoked upon. If the method being
      * invoked is static, this method will return {@code null}.
@@ -141,6 +156,22 @@ public interface EventDecorator<A extends Annotation, E extends Event> {
      */
     Callable<Object> getWork();
 
+    /**
+     * Pass a different event to the receiver method, for instance one that combines several events.
+     * This method should be called from the {@link Callable} returned from
+     * {@link EventDecorator#wrap(Context)} before the work is invoked. {@link #getEvent()} and
+     * {@link DispatchResult#getEvent()} continue to return the event that was dispatched.
+     */
+    void replaceEvent(E event);
+
+    /**
+     * Suspend the invocation so that the receiver can be attempted again once the returned
+     * {@link SuspendedEvent} is resumed, usually after the receiver has failed. The outcome of the
+     * current attempt is discarded, and {@link #getRetryCount()} and
+     * {@link DispatchResult#getRetryCount()} will reflect the additional attempt.
+     */
+    SuspendedEvent retry();
+
     /**
      * Prevent any subsequent decorators or the receiver method from being invoked. This method will
      * cause {@link #wasDispatched()} to return {@code true} so that any active decorators can
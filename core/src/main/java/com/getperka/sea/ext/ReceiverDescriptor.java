@@ -0,0 +1,89 @@
+package com.getperka.sea.ext;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Describes the {@code @Receiver} methods of a type without requiring the type to be scanned
+ * reflectively. Implementations are generated at compile time by the {@code sea-apt} annotation
+ * processor and are named by appending {@link #SUFFIX} to the binary name of the receiver type.
+ * When a descriptor is present, it is used in place of examining the receiver's methods and the
+ * receiver methods are invoked directly instead of through {@link Method#invoke}.
+ * <p>
+ * A descriptor includes the receiver methods declared by supertypes of the receiver, so the
+ * receiver and its supertypes should be compiled together.
+ */
+public abstract class ReceiverDescriptor {
+  /**
+   * Describes and invokes a single receiver method.
+   */
+  public abstract static class Entry {
+    private final Class<?> declaringClass;
+    private final String name;
+    private final Class<?>[] parameterTypes;
+    private final boolean synchronous;
+
+    protected Entry(Class<?> declaringClass, String name, boolean synchronous,
+        Class<?>... parameterTypes) {
+      this.declaringClass = declaringClass;
+      this.name = name;
+      this.parameterTypes = parameterTypes;
+      this.synchronous = synchronous;
+    }
+
+    /**
+     * Returns the method being described.
+     * 
+     * @throws NoSuchMethodException if the descriptor is out of date with the receiver type
+     */
+    public Method getMethod() throws NoSuchMethodException {
+      return declaringClass.getDeclaredMethod(name, parameterTypes);
+    }
+
+    /**
+     * Invoke the receiver method.
+     * 
+     * @param instance the receiver instance, or {@code null} for a static method
+     * @param args the arguments to pass to the method
+     * @return the value returned from the method
+     */
+    public abstract Object invoke(Object instance, Object[] args) throws Throwable;
+
+    /**
+     * Returns the value of {@code Receiver#synchronous()}.
+     */
+    public boolean isSynchronous() {
+      return synchronous;
+    }
+  }
+
+  /**
+   * Appended to the binary name of a receiver type to produce the name of its descriptor.
+   */
+  public static final String SUFFIX = "_SeaReceivers";
+
+  /**
+   * Returns the entries for every receiver method of the receiver type and its supertypes.
+   */
+  public abstract List<Entry> getEntries();
+}
@@ -22,6 +22,8 @@ import com.getperka.sea.Receiver;
  * #L%
  */
 
+import java.lang.reflect.Method;
+
 /**
  * Encapsulates a method and an instance on which to execute it.
  * <p>
@@ -29,6 +31,12 @@ import com.getperka.sea.Receiver;
  * (or no instance in the case of static receivers).
  */
 public interface ReceiverTarget {
+  /**
+   * Returns the receiver method. Unlike the ReceiverTarget itself, the method is the same for every
+   * registration of the declaring class, so decorators should use it to key per-method state.
+   */
+  Method getMethod();
+
   /**
    * Returns the value of the {@link Receiver#synchronous()} property.
    */
@@ -0,0 +1,48 @@
+package com.getperka.sea.ext;
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Singleton;
+
+/**
+ * Declares that an {@link EventDecorator} implementation holds no per-invocation state. A single
+ * instance of the decorator will be used for all receiver invocations, and the
+ * {@link EventDecorator.Context} passed to {@link EventDecorator#wrap} will be recycled once the
+ * event has been dispatched to the receiver.
+ * <p>
+ * A stateless decorator must not retain a reference to its Context, or to the {@code Callable}
+ * returned from {@code wrap}, beyond the dispatch of the event. Decorators that are merely
+ * {@link Singleton} will also be reused, but receive a new Context for each invocation.
+ * 
+ * <pre>
+ * &#064;StatelessDecorator
+ * class AuditDecorator implements EventDecorator&lt;Audited, Event&gt; { ... }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface StatelessDecorator {}
@@ -37,4 +37,14 @@ public interface SuspendedEvent {
    * @throws IllegalStateException if {@code resume} is called more than once.
    */
   void resume();
+
+  /**
+   * Resume the receiver method on the calling thread instead of handing it to the dispatch's
+   * executor. This is meant for code that is already running on that executor, such as a timer
+   * callback that has been submitted to it, and has the same single-use restriction as
+   * {@link #resume()}.
+   * 
+   * @throws IllegalStateException if the event has already been resumed
+   */
+  void resumeInCurrentThread();
 }
@@ -0,0 +1,130 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.inject.Provider;
+
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.inject.CurrentEvent;
+import com.google.inject.Key;
+
+/**
+ * Supplies a single argument to a receiver method. The values that are commonly passed to receiver
+ * methods are read directly from the {@link ReceiverMethodInvocation}, while all other bindings
+ * are obtained from an injection {@link Provider}.
+ */
+public abstract class ArgumentBinder {
+  /**
+   * Delegates to an arbitrary Provider.
+   */
+  static class ProviderBinder extends ArgumentBinder {
+    private final Provider<?> provider;
+
+    ProviderBinder(Provider<?> provider) {
+      this.provider = provider;
+    }
+
+    @Override
+    public Object get(ReceiverMethodInvocation invocation) {
+      return provider.get();
+    }
+  }
+
+  /**
+   * Supplies the {@link CurrentEvent}.
+   */
+  static final ArgumentBinder CURRENT_EVENT = new ArgumentBinder() {
+    @Override
+    public Object get(ReceiverMethodInvocation invocation) {
+      return invocation.getEvent();
+    }
+  };
+
+  /**
+   * Supplies the {@link DispatchResult} for the invocation.
+   */
+  static final ArgumentBinder DISPATCH_RESULT = new ArgumentBinder() {
+    @Override
+    public Object get(ReceiverMethodInvocation invocation) {
+      return invocation.getDispatchResult();
+    }
+  };
+
+  /**
+   * Supplies the {@link EventContext}.
+   */
+  static final ArgumentBinder EVENT_CONTEXT = new ArgumentBinder() {
+    @Override
+    public Object get(ReceiverMethodInvocation invocation) {
+      return invocation.getStackInvocation().getContext();
+    }
+  };
+
+  /**
+   * Supplies the {@link ReceiverTarget}.
+   */
+  static final ArgumentBinder RECEIVER_TARGET = new ArgumentBinder() {
+    @Override
+    public Object get(ReceiverMethodInvocation invocation) {
+      return invocation.getStackInvocation().getReceiverTarget();
+    }
+  };
+
+  private static final Key<DispatchResult> dispatchResultKey = Key.get(DispatchResult.class);
+  private static final Key<EventContext> eventContextKey = Key.get(EventContext.class);
+  private static final Key<ReceiverTarget> receiverTargetKey = Key.get(ReceiverTarget.class);
+
+  /**
+   * Returns a specialized ArgumentBinder for {@code key}, or {@code null} if the argument must be
+   * obtained from the injector.
+   */
+  static ArgumentBinder forKey(Key<?> key) {
+    if (CurrentEvent.class.equals(key.getAnnotationType())) {
+      return CURRENT_EVENT;
+    }
+    if (dispatchResultKey.equals(key)) {
+      return DISPATCH_RESULT;
+    }
+    if (eventContextKey.equals(key)) {
+      return EVENT_CONTEXT;
+    }
+    if (receiverTargetKey.equals(key)) {
+      return RECEIVER_TARGET;
+    }
+    return null;
+  }
+
+  /**
+   * Returns an ArgumentBinder that delegates to {@code provider}.
+   */
+  static ArgumentBinder of(Provider<?> provider) {
+    return new ProviderBinder(provider);
+  }
+
+  ArgumentBinder() {}
+
+  /**
+   * Returns the argument value for the current invocation.
+   */
+  public abstract Object get(ReceiverMethodInvocation invocation);
+}
@@ -29,9 +29,16 @@ import com.getperka.sea.Event;
 import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.EventDecorator;
 import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.ext.SuspendedEvent;
 import com.getperka.sea.inject.CurrentEvent;
 import com.getperka.sea.inject.DecoratorScoped;
+import com.getperka.sea.inject.ReceiverScoped;
 
+/**
+ * The {@link EventDecorator.Context} implementation. Instances are normally injected in a
+ * {@link DecoratorScoped} context, however contexts for reusable decorators are populated directly
+ * via {@link #bind} to avoid entering the scope.
+ */
 @DecoratorScoped
 public class DecoratorContext implements EventDecorator.Context<Annotation, Event> {
   @Inject
@@ -48,13 +55,53 @@ public class DecoratorContext implements EventDecorator.Context<Annotation, Even
   Event originalEvent;
 
   private Annotation annotation;
+  /**
+   * The context of the decorator whose work is wrapped by this context's decorator.
+   */
+  private DecoratorContext inner;
+  private boolean innerCalled;
+  private long innerNanos;
+  /**
+   * Measures the time spent in the wrapped work, so that the time spent in each decorator can be
+   * computed without allocating a wrapper for each invocation.
+   */
+  private final Callable<Object> measuredWork = new Callable<Object>() {
+    @Override
+    public Object call() throws Exception {
+      long start = System.nanoTime();
+      try {
+        return work.call();
+      } finally {
+        long elapsed = System.nanoTime() - start;
+        innerCalled = true;
+        innerNanos += elapsed;
+        if (inner != null) {
+          inner.completeLayer(elapsed);
+        }
+      }
+    }
+  };
+  private ReceiverMethod.DecoratorTiming timing;
   private Callable<Object> work;
+  private long wrapNanos;
 
   /**
    * Requires injection.
    */
   protected DecoratorContext() {}
 
+  /**
+   * Supply the values that would otherwise be injected from the {@link ReceiverScoped} context.
+   */
+  public void bind(EventContext context, Event originalEvent, ReceiverTarget target,
+      ReceiverMethodInvocation invocation) {
+    this.context = context;
+    this.event = originalEvent;
+    this.originalEvent = originalEvent;
+    this.target = target;
+    this.invocation = invocation;
+  }
+
   /**
    * Store additional information in the DecoratorContext
    */
@@ -64,6 +111,38 @@ public class DecoratorContext implements EventDecorator.Context<Annotation, Even
     this.work = work;
   }
 
+  /**
+   * Drop all references held by the DecoratorContext so that a recycled instance does not retain
+   * any events.
+   */
+  public void clear() {
+    bind(null, null, null, null);
+    annotation = null;
+    inner = null;
+    timing = null;
+    work = null;
+  }
+
+  /**
+   * Record the time spent in the callable returned from this context's decorator.
+   * 
+   * @param elapsed the time spent in the callable, including the work that it wraps
+   */
+  public void completeLayer(long elapsed) {
+    if (timing != null) {
+      timing.record(wrapNanos + elapsed - innerNanos, !innerCalled);
+    }
+    // The callable may be invoked again, e.g. to retry
+    innerCalled = false;
+    innerNanos = 0;
+    wrapNanos = 0;
+  }
+
+  @Override
+  public void expire() {
+    invocation.expire();
+  }
+
   @Override
   public void fireLater(Event event) {
     invocation.getDeferredEvents().add(event);
@@ -89,6 +168,11 @@ public class DecoratorContext implements EventDecorator.Context<Annotation, Even
     return originalEvent;
   }
 
+  @Override
+  public int getRetryCount() {
+    return invocation.getStackInvocation().getRetryCount();
+  }
+
   @Override
   public Object getReceiverInstance() {
     return invocation.getReceiverInstance();
@@ -101,7 +185,41 @@ public class DecoratorContext implements EventDecorator.Context<Annotation, Even
 
   @Override
   public Callable<Object> getWork() {
-    return work;
+    // Only interpose the timing shim if the decorator is being measured
+    return work == null || timing == null ? work : measuredWork;
+  }
+
+  /**
+   * Prepare to measure the decorator.
+   * 
+   * @param inner the context of the decorator whose callable will be returned from
+   *          {@link #getWork()}, or {@code null} if the work is the receiver method
+   * @param timing accumulates the time spent in the decorator, or {@code null} if the decorator
+   *          is not being measured
+   */
+  public void measure(DecoratorContext inner, ReceiverMethod.DecoratorTiming timing) {
+    this.inner = inner;
+    this.timing = timing;
+    innerCalled = false;
+    innerNanos = 0;
+    wrapNanos = 0;
+  }
+
+  /**
+   * Record the time spent in {@link EventDecorator#wrap}.
+   */
+  public void setWrapNanos(long wrapNanos) {
+    this.wrapNanos = wrapNanos;
+  }
+
+  @Override
+  public void replaceEvent(Event event) {
+    invocation.replaceEvent(event);
+  }
+
+  @Override
+  public SuspendedEvent retry() {
+    return invocation.retry();
   }
 
   @Override
@@ -0,0 +1,97 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.inject.Singleton;
+
+import com.getperka.sea.ext.StatelessDecorator;
+
+/**
+ * Maintains a per-thread stack of {@link DecoratorContext} instances that are recycled for
+ * {@link StatelessDecorator stateless} decorators. The stack accommodates reentrant, synchronous
+ * dispatch by having each receiver invocation release only the contexts it has taken.
+ * <p>
+ * A typical use looks like:
+ * 
+ * <pre>
+ * int mark = pool.mark();
+ * try {
+ *   DecoratorContext ctx = pool.take();
+ *   // Use ctx
+ * } finally {
+ *   pool.release(mark);
+ * }
+ * </pre>
+ */
+@Singleton
+public class DecoratorContextPool {
+  private static class Stack {
+    DecoratorContext[] contexts = new DecoratorContext[8];
+    int size;
+  }
+
+  private final ThreadLocal<Stack> stacks = new ThreadLocal<Stack>() {
+    @Override
+    protected Stack initialValue() {
+      return new Stack();
+    }
+  };
+
+  protected DecoratorContextPool() {}
+
+  /**
+   * Returns a value to later pass to {@link #release(int)}.
+   */
+  public int mark() {
+    return stacks.get().size;
+  }
+
+  /**
+   * Return all contexts obtained since the call to {@link #mark()} that returned {@code mark}.
+   */
+  public void release(int mark) {
+    Stack stack = stacks.get();
+    for (int i = mark, j = stack.size; i < j; i++) {
+      stack.contexts[i].clear();
+    }
+    stack.size = mark;
+  }
+
+  /**
+   * Obtain an unused {@link DecoratorContext}, which will be allocated only if the pool has not
+   * previously reached the current depth.
+   */
+  public DecoratorContext take() {
+    Stack stack = stacks.get();
+    if (stack.size == stack.contexts.length) {
+      DecoratorContext[] grown = new DecoratorContext[stack.size * 2];
+      System.arraycopy(stack.contexts, 0, grown, 0, stack.size);
+      stack.contexts = grown;
+    }
+    DecoratorContext toReturn = stack.contexts[stack.size];
+    if (toReturn == null) {
+      toReturn = new DecoratorContext();
+      stack.contexts[stack.size] = toReturn;
+    }
+    stack.size++;
+    return toReturn;
+  }
+}
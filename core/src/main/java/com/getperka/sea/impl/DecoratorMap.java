@@ -23,6 +23,8 @@ package com.getperka.sea.impl;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -41,7 +43,10 @@ import javax.inject.Singleton;
 import com.getperka.sea.Event;
 import com.getperka.sea.ext.DecoratorOrder;
 import com.getperka.sea.ext.EventDecorator;
-import com.google.inject.Injector;
+import com.getperka.sea.ext.StatelessDecorator;
+import com.google.inject.Binding;
+import com.google.inject.Scopes;
+import com.google.inject.TypeLiteral;
 
 /**
  * Calculates the decorators that should be used when dispatching events.
@@ -50,16 +55,54 @@ import com.google.inject.Injector;
 public class DecoratorMap {
   /**
    * An immutable pair association a provider for an {@link EventDecorator} and an
-   * {@link Annotation} that can be used to configure it.
+   * {@link Annotation} that can be used to configure it. Decorators that may be reused across
+   * invocations are memoized by the DecoratorInfo once they have been created.
    */
   public static class DecoratorInfo {
+    /**
+     * The type arguments of a concrete {@link EventDecorator} implementation.
+     */
+    static class DecoratorTypes {
+      final Class<?> annotationType;
+      final Class<?> decoratorType;
+      final Class<? extends Event> eventType;
+
+      DecoratorTypes(Class<?> decoratorType) {
+        ParameterizedType type = (ParameterizedType) TypeLiteral.get(decoratorType)
+            .getSupertype(EventDecorator.class)
+            .getType();
+        Type[] typeArgs = type.getActualTypeArguments();
+
+        this.annotationType = TypeLiteral.get(typeArgs[0]).getRawType();
+        this.decoratorType = decoratorType;
+        this.eventType = TypeLiteral.get(typeArgs[1]).getRawType().asSubclass(Event.class);
+      }
+    }
+
     private final Annotation annotation;
     private final Provider<EventDecorator<Annotation, Event>> provider;
+    private volatile EventDecorator<Annotation, Event> shared;
+    private final boolean singleton;
+    private final boolean stateless;
+    private volatile DecoratorTypes types;
 
     public DecoratorInfo(Annotation annotation,
         Provider<EventDecorator<Annotation, Event>> provider) {
+      this(annotation, provider, false, false);
+    }
+
+    public DecoratorInfo(Annotation annotation,
+        Provider<EventDecorator<Annotation, Event>> provider, boolean singleton, boolean stateless) {
+      this(annotation, provider, singleton, stateless, null);
+    }
+
+    DecoratorInfo(Annotation annotation, Provider<EventDecorator<Annotation, Event>> provider,
+        boolean singleton, boolean stateless, DecoratorTypes types) {
       this.annotation = annotation;
       this.provider = provider;
+      this.singleton = singleton || stateless;
+      this.stateless = stateless;
+      this.types = types;
     }
 
     public Annotation getAnnotation() {
@@ -69,6 +112,50 @@ public class DecoratorMap {
     public Provider<EventDecorator<Annotation, Event>> getProvider() {
       return provider;
     }
+
+    /**
+     * Returns the memoized decorator instance, or {@code null} if the decorator must be obtained
+     * from {@link #getProvider()}.
+     */
+    public EventDecorator<Annotation, Event> getSharedInstance() {
+      return shared;
+    }
+
+    /**
+     * Returns {@code true} if a single instance of the decorator may be used for all invocations.
+     */
+    public boolean isSingleton() {
+      return singleton;
+    }
+
+    /**
+     * Returns {@code true} if the decorator type is annotated with {@link StatelessDecorator}.
+     */
+    public boolean isStateless() {
+      return stateless;
+    }
+
+    /**
+     * Returns the event type that the decorator expects, or {@code null} if the decorator cannot
+     * accept the annotation held by the DecoratorInfo.
+     */
+    Class<? extends Event> acceptedEventType(EventDecorator<Annotation, Event> decorator) {
+      DecoratorTypes t = types;
+      if (t == null || !t.decoratorType.equals(decorator.getClass())) {
+        t = new DecoratorTypes(decorator.getClass());
+        types = t;
+      }
+      return t.annotationType.isAssignableFrom(annotation.annotationType()) ? t.eventType : null;
+    }
+
+    /**
+     * Memoize a decorator instance if it is reusable.
+     */
+    void share(EventDecorator<Annotation, Event> decorator) {
+      if (singleton) {
+        shared = decorator;
+      }
+    }
   }
 
   /**
@@ -92,8 +179,14 @@ public class DecoratorMap {
 
   private BindingMap bindingMap;
   private final Map<Method, List<DecoratorInfo>> cache = new ConcurrentHashMap<Method, List<DecoratorInfo>>();
+  /**
+   * Memoizes the resolved type arguments of decorator types, since the {@link #cache} may be
+   * cleared many times.
+   */
+  private final Map<Class<?>, DecoratorInfo.DecoratorTypes> decoratorTypes =
+      new ConcurrentHashMap<Class<?>, DecoratorInfo.DecoratorTypes>();
   private final List<DecoratorInfo> globalDecorators = new CopyOnWriteArrayList<DecoratorInfo>();
-  private Injector injector;
+  private DispatchBindings dispatchBindings;
 
   protected DecoratorMap() {}
 
@@ -121,9 +214,9 @@ public class DecoratorMap {
   }
 
   @Inject
-  void inject(BindingMap bindingMap, Injector injector) {
+  void inject(BindingMap bindingMap, DispatchBindings dispatchBindings) {
     this.bindingMap = bindingMap;
-    this.injector = injector;
+    this.dispatchBindings = dispatchBindings;
   }
 
   private List<DecoratorInfo> compute(AnnotatedElement elt) {
@@ -147,11 +240,21 @@ public class DecoratorMap {
       }
 
       // Get a provider for the decorator
+      Binding<? extends EventDecorator<?, ?>> binding = dispatchBindings.getBinding(decoratorType);
       @SuppressWarnings("unchecked")
       Provider<EventDecorator<Annotation, Event>> provider =
-          (Provider<EventDecorator<Annotation, Event>>) injector.getProvider(decoratorType);
+          (Provider<EventDecorator<Annotation, Event>>) binding.getProvider();
+
+      boolean stateless = decoratorType.isAnnotationPresent(StatelessDecorator.class);
+      boolean singleton = stateless || Scopes.isSingleton(binding);
+
+      DecoratorInfo.DecoratorTypes types = decoratorTypes.get(decoratorType);
+      if (types == null) {
+        types = new DecoratorInfo.DecoratorTypes(decoratorType);
+        decoratorTypes.put(decoratorType, types);
+      }
 
-      toReturn.add(new DecoratorInfo(annotation, provider));
+      toReturn.add(new DecoratorInfo(annotation, provider, singleton, stateless, types));
     }
 
     return toReturn;
@@ -0,0 +1,87 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+/**
+ * Resolves the bindings of decorator and observer implementations. A type that is annotated with
+ * {@link Singleton} is bound in a child of the dispatch's injector, so that each
+ * dispatch created by an {@link com.getperka.sea.EventDispatchGroup} has its own instance. Binding
+ * it just-in-time would instead place it in the group's injector, sharing its state with every
+ * other dispatch in the group.
+ * <p>
+ * Types that are already bound, for instance by an application injector, use the existing binding.
+ */
+@Singleton
+public class DispatchBindings {
+  private final ConcurrentMap<Class<?>, Binding<?>> bindings =
+      new ConcurrentHashMap<Class<?>, Binding<?>>();
+  private Injector injector;
+
+  protected DispatchBindings() {}
+
+  @SuppressWarnings("unchecked")
+  public <T> Binding<T> getBinding(final Class<T> type) {
+    Binding<T> toReturn = (Binding<T>) bindings.get(type);
+    if (toReturn != null) {
+      return toReturn;
+    }
+    synchronized (this) {
+      toReturn = (Binding<T>) bindings.get(type);
+      if (toReturn != null) {
+        return toReturn;
+      }
+      toReturn = injector.getExistingBinding(Key.get(type));
+      if (toReturn == null && isSingleton(type)) {
+        toReturn = injector.createChildInjector(new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(type);
+          }
+        }).getBinding(type);
+      } else if (toReturn == null) {
+        toReturn = injector.getBinding(type);
+      }
+      bindings.put(type, toReturn);
+      return toReturn;
+    }
+  }
+
+  @Inject
+  void inject(Injector injector) {
+    this.injector = injector;
+  }
+
+  private boolean isSingleton(Class<?> type) {
+    return type.isAnnotationPresent(Singleton.class)
+      || type.isAnnotationPresent(com.google.inject.Singleton.class);
+  }
+}
@@ -21,8 +21,15 @@ package com.getperka.sea.impl;
  */
 
 import java.lang.reflect.AnnotatedElement;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -35,14 +42,25 @@ import com.getperka.sea.EventDispatch;
 import com.getperka.sea.Registration;
 import com.getperka.sea.ext.ConfigurationVisitor;
 import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchTracer;
 import com.getperka.sea.ext.DrainEvent;
 import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.ReceiverTarget;
 import com.getperka.sea.ext.SuspendedEvent;
 import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.inject.ReceiverScope;
+import com.getperka.sea.metrics.DispatchMetrics;
 import com.google.inject.Injector;
 
 @Singleton
 public class DispatchImpl implements EventDispatch, HasInjector {
+  /**
+   * Returned when there is nothing to schedule.
+   */
+  private static final Registration NO_OP = new Registration() {
+    @Override
+    public void cancel() {}
+  };
 
   @Inject
   private BindingMap bindingMap;
@@ -54,15 +72,27 @@ public class DispatchImpl implements EventDispatch, HasInjector {
   @Inject
   private DispatchMap dispatchMap;
   @Inject
+  private FireScheduler fireScheduler;
+  @Inject
   private Injector injector;
   @Inject
   private InvocationManager invocationManager;
   @Inject
+  private DispatchMetrics metrics;
+  @Inject
   private ObserverMap observers;
+  @Inject
+  private ReceiverScope receiverScope;
   @EventExecutor
   @Inject
   private ExecutorService service;
   private AtomicBoolean shutdown = new AtomicBoolean();
+  @Inject
+  private DispatchTracer tracer;
+  /**
+   * Makes the trace ids of originating events distinct from those of other dispatches.
+   */
+  private final long traceSalt = new Random().nextLong();
 
   protected DispatchImpl() {}
 
@@ -88,44 +118,70 @@ public class DispatchImpl implements EventDispatch, HasInjector {
   }
 
   @Override
-  public void fire(Event event, final Object userObject) {
-    if (shutdown.get() || event == null) {
+  public void fire(Event event, Object userObject) {
+    // An event fired by a receiver is caused by the event being received
+    EventContext cause = receiverScope.getCurrentContext();
+    if (cause == null) {
+      fire(event, userObject, 0, 0, 0, false);
       return;
     }
-    EventContext context = new EventContext() {
-      final long sequenceNumber = count.incrementAndGet();
+    recordFired(event);
+    fire(event, userObject, cause.getTraceId(), cause.getSequenceNumber(), cause.getDeadline(),
+        false);
+  }
 
-      @Override
-      public long getSequenceNumber() {
-        return sequenceNumber;
-      }
+  @Override
+  public void fire(Event event, Object userObject, long traceId, long parentSequenceNumber) {
+    fire(event, userObject, traceId, parentSequenceNumber, 0, false);
+  }
 
+  @Override
+  public Registration fireAfter(final Event event, long delay, TimeUnit unit) {
+    if (event == null) {
+      return NO_OP;
+    }
+    recordFired(event);
+    return schedule(new Provider<Event>() {
       @Override
-      public Object getUserObject() {
-        return userObject;
+      public Event get() {
+        return event;
       }
+    }, unit.toNanos(delay), 0);
+  }
 
-      @Override
-      public SuspendedEvent suspend() {
-        return currentInvocation.get().suspend();
-      }
-    };
-    if (!observers.shouldFire(event, context)) {
-      DispatchCompleteEvent evt = new DispatchCompleteEvent();
-      evt.setContext(context);
-      evt.setSource(event);
-      fire(evt);
+  @Override
+  public Registration fireAt(Event event, Date when) {
+    return fireAfter(event, when.getTime() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Registration fireAtFixedRate(Provider<? extends Event> events, long initialDelay,
+      long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("The period must be positive");
+    }
+    return schedule(events, unit.toNanos(initialDelay), unit.toNanos(period));
+  }
+
+  @Override
+  public void fireWithDeadline(Event event, long timeout, TimeUnit unit) {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    // Zero means that there is no deadline
+    if (deadline == 0) {
+      deadline = 1;
+    }
+    EventContext cause = receiverScope.getCurrentContext();
+    if (cause == null) {
+      fire(event, null, 0, 0, deadline, false);
       return;
     }
-    List<ReceiverStackInvocation> allInvocation = invocationManager.getInvocations(event, context);
-    for (ReceiverStackInvocation invocation : allInvocation) {
-      if (invocation.isSynchronous()) {
-        // Invocation.call() shouldn't generally throw exceptions unless things are very broken
-        invocation.call();
-      } else {
-        service.submit(invocation);
-      }
+    recordFired(event);
+    // A caused event cannot outlive its cause
+    long inherited = cause.getDeadline();
+    if (inherited != 0 && inherited - deadline < 0) {
+      deadline = inherited;
     }
+    fire(event, null, cause.getTraceId(), cause.getSequenceNumber(), deadline, false);
   }
 
   @Override
@@ -133,6 +189,11 @@ public class DispatchImpl implements EventDispatch, HasInjector {
     return injector;
   }
 
+  @Override
+  public DispatchMetrics getMetrics() {
+    return metrics;
+  }
+
   @Override
   public boolean isDraining() {
     return invocationManager.isDraining();
@@ -160,17 +221,149 @@ public class DispatchImpl implements EventDispatch, HasInjector {
 
   @Override
   public void setDraining(boolean drain) {
-    if (drain) {
-      fire(new DrainEvent());
+    if (!drain) {
+      invocationManager.setDraining(false);
+      return;
+    }
+    fire(new DrainEvent());
+    Object token = tracer.beginDrain();
+    try {
+      invocationManager.setDraining(true);
+    } finally {
+      tracer.endDrain(token);
     }
-    invocationManager.setDraining(drain);
   }
 
   @Override
   public void shutdown() {
     if (shutdown.compareAndSet(false, true)) {
+      fireScheduler.shutdown();
       setDraining(true);
       observers.shutdown();
     }
   }
+
+  @Override
+  public void warmUp() {
+    warmUp(dispatchMap.getEventTypes());
+  }
+
+  @Override
+  public void warmUp(Collection<Class<? extends Event>> eventTypes) {
+    Set<Class<? extends Event>> toWarm = new LinkedHashSet<Class<? extends Event>>(eventTypes);
+    // Every dispatch is followed by a DispatchCompleteEvent
+    toWarm.add(DispatchCompleteEvent.class);
+
+    Set<ReceiverMethod> warmed = new HashSet<ReceiverMethod>();
+    for (Class<? extends Event> eventType : toWarm) {
+      for (ReceiverTarget target : dispatchMap.getTargets(eventType)) {
+        if (target instanceof ReceiverTargetImpl) {
+          ReceiverMethod method = ((ReceiverTargetImpl) target).getReceiverMethod();
+          if (warmed.add(method)) {
+            method.warmUp();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Dispatch an event.
+   * 
+   * @param deadline the value to return from {@link EventContext#getDeadline()}
+   * @param reserved {@code true} if the event has been counted by
+   *          {@link InvocationManager#reserve()}
+   */
+  void fire(Event event, final Object userObject, long traceId,
+      final long parentSequenceNumber, final long deadline, boolean reserved) {
+    if (event == null || shutdown.get() && !reserved) {
+      return;
+    }
+    final long sequenceNumber = count.incrementAndGet();
+    final long contextTraceId = traceId == 0 ? traceSalt + sequenceNumber : traceId;
+    final long fireTime = System.nanoTime();
+    EventContext context = new EventContext() {
+      @Override
+      public long getDeadline() {
+        return deadline;
+      }
+
+      @Override
+      public long getFireTime() {
+        return fireTime;
+      }
+
+      @Override
+      public long getParentSequenceNumber() {
+        return parentSequenceNumber;
+      }
+
+      @Override
+      public long getSequenceNumber() {
+        return sequenceNumber;
+      }
+
+      @Override
+      public long getTraceId() {
+        return contextTraceId;
+      }
+
+      @Override
+      public Object getUserObject() {
+        return userObject;
+      }
+
+      @Override
+      public SuspendedEvent suspend() {
+        return currentInvocation.get().suspend();
+      }
+    };
+    Object token = tracer.beginFire(event, context);
+    boolean suppressed = false;
+    try {
+      if (!observers.shouldFire(event, context)) {
+        suppressed = true;
+        DispatchCompleteEvent evt = new DispatchCompleteEvent();
+        evt.setContext(context);
+        evt.setSource(event);
+        fire(evt, null, contextTraceId, sequenceNumber);
+        return;
+      }
+      List<ReceiverStackInvocation> allInvocation =
+          invocationManager.getInvocations(event, context, reserved);
+      for (ReceiverStackInvocation invocation : allInvocation) {
+        if (invocation.isSynchronous()) {
+          // Invocation.call() shouldn't generally throw exceptions unless things are very broken
+          invocation.call();
+        } else {
+          // Trace before submitting, since the invocation may start before submit() returns
+          tracer.invocationQueued(event, context, invocation.getReceiverTarget());
+          service.submit(invocation);
+        }
+      }
+    } finally {
+      tracer.endFire(token, suppressed);
+    }
+  }
+
+  /**
+   * Attribute an event fired from within a receiver to the receiver method.
+   */
+  private void recordFired(Event event) {
+    ReceiverTarget target = receiverScope.getCurrentTarget();
+    if (event != null && target instanceof ReceiverTargetImpl) {
+      ((ReceiverTargetImpl) target).getReceiverMethod().recordFired(event.getClass());
+    }
+  }
+
+  private Registration schedule(Provider<? extends Event> events, long delayNanos,
+      long periodNanos) {
+    // Events scheduled by a receiver are caused by the event being received
+    EventContext cause = receiverScope.getCurrentContext();
+    if (cause == null) {
+      return fireScheduler.schedule(events, delayNanos, periodNanos, 0, 0);
+    }
+    return fireScheduler.schedule(events, delayNanos, periodNanos, cause.getTraceId(),
+        cause.getSequenceNumber());
+  }
 }
@@ -23,6 +23,7 @@ package com.getperka.sea.impl;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -40,11 +41,15 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.slf4j.Logger;
+
 import com.getperka.sea.Event;
 import com.getperka.sea.Registration;
 import com.getperka.sea.ext.ConfigurationProvider;
 import com.getperka.sea.ext.ConfigurationVisitor;
 import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.inject.EventLogger;
+import com.google.inject.Injector;
 import com.google.inject.util.Providers;
 
 /**
@@ -68,15 +73,21 @@ public class DispatchMap implements ConfigurationProvider {
     }
   }
 
-  @Inject
-  Provider<RegistrationImpl> registrations;
-
   /**
    * Memoizes return values in {@link #getTargets(Class)}.
    */
   private final Map<Class<? extends Event>, List<ReceiverTarget>> cache =
       new ConcurrentHashMap<Class<? extends Event>, List<ReceiverTarget>>();
   private final Lock cleanupLock = new ReentrantLock();
+  private Injector injector;
+  private Logger logger;
+  private ReceiverMap receiverMap;
+  /**
+   * Memoizes the per-dispatch {@link ReceiverMethod} instances for each receiver type.
+   */
+  private final Map<Class<?>, List<ReceiverMethod>> receiverMethodCache =
+      new ConcurrentHashMap<Class<?>, List<ReceiverMethod>>();
+  private Provider<ReceiverMethod> receiverMethods;
   /**
    * The main registration datastructure.
    */
@@ -97,6 +108,30 @@ public class DispatchMap implements ConfigurationProvider {
     cache.clear();
   }
 
+  /**
+   * Returns the event types accepted by all registered receiver methods.
+   */
+  public Set<Class<? extends Event>> getEventTypes() {
+    Set<Class<? extends Event>> toReturn = new HashSet<Class<? extends Event>>();
+    for (RegistrationImpl registration : registered) {
+      for (ReceiverTargetImpl target : registration.getReceiverTargets()) {
+        toReturn.add(target.getEventType());
+      }
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns all currently-registered receiver targets.
+   */
+  public List<ReceiverTargetImpl> getReceiverTargets() {
+    List<ReceiverTargetImpl> toReturn = new ArrayList<ReceiverTargetImpl>();
+    for (RegistrationImpl registration : registered) {
+      toReturn.addAll(registration.getReceiverTargets());
+    }
+    return toReturn;
+  }
+
   /**
    * Returns an immutable list of the {@link ReceiverTarget} instances that should be used when
    * routing a specific type of event.
@@ -127,8 +162,22 @@ public class DispatchMap implements ConfigurationProvider {
   }
 
   public <T> Registration register(Class<T> receiver, Provider<? extends T> provider) {
-    RegistrationImpl registration = registrations.get();
-    registration.set(receiver, provider);
+    List<ReceiverMethod> methods = getReceiverMethods(receiver);
+    Provider<?> instanceProvider = provider;
+    if (instanceProvider == null) {
+      for (ReceiverMethod method : methods) {
+        if (!method.isStatic()) {
+          // Receivers created by the injector may opt into reuse
+          instanceProvider = injector.getProvider(receiver);
+          ReceiverPool pool = ReceiverPool.create(receiver, instanceProvider);
+          if (pool != null) {
+            instanceProvider = pool;
+          }
+          break;
+        }
+      }
+    }
+    RegistrationImpl registration = new RegistrationImpl(this, methods, instanceProvider);
     registered.add(registration);
     cache.clear();
     return registration;
@@ -159,6 +208,15 @@ public class DispatchMap implements ConfigurationProvider {
     return reg;
   }
 
+  @Inject
+  void inject(Injector injector, @EventLogger Logger logger, ReceiverMap receiverMap,
+      Provider<ReceiverMethod> receiverMethods) {
+    this.injector = injector;
+    this.logger = logger;
+    this.receiverMap = receiverMap;
+    this.receiverMethods = receiverMethods;
+  }
+
   /**
    * Computes the list of {@link ReceiverTarget} instances that should receive the given event type.
    * This method looks for receivers whose event type is assignable from the given event.
@@ -175,4 +233,38 @@ public class DispatchMap implements ConfigurationProvider {
     return toReturn.isEmpty() ? Collections.<ReceiverTarget> emptyList() :
         Collections.unmodifiableList(new ArrayList<ReceiverTarget>(toReturn));
   }
+
+  /**
+   * Returns the receiver methods of the given type, bound for use by this dispatch.
+   * 
+   * @throws com.getperka.sea.BadReceiverException if a receiver method cannot be bound
+   */
+  private List<ReceiverMethod> getReceiverMethods(Class<?> receiver) {
+    List<ReceiverMethod> toReturn = receiverMethodCache.get(receiver);
+    if (toReturn != null) {
+      return toReturn;
+    }
+
+    toReturn = new ArrayList<ReceiverMethod>();
+    for (ReceiverMap.Declaration declaration : receiverMap.getDeclarations(receiver)) {
+      Method m = declaration.getMethod();
+      ReceiverMethod receiverMethod = receiverMethods.get();
+      receiverMethod.configure(m, declaration.isSynchronous(), declaration.getInvoker());
+
+      if (receiverMethod.getEventType() == null) {
+        logger.warn("Ignoring {}.{} because it does not receive an Event type",
+            receiver.getName(), m.getName());
+        continue;
+      }
+
+      toReturn.add(receiverMethod);
+      logger.debug("{}.{} will receive {}",
+          new Object[] { receiver.getName(), m.getName(),
+              receiverMethod.getEventType().getName() });
+    }
+
+    toReturn = Collections.unmodifiableList(toReturn);
+    receiverMethodCache.put(receiver, toReturn);
+    return toReturn;
+  }
 }
@@ -55,6 +55,11 @@ public class DispatchResultImpl implements DispatchResult {
     return event;
   }
 
+  @Override
+  public int getRetryCount() {
+    return invocation.getStackInvocation().getRetryCount();
+  }
+
   @Override
   public Object getReturnValue() {
     return invocation.getWasReturned();
@@ -70,6 +75,11 @@ public class DispatchResultImpl implements DispatchResult {
     return invocation.getWasThrown();
   }
 
+  @Override
+  public boolean wasExpired() {
+    return invocation.getWasExpired();
+  }
+
   @Override
   public boolean wasReceived() {
     return invocation.getWasDispatched();
@@ -0,0 +1,82 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.ReceiverTarget;
+
+/**
+ * The result of an invocation that was skipped because the event's
+ * {@link EventContext#getDeadline() deadline} had passed before it began.
+ */
+class ExpiredDispatchResult implements DispatchResult {
+  private final Event event;
+  private final int retryCount;
+  private final ReceiverTarget target;
+
+  ExpiredDispatchResult(Event event, ReceiverTarget target, int retryCount) {
+    this.event = event;
+    this.retryCount = retryCount;
+    this.target = target;
+  }
+
+  @Override
+  public Event getEvent() {
+    return event;
+  }
+
+  @Override
+  public int getRetryCount() {
+    return retryCount;
+  }
+
+  @Override
+  public Object getReturnValue() {
+    return null;
+  }
+
+  @Override
+  public ReceiverTarget getTarget() {
+    return target;
+  }
+
+  @Override
+  public Throwable getThrown() {
+    return null;
+  }
+
+  @Override
+  public boolean wasExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean wasReceived() {
+    return false;
+  }
+
+  @Override
+  public boolean wasSuspended() {
+    return false;
+  }
+}
@@ -0,0 +1,206 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.Registration;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.inject.EventLogger;
+import com.getperka.sea.util.TimingWheel;
+
+/**
+ * Fires events after a delay or periodically. Delays are measured by the
+ * {@link TimingWheel#shared() shared timing wheel}, and due events are dispatched from the
+ * dispatch's executor.
+ * <p>
+ * An event that comes due is counted as pending by the {@link InvocationManager}, so that draining
+ * the dispatch waits for it to be delivered. Events that come due while the dispatch is draining
+ * are discarded, although periodic events will continue to be fired once draining has ended.
+ */
+@Singleton
+public class FireScheduler {
+  /**
+   * A pending delayed or periodic fire.
+   */
+  private class ScheduledFire implements Registration, Runnable {
+    private volatile boolean canceled;
+    private final Provider<? extends Event> events;
+    /**
+     * The time at which the event should next be fired.
+     */
+    private long next;
+    private final long parentSequenceNumber;
+    private final long periodNanos;
+    private final TimingWheel.Timeout timeout = new TimingWheel.Timeout() {
+      @Override
+      protected void expire() {
+        due();
+      }
+    };
+    private final long traceId;
+
+    ScheduledFire(Provider<? extends Event> events, long delayNanos, long periodNanos,
+        long traceId, long parentSequenceNumber) {
+      this.events = events;
+      this.next = System.nanoTime() + delayNanos;
+      this.parentSequenceNumber = parentSequenceNumber;
+      this.periodNanos = periodNanos;
+      this.traceId = traceId;
+    }
+
+    @Override
+    public void cancel() {
+      canceled = true;
+      if (timeout.cancel()) {
+        remove(this);
+      }
+    }
+
+    /**
+     * Fire the event from the dispatch's executor.
+     */
+    @Override
+    public void run() {
+      try {
+        if (canceled) {
+          return;
+        }
+        Event event = events.get();
+        if (event != null) {
+          dispatch.fire(event, null, traceId, parentSequenceNumber, 0, true);
+        }
+      } catch (RuntimeException e) {
+        logger.error("Unable to fire a scheduled event", e);
+      } finally {
+        invocationManager.release();
+        reschedule();
+      }
+    }
+
+    void schedule() {
+      TimingWheel.shared().schedule(timeout, next - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Called from the wheel's thread.
+     */
+    private void due() {
+      if (canceled || !invocationManager.reserve()) {
+        reschedule();
+        return;
+      }
+      try {
+        service.execute(this);
+      } catch (RejectedExecutionException e) {
+        invocationManager.release();
+        logger.warn("Unable to fire a scheduled event", e);
+        reschedule();
+      }
+    }
+
+    /**
+     * Schedule the next occurrence of a periodic event, skipping any that were missed, or discard
+     * the fire.
+     */
+    private void reschedule() {
+      if (canceled || periodNanos <= 0) {
+        remove(this);
+        return;
+      }
+      long now = System.nanoTime();
+      next += periodNanos;
+      if (next - now < 0) {
+        next += ((now - next) / periodNanos + 1) * periodNanos;
+      }
+      schedule();
+    }
+  }
+
+  @Inject
+  private DispatchImpl dispatch;
+  @Inject
+  private InvocationManager invocationManager;
+  @EventLogger
+  @Inject
+  private Logger logger;
+  private final Set<ScheduledFire> scheduled = Collections
+      .newSetFromMap(new ConcurrentHashMap<ScheduledFire, Boolean>());
+  @EventExecutor
+  @Inject
+  private ExecutorService service;
+  private volatile boolean shutdown;
+
+  protected FireScheduler() {}
+
+  /**
+   * Fire events after a delay.
+   * 
+   * @param events supplies the event to fire each time the delay or period elapses. {@code null}
+   *          values will be ignored
+   * @param delayNanos the delay before the first event is fired
+   * @param periodNanos the interval between subsequent events, or {@code 0} to fire only once
+   * @param traceId the trace id of the events, or {@code 0} to begin a new trace for each
+   * @param parentSequenceNumber the sequence number of the event that caused the fire
+   */
+  public Registration schedule(Provider<? extends Event> events, long delayNanos,
+      long periodNanos, long traceId, long parentSequenceNumber) {
+    final ScheduledFire fire = new ScheduledFire(events, delayNanos, periodNanos, traceId,
+        parentSequenceNumber);
+    scheduled.add(fire);
+    invocationManager.scheduledEventAdded();
+    if (shutdown) {
+      fire.canceled = true;
+      remove(fire);
+      return fire;
+    }
+    fire.schedule();
+    return fire;
+  }
+
+  /**
+   * Cancel all scheduled events and prevent new events from being scheduled.
+   */
+  public void shutdown() {
+    shutdown = true;
+    for (ScheduledFire fire : scheduled) {
+      fire.cancel();
+    }
+  }
+
+  private void remove(ScheduledFire fire) {
+    if (scheduled.remove(fire)) {
+      invocationManager.scheduledEventRemoved();
+    }
+  }
+}
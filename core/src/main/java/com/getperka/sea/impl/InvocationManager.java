@@ -63,10 +63,22 @@ public class InvocationManager {
   private final Condition pendingLockCondition = pendingLock.newCondition();
   @Inject
   private ReceiverScope receiverScope;
+  private final AtomicInteger scheduledEvents = new AtomicInteger();
 
   protected InvocationManager() {}
 
   public List<ReceiverStackInvocation> getInvocations(Event event, EventContext context) {
+    return getInvocations(event, context, false);
+  }
+
+  /**
+   * Returns the invocations that will deliver the event.
+   * 
+   * @param reserved {@code true} if the event has been counted by {@link #reserve()}, in which case
+   *          it will be delivered even if draining has since begun
+   */
+  public List<ReceiverStackInvocation> getInvocations(Event event, EventContext context,
+      boolean reserved) {
 
     // Get the list of receiver methods to invoke
     List<ReceiverTarget> targets = map.getTargets(event.getClass());
@@ -74,7 +86,7 @@ public class InvocationManager {
     // Update bookkeeping information, possibly returning early if invocations should be drained
     pendingLock.lock();
     try {
-      if (isDraining.get()) {
+      if (isDraining.get() && !reserved) {
         return Collections.emptyList();
       }
       pendingInvocations.addAndGet(targets.size());
@@ -92,16 +104,22 @@ public class InvocationManager {
       DispatchCompleteEvent complete = new DispatchCompleteEvent();
       complete.setContext(context);
       complete.setSource(event);
-      dispatch.fire(complete);
+      if (context == null) {
+        dispatch.fire(complete);
+      } else {
+        dispatch.fire(complete, null, context.getTraceId(), context.getSequenceNumber());
+      }
       return toReturn;
     }
 
     ReceiverStackInvocation.State state = new ReceiverStackInvocation.State(targets.size());
+    long fired = System.nanoTime();
 
     for (ReceiverTarget target : targets) {
       ReceiverStackInvocation invocation = invocations.get();
       invocation.setContext(context);
       invocation.setEvent(event);
+      invocation.setFired(fired);
       invocation.setReceiverTarget(target);
       invocation.setState(state);
       toReturn.add(invocation);
@@ -114,6 +132,15 @@ public class InvocationManager {
     return pendingInvocations.get();
   }
 
+  /**
+   * Returns the number of events that have been scheduled with
+   * {@link EventDispatch#fireAfter(Event, long, java.util.concurrent.TimeUnit)} or a related method
+   * and have not yet been fired or canceled. Periodic events are counted until they are canceled.
+   */
+  public int getScheduledCount() {
+    return scheduledEvents.get();
+  }
+
   public boolean isDraining() {
     return isDraining.get();
   }
@@ -139,6 +166,13 @@ public class InvocationManager {
   }
 
   void markComplete(ReceiverStackInvocation invocation) {
+    release();
+  }
+
+  /**
+   * Undoes {@link #reserve()}.
+   */
+  void release() {
     pendingLock.lock();
     try {
       if (pendingInvocations.decrementAndGet() < 0) {
@@ -151,4 +185,32 @@ public class InvocationManager {
       pendingLock.unlock();
     }
   }
+
+  /**
+   * Count an event that is due to be fired, so that draining will wait for it to be dispatched. The
+   * caller must later pass {@code true} for {@code reserved} when obtaining the event's
+   * invocations, and then call {@link #release()}.
+   * 
+   * @return {@code false} if the dispatch is draining, in which case the event should be discarded
+   */
+  boolean reserve() {
+    pendingLock.lock();
+    try {
+      if (isDraining.get()) {
+        return false;
+      }
+      pendingInvocations.incrementAndGet();
+      return true;
+    } finally {
+      pendingLock.unlock();
+    }
+  }
+
+  void scheduledEventAdded() {
+    scheduledEvents.incrementAndGet();
+  }
+
+  void scheduledEventRemoved() {
+    scheduledEvents.decrementAndGet();
+  }
 }
@@ -39,9 +39,9 @@ import com.getperka.sea.Event;
 import com.getperka.sea.EventDispatch;
 import com.getperka.sea.ext.ConfigurationProvider;
 import com.getperka.sea.ext.ConfigurationVisitor;
+import com.getperka.sea.ext.DispatchTracer;
 import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.EventObserver;
-import com.google.inject.Injector;
 import com.google.inject.TypeLiteral;
 
 /**
@@ -82,13 +82,14 @@ public class ObserverMap implements ConfigurationProvider {
   }
 
   private BindingMap bindingMap;
-  private Injector injector;
+  private DispatchBindings dispatchBindings;
   /**
    * The ordered list of active observers. Uses a {@link CopyOnWriteArrayList} to avoid
    * {@link ConcurrentModificationException} since new observers are rarely registered.
    */
   private final List<ObserverRegistration> registrations =
       new CopyOnWriteArrayList<ObserverMap.ObserverRegistration>();
+  private DispatchTracer tracer;
 
   protected ObserverMap() {}
 
@@ -119,7 +120,8 @@ public class ObserverMap implements ConfigurationProvider {
 
       @SuppressWarnings("unchecked")
       Provider<EventObserver<Annotation, Event>> provider =
-          (Provider<EventObserver<Annotation, Event>>) injector.getProvider(observerType);
+          (Provider<EventObserver<Annotation, Event>>) dispatchBindings.getBinding(observerType)
+              .getProvider();
 
       EventObserver<Annotation, Event> observer = provider.get();
       observer.initialize(annotation);
@@ -169,7 +171,12 @@ public class ObserverMap implements ConfigurationProvider {
       };
 
       // Allow all filters to fire
-      filter.observeEvent(ctx);
+      Object token = tracer.beginObserver(event, context, filter);
+      try {
+        filter.observeEvent(ctx);
+      } finally {
+        tracer.endObserver(token, !shouldFire.get());
+      }
     }
     return shouldFire.get();
   }
@@ -193,8 +200,9 @@ public class ObserverMap implements ConfigurationProvider {
   }
 
   @Inject
-  void inject(BindingMap bindingMap, Injector injector) {
+  void inject(BindingMap bindingMap, DispatchBindings dispatchBindings, DispatchTracer tracer) {
     this.bindingMap = bindingMap;
-    this.injector = injector;
+    this.dispatchBindings = dispatchBindings;
+    this.tracer = tracer;
   }
 }
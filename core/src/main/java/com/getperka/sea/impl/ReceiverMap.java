@@ -0,0 +1,160 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.ReceiverDescriptor;
+import com.getperka.sea.inject.EventLogger;
+
+/**
+ * Memoizes the {@code @Receiver} methods declared by receiver classes. The class hierarchy is
+ * examined only the first time a type is registered, and not at all if a generated
+ * {@link ReceiverDescriptor} is available for the type. The ReceiverMap holds no per-dispatch state,
+ * so a single instance is shared by all dispatches in an {@link com.getperka.sea.EventDispatchGroup}.
+ */
+@Singleton
+public class ReceiverMap {
+  /**
+   * An immutable description of a receiver method.
+   */
+  public static class Declaration {
+    private final ReceiverDescriptor.Entry invoker;
+    private final Method method;
+    private final boolean synchronous;
+
+    Declaration(Method method, boolean synchronous, ReceiverDescriptor.Entry invoker) {
+      this.invoker = invoker;
+      this.method = method;
+      this.synchronous = synchronous;
+    }
+
+    /**
+     * Returns the generated invoker for the method, or {@code null} if there is none.
+     */
+    public ReceiverDescriptor.Entry getInvoker() {
+      return invoker;
+    }
+
+    public Method getMethod() {
+      return method;
+    }
+
+    public boolean isSynchronous() {
+      return synchronous;
+    }
+  }
+
+  private final Map<Class<?>, List<Declaration>> cache =
+      new ConcurrentHashMap<Class<?>, List<Declaration>>();
+  private Logger logger;
+
+  protected ReceiverMap() {}
+
+  /**
+   * Returns the {@code @Receiver} methods declared by the given type and its supertypes.
+   */
+  public List<Declaration> getDeclarations(Class<?> receiver) {
+    List<Declaration> toReturn = cache.get(receiver);
+    if (toReturn == null) {
+      toReturn = Collections.unmodifiableList(compute(receiver));
+      cache.put(receiver, toReturn);
+    }
+    return toReturn;
+  }
+
+  @Inject
+  void inject(@EventLogger Logger logger) {
+    this.logger = logger;
+  }
+
+  private List<Declaration> compute(Class<?> receiver) {
+    ReceiverDescriptor descriptor = findDescriptor(receiver);
+    if (descriptor != null) {
+      try {
+        return compute(receiver, descriptor);
+      } catch (NoSuchMethodException e) {
+        logger.warn("Ignoring out-of-date " + ReceiverDescriptor.class.getSimpleName() + " for "
+          + receiver.getName(), e);
+      }
+    }
+
+    List<Declaration> toReturn = new ArrayList<Declaration>();
+
+    Class<?> lookAt = receiver;
+    while (lookAt != null) {
+      for (Method m : lookAt.getDeclaredMethods()) {
+        Receiver annotation = m.getAnnotation(Receiver.class);
+        // Ignore anything not explicitly annotated to receive events
+        if (annotation == null) {
+          continue;
+        }
+        toReturn.add(new Declaration(m, annotation.synchronous(), null));
+      }
+      lookAt = lookAt.getSuperclass();
+    }
+
+    return toReturn;
+  }
+
+  private List<Declaration> compute(Class<?> receiver, ReceiverDescriptor descriptor)
+      throws NoSuchMethodException {
+    List<Declaration> toReturn = new ArrayList<Declaration>();
+    for (ReceiverDescriptor.Entry entry : descriptor.getEntries()) {
+      toReturn.add(new Declaration(entry.getMethod(), entry.isSynchronous(), entry));
+    }
+    logger.debug("{} uses a generated descriptor", receiver.getName());
+    return toReturn;
+  }
+
+  /**
+   * Load the generated descriptor for a receiver type, if there is one.
+   */
+  private ReceiverDescriptor findDescriptor(Class<?> receiver) {
+    ClassLoader loader = receiver.getClassLoader();
+    if (loader == null) {
+      return null;
+    }
+    Class<?> clazz;
+    try {
+      clazz = Class.forName(receiver.getName() + ReceiverDescriptor.SUFFIX, true, loader);
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+    try {
+      return clazz.asSubclass(ReceiverDescriptor.class).newInstance();
+    } catch (Exception e) {
+      logger.warn("Could not instantiate " + clazz.getName(), e);
+      return null;
+    }
+  }
+}
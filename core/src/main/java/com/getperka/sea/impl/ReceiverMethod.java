@@ -0,0 +1,551 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Qualifier;
+
+import org.slf4j.Logger;
+
+import com.getperka.sea.BadReceiverException;
+import com.getperka.sea.BaseCompositeEvent;
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.ext.ConfigurationProvider;
+import com.getperka.sea.ext.ConfigurationVisitor;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.DispatchTracer;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.ReceiverDescriptor;
+import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.impl.DecoratorMap.DecoratorInfo;
+import com.getperka.sea.inject.CurrentEvent;
+import com.getperka.sea.inject.DecoratorScope;
+import com.getperka.sea.inject.EventLogger;
+import com.google.inject.BindingAnnotation;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+/**
+ * The per-class metadata for a single {@code @Receiver} method. Argument binders and
+ * {@link EventDecorator} configuration are computed once and shared by every
+ * {@link ReceiverTargetImpl} that dispatches to the method, regardless of how many times the
+ * declaring class is registered.
+ *
+ * @see ReceiverMap
+ */
+public class ReceiverMethod implements ConfigurationProvider {
+  /**
+   * Accumulates the time spent in one decorator of the receiver method.
+   */
+  public static class DecoratorTiming {
+    private final Annotation annotation;
+    private final AtomicLong exclusiveNanos = new AtomicLong();
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicLong shortCircuits = new AtomicLong();
+
+    DecoratorTiming(Annotation annotation) {
+      this.annotation = annotation;
+    }
+
+    /**
+     * Record one invocation of the decorator.
+     * 
+     * @param nanos the time spent in the decorator, excluding the work that it wraps
+     * @param shortCircuited {@code true} if the decorator did not invoke the work that it wraps
+     */
+    public void record(long nanos, boolean shortCircuited) {
+      invocations.incrementAndGet();
+      exclusiveNanos.addAndGet(nanos);
+      if (shortCircuited) {
+        shortCircuits.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Pairs a list of decorators with their timings, so that both can be replaced atomically.
+   */
+  private static class Timings {
+    final List<DecoratorInfo> decorators;
+    final DecoratorTiming[] timings;
+
+    Timings(List<DecoratorInfo> decorators, DecoratorTiming[] timings) {
+      this.decorators = decorators;
+      this.timings = timings;
+    }
+  }
+
+  private final AtomicLong bodyInvocations = new AtomicLong();
+  private final AtomicLong bodyNanos = new AtomicLong();
+  /**
+   * The time at which the counters were created.
+   */
+  private final long created = System.nanoTime();
+  /**
+   * Recycles contexts for stateless decorators.
+   */
+  @Inject
+  private DecoratorContextPool contextPool;
+  /**
+   * Vends instances of {@link EventDecorator.Context}.
+   */
+  @Inject
+  private Provider<DecoratorContext> decoratorContexts;
+  /**
+   * Holds information about annotation bindings.
+   */
+  @Inject
+  private DecoratorMap decoratorMap;
+  /**
+   * Scope data for constructing {@link EventDecorator} instances.
+   */
+  @Inject
+  private DecoratorScope decoratorScope;
+  @Inject
+  private EventDispatch dispatch;
+  /**
+   * The type of event that the ReceiverTarget expects to receive.
+   */
+  private Class<? extends Event> eventType;
+  /**
+   * Counts the events fired while the method is being dispatched, by type.
+   */
+  private final ConcurrentMap<Class<? extends Event>, AtomicLong> fired =
+      new ConcurrentHashMap<Class<? extends Event>, AtomicLong>();
+  /**
+   * Generated invoker for the method, or {@code null} to use reflection.
+   */
+  private ReceiverDescriptor.Entry invoker;
+  /**
+   * Used to retrieve references to providers.
+   */
+  @Inject
+  private Injector injector;
+  /**
+   * Mainly reports errors from {@link ReceiverMethodInvocation}.
+   */
+  @EventLogger
+  @Inject
+  private Logger logger;
+  /**
+   * Set via {@link #configure}.
+   */
+  private Method method;
+  /**
+   * Contains binders for each argument of the method, including the current event.
+   */
+  private ArgumentBinder[] methodArgumentBinders;
+  @Inject
+  private Provider<DispatchResult> results;
+  /**
+   * Indicates that the target should be dispatched immediately when firing an event.
+   */
+  private boolean synchronous;
+  private volatile Timings timings = new Timings(null, new DecoratorTiming[0]);
+  @Inject
+  private DispatchTracer tracer;
+  @Inject
+  private Provider<ReceiverMethodInvocation> works;
+
+  protected ReceiverMethod() {}
+
+  @Override
+  public void accept(ConfigurationVisitor visitor) {
+    List<Annotation> list = new ArrayList<Annotation>();
+    for (DecoratorInfo info : decoratorMap.getDecoratorInfo(method)) {
+      list.add(info.getAnnotation());
+    }
+    Collections.reverse(list);
+    visitor.receiverMethod(method, eventType, list);
+
+    visitor.receiverTiming(method, bodyInvocations.get(), bodyNanos.get());
+    for (DecoratorTiming timing : timings.timings) {
+      visitor.decoratorTiming(method, timing.annotation, timing.invocations.get(),
+          timing.shortCircuits.get(), timing.exclusiveNanos.get());
+    }
+
+    long elapsed = System.nanoTime() - created;
+    for (Map.Entry<Class<? extends Event>, AtomicLong> entry : fired.entrySet()) {
+      visitor.eventFlow(method, entry.getKey(), entry.getValue().get(), elapsed);
+    }
+  }
+
+  /**
+   * Invoke the method on behalf of a {@link ReceiverTargetImpl}.
+   *
+   * @param target the target to report to decorators
+   * @param instanceProvider supplies the receiver instance, {@code null} for static methods
+   * @param event the event to deliver
+   * @param context the context of the event
+   * @param timed {@code true} if the time spent in the method and its decorators should be
+   *          recorded
+   */
+  public DispatchResult dispatch(ReceiverTarget target, Provider<?> instanceProvider, Event event,
+      EventContext context, boolean timed) {
+    if (event == null || context == null) {
+      throw new IllegalArgumentException();
+    }
+
+    ReceiverMethodInvocation work = works.get();
+    DispatchResult result = results.get();
+    Object instance = instanceProvider == null ? null : instanceProvider.get();
+
+    // If this is an instance target without an instance, don't do any work
+    if (instanceProvider != null && instance == null) {
+      return result;
+    }
+
+    work.configure(method, invoker, instance, methodArgumentBinders, result, timed);
+
+    // Contexts for stateless decorators are recycled once the work has been invoked
+    int mark = contextPool.mark();
+    try {
+      Callable<Object> toInvoke = decorate(target, event, context, work, timed);
+
+      if (toInvoke != null) {
+        try {
+          long start = timed ? System.nanoTime() : 0;
+          try {
+            toInvoke.call();
+          } finally {
+            DecoratorContext outermost = work.getOutermostContext();
+            if (timed && outermost != null) {
+              outermost.completeLayer(System.nanoTime() - start);
+            }
+            if (work.getWasDispatched()) {
+              bodyInvocations.incrementAndGet();
+              if (timed) {
+                bodyNanos.addAndGet(work.getBodyNanos());
+              }
+            }
+          }
+          for (Event deferred : work.getDeferredEvents()) {
+            dispatch.fire(deferred);
+          }
+        } catch (Exception e) {
+          logger.error("Unhandled exception while dispatching event", e);
+        }
+      }
+    } finally {
+      contextPool.release(mark);
+      if (instanceProvider instanceof ReceiverPool) {
+        ((ReceiverPool) instanceProvider).release(instance);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Prepare the metadata for dispatching to the given method.
+   *
+   * @param method the receiver method
+   * @param synchronous the value of {@link com.getperka.sea.Receiver#synchronous()}
+   * @param invoker a generated invoker for the method, or {@code null} to use reflection
+   * @throws BadReceiverException if an argument of the method cannot be bound
+   */
+  public void configure(Method method, boolean synchronous, ReceiverDescriptor.Entry invoker) {
+    this.invoker = invoker;
+    this.method = method;
+    this.synchronous = synchronous;
+    // Generated invokers call the method directly
+    if (invoker == null) {
+      method.setAccessible(true);
+    }
+    computeBinders();
+  }
+
+  public Class<? extends Event> getEventType() {
+    return eventType;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public boolean isStatic() {
+    return Modifier.isStatic(method.getModifiers());
+  }
+
+  public boolean isSynchronous() {
+    return synchronous;
+  }
+
+  /**
+   * Record that an event was fired while the method was being dispatched.
+   */
+  public void recordFired(Class<? extends Event> eventType) {
+    AtomicLong count = fired.get(eventType);
+    if (count == null) {
+      AtomicLong newCount = new AtomicLong();
+      count = fired.putIfAbsent(eventType, newCount);
+      if (count == null) {
+        count = newCount;
+      }
+    }
+    count.incrementAndGet();
+  }
+
+  /**
+   * Compute the decorators for the method and create any decorator instances that will be shared
+   * between invocations.
+   */
+  public void warmUp() {
+    List<DecoratorInfo> decorators = decoratorMap.getDecoratorInfo(method);
+    for (int i = 0, j = decorators.size(); i < j; i++) {
+      DecoratorInfo info = decorators.get(i);
+      if (!info.isSingleton() || info.getSharedInstance() != null) {
+        continue;
+      }
+      decoratorScope.enter();
+      try {
+        info.share(info.getProvider().get());
+      } catch (RuntimeException e) {
+        // The decorator may depend on per-invocation state; it will be created on first use
+        logger.debug("Could not create decorator for " + info.getAnnotation() + " ahead of time",
+            e);
+      } finally {
+        decoratorScope.exit();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+
+    // void com.example.Foo.bar(com.example.Event)
+    sb.append(method.getReturnType().getName()).append(" ")
+        .append(method.getDeclaringClass().getName()).append(".")
+        .append(method.getName()).append("(");
+    boolean needsComma = false;
+    for (Class<?> clazz : method.getParameterTypes()) {
+      if (needsComma) {
+        sb.append(", ");
+      } else {
+        needsComma = true;
+      }
+      sb.append(clazz.getName());
+    }
+    sb.append(")");
+    return sb.toString();
+  }
+
+  /**
+   * Apply the decorators to the work. Reusable decorators are invoked without entering the
+   * {@link DecoratorScope}; only decorators that must be created for each invocation pay for the
+   * scope and the injection of their {@link DecoratorContext}.
+   */
+  private Callable<Object> decorate(ReceiverTarget target, Event event, EventContext context,
+      ReceiverMethodInvocation work, boolean timed) {
+    Callable<Object> toInvoke = work;
+    List<DecoratorInfo> decorators = decoratorMap.getDecoratorInfo(method);
+    DecoratorTiming[] decoratorTimings = timed ? getTimings(decorators) : null;
+    DecoratorContext inner = null;
+    for (int i = 0, j = decorators.size(); i < j; i++) {
+      DecoratorInfo info = decorators.get(i);
+      EventDecorator<Annotation, Event> eventDecorator = info.getSharedInstance();
+      boolean scoped = eventDecorator == null;
+      if (scoped) {
+        decoratorScope.enter();
+      }
+      try {
+        if (scoped) {
+          eventDecorator = info.getProvider().get();
+          info.share(eventDecorator);
+        }
+
+        /*
+         * If the decorator can't receive the event, just drop it. This allows decorators that are
+         * specific to a certain event subtype to be applied to a receiver method that accepts a
+         * wider event type.
+         */
+        Class<? extends Event> expectedEventType = info.acceptedEventType(eventDecorator);
+        if (expectedEventType == null) {
+          continue;
+        }
+        // Cast or extract the desired event facet
+        Event desiredFacet = BaseCompositeEvent.asEventFacet(expectedEventType, event);
+        if (desiredFacet == null) {
+          continue;
+        }
+
+        // Create the context, set the contextual data, and wrap
+        DecoratorContext ctx;
+        if (info.isStateless()) {
+          ctx = contextPool.take();
+          ctx.bind(context, event, target, work);
+        } else if (scoped) {
+          ctx = decoratorContexts.get();
+        } else {
+          ctx = new DecoratorContext();
+          ctx.bind(context, event, target, work);
+        }
+        ctx.configure(info.getAnnotation(), desiredFacet, toInvoke);
+        Object token = tracer.beginDecorator(event, context, target, info.getAnnotation());
+        if (timed) {
+          ctx.measure(inner, decoratorTimings[i]);
+          long start = System.nanoTime();
+          try {
+            toInvoke = eventDecorator.wrap(ctx);
+          } finally {
+            ctx.setWrapNanos(System.nanoTime() - start);
+            tracer.endDecorator(token);
+          }
+        } else {
+          ctx.measure(null, null);
+          try {
+            toInvoke = eventDecorator.wrap(ctx);
+          } finally {
+            tracer.endDecorator(token);
+          }
+        }
+
+        // If the decorator has nullified the work or expired the event, don't do anything else
+        if (toInvoke == null || work.getWasExpired()) {
+          toInvoke = null;
+          ctx.completeLayer(0);
+          work.setOutermostContext(null);
+          break;
+        }
+        inner = ctx;
+        work.setOutermostContext(ctx);
+        if (ctx.wasDispatched()) {
+          break;
+        }
+      } finally {
+        if (scoped) {
+          decoratorScope.exit();
+        }
+      }
+    }
+    return toInvoke;
+  }
+
+  /**
+   * Returns the timings for the given decorators, replacing the current timings if the decorators
+   * have been recomputed (e.g. because a global decorator was added).
+   */
+  private DecoratorTiming[] getTimings(List<DecoratorInfo> decorators) {
+    Timings current = timings;
+    if (current.decorators == decorators) {
+      return current.timings;
+    }
+    synchronized (this) {
+      current = timings;
+      if (current.decorators == decorators) {
+        return current.timings;
+      }
+      DecoratorTiming[] next = new DecoratorTiming[decorators.size()];
+      for (int i = 0, j = next.length; i < j; i++) {
+        Annotation annotation = decorators.get(i).getAnnotation();
+        // Retain the accumulated timing of decorators that are still present
+        for (DecoratorTiming existing : current.timings) {
+          if (existing.annotation.equals(annotation)) {
+            next[i] = existing;
+            break;
+          }
+        }
+        if (next[i] == null) {
+          next[i] = new DecoratorTiming(annotation);
+        }
+      }
+      timings = new Timings(decorators, next);
+      return next;
+    }
+  }
+
+  /**
+   * Compute the binders for the arguments of the method to invoke. The event, its context, the
+   * dispatch result, and the target are supplied directly by the invocation; any other binding is
+   * retrieved from the injector.
+   */
+  private void computeBinders() {
+    Key<Event> keyCurrentEvent = Key.get(Event.class, CurrentEvent.class);
+    Annotation[][] annotations = method.getParameterAnnotations();
+    Type[] params = method.getGenericParameterTypes();
+    methodArgumentBinders = new ArgumentBinder[params.length];
+
+    for (int i = 0, j = params.length; i < j; i++) {
+      Type param = params[i];
+      Class<?> rawParamType = TypeLiteral.get(param).getRawType();
+      Annotation binding = null;
+
+      // First, see if there's a binding annotation
+      for (Annotation a : annotations[i]) {
+        if (a.annotationType().isAnnotationPresent(BindingAnnotation.class)
+          || a.annotationType().isAnnotationPresent(Qualifier.class)) {
+          binding = a;
+          break;
+        }
+      }
+
+      Key<?> key;
+      if (binding == null) {
+        if (Event.class.isAssignableFrom(rawParamType)) {
+          // An un-annotated reference to an event type will be considered a CurrentEvent reference
+          key = keyCurrentEvent;
+        } else {
+          // Otherwise, just ask for an unannotated binding
+          key = Key.get(param);
+        }
+      } else {
+        // Annotated type binding
+        key = Key.get(param, binding);
+      }
+
+      if (CurrentEvent.class.equals(key.getAnnotationType())) {
+        eventType = rawParamType.asSubclass(Event.class);
+      }
+
+      ArgumentBinder binder = ArgumentBinder.forKey(key);
+      if (binder != null) {
+        methodArgumentBinders[i] = binder;
+        continue;
+      }
+
+      try {
+        methodArgumentBinders[i] = ArgumentBinder.of(injector.getProvider(key));
+      } catch (ConfigurationException e) {
+        throw new BadReceiverException("Cannot compute injection binding for parameter " + i,
+            new ReceiverTargetImpl(this, null), e);
+      }
+    }
+  }
+}
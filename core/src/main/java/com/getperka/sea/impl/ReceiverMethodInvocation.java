@@ -22,7 +22,6 @@ package com.getperka.sea.impl;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -35,6 +34,8 @@ import javax.inject.Provider;
 import org.slf4j.Logger;
 
 import com.getperka.sea.Event;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.ReceiverDescriptor;
 import com.getperka.sea.ext.SuspendedEvent;
 import com.getperka.sea.inject.EventLogger;
 import com.getperka.sea.inject.ReceiverScoped;
@@ -44,18 +45,34 @@ import com.getperka.sea.inject.ReceiverScoped;
  */
 @ReceiverScoped
 public class ReceiverMethodInvocation implements Callable<Object> {
+  private ArgumentBinder[] argumentBinders;
+  private long bodyNanos;
   private final Queue<Event> deferredEvents = new ConcurrentLinkedQueue<Event>();
   private Object instance;
+  /**
+   * Invokes the method directly if a {@link ReceiverDescriptor} is available.
+   */
+  private ReceiverDescriptor.Entry invoker;
   @Inject
   private ReceiverStackInvocation invocation;
   @EventLogger
   @Inject
   private Logger logger;
   private Method method;
-  private List<Provider<?>> methodArgumentProviders;
+  private DecoratorContext outermostContext;
+  /**
+   * An event supplied by a decorator to pass to the receiver method instead of the dispatched one.
+   */
+  private Event replacement;
+  private DispatchResult result;
   @Inject
   private Provider<SuspendedEvent> suspendedEvents;
+  /**
+   * Whether the time spent in the receiver method should be recorded.
+   */
+  private boolean timed;
   private final AtomicBoolean wasDispatched = new AtomicBoolean();
+  private final AtomicBoolean wasExpired = new AtomicBoolean();
   private final AtomicReference<Object> wasReturned = new AtomicReference<Object>();
   private final AtomicBoolean wasSuspended = new AtomicBoolean();
   private final AtomicReference<Throwable> wasThrown = new AtomicReference<Throwable>();
@@ -68,18 +85,28 @@ public class ReceiverMethodInvocation implements Callable<Object> {
   @Override
   public Object call() throws IllegalArgumentException, IllegalAccessException {
     // Obtain each argument for the method
-    Object[] args = new Object[methodArgumentProviders.size()];
+    Object[] args = new Object[argumentBinders.length];
     for (int i = 0, j = args.length; i < j; i++) {
       try {
-        args[i] = methodArgumentProviders.get(i).get();
+        args[i] = argumentBinders[i].get(this);
       } catch (RuntimeException e) {
         throw new RuntimeException("Could not obtain argument " + i, e);
       }
     }
 
     // Now dispatch
+    long start = timed ? System.nanoTime() : 0;
     try {
-      Object value = method.invoke(instance, args);
+      Object value;
+      if (invoker == null) {
+        value = method.invoke(instance, args);
+      } else {
+        try {
+          value = invoker.invoke(instance, args);
+        } catch (Throwable t) {
+          throw new InvocationTargetException(t);
+        }
+      }
       wasReturned.set(value);
       return value;
     } catch (InvocationTargetException e) {
@@ -90,28 +117,81 @@ public class ReceiverMethodInvocation implements Callable<Object> {
       logger.debug("Exception added to Decorator.Context", e);
       return null;
     } finally {
+      if (timed) {
+        bodyNanos += System.nanoTime() - start;
+      }
       wasDispatched.set(true);
     }
   }
 
-  public void configure(Method method, Object instance, List<Provider<?>> methodArgumentProviders) {
+  public void setOutermostContext(DecoratorContext outermostContext) {
+    this.outermostContext = outermostContext;
+  }
+
+  public void configure(Method method, ReceiverDescriptor.Entry invoker, Object instance,
+      ArgumentBinder[] argumentBinders, DispatchResult result, boolean timed) {
     this.method = method;
+    this.invoker = invoker;
     this.instance = instance;
-    this.methodArgumentProviders = methodArgumentProviders;
+    this.argumentBinders = argumentBinders;
+    this.result = result;
+    this.timed = timed;
+    replacement = null;
+  }
+
+  public void expire() {
+    wasExpired.set(true);
+  }
+
+  /**
+   * Returns the time spent executing the receiver method.
+   */
+  public long getBodyNanos() {
+    return bodyNanos;
+  }
+
+  /**
+   * Returns the context of the decorator whose callable is invoked first, or {@code null} if the
+   * receiver method is not decorated.
+   */
+  public DecoratorContext getOutermostContext() {
+    return outermostContext;
   }
 
   public Queue<Event> getDeferredEvents() {
     return deferredEvents;
   }
 
+  public DispatchResult getDispatchResult() {
+    return result;
+  }
+
+  /**
+   * Returns the event to pass to the receiver method.
+   */
+  public Event getEvent() {
+    return replacement == null ? invocation.getEvent() : replacement;
+  }
+
   public Object getReceiverInstance() {
     return instance;
   }
 
+  /**
+   * Returns the top-level invocation, which holds the event being dispatched.
+   */
+  public ReceiverStackInvocation getStackInvocation() {
+    return invocation;
+  }
+
   public boolean getWasDispatched() {
     return wasDispatched.get();
   }
 
+  public boolean getWasExpired() {
+    return wasExpired.get();
+  }
+
   public Object getWasReturned() {
     return wasReturned.get();
   }
@@ -124,6 +204,18 @@ public class ReceiverMethodInvocation implements Callable<Object> {
     return wasThrown.get();
   }
 
+  public void replaceEvent(Event event) {
+    replacement = event;
+  }
+
+  /**
+   * Suspend the invocation so that it may be attempted again.
+   */
+  public SuspendedEvent retry() {
+    invocation.recordRetry();
+    return suspend();
+  }
+
   public void shortCircuit(Throwable t) {
     wasDispatched.set(true);
     wasThrown.set(t);
@@ -0,0 +1,250 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Provider;
+
+import com.getperka.sea.Reusable;
+import com.getperka.sea.ext.ConfigurationProvider;
+import com.getperka.sea.ext.ConfigurationVisitor;
+
+/**
+ * Supplies reusable instances of a {@link Reusable} receiver. Instances obtained from
+ * {@link #get()} are handed back via {@link #release(Object)} once the event has been dispatched.
+ */
+public abstract class ReceiverPool implements ConfigurationProvider, Provider<Object> {
+  private static class PerThread extends ReceiverPool {
+    /**
+     * The instance retained by one thread. The instance is cleared from other threads, while
+     * {@code lent} is only touched by the owning thread.
+     */
+    private static class Slot {
+      volatile Object instance;
+      Object lent;
+    }
+
+    private final ThreadLocal<Slot> slot = new ThreadLocal<Slot>();
+    /**
+     * Weakly tracks every thread's slot so that {@link #clear()} can drop the retained instances.
+     */
+    private final Set<Slot> slots = Collections.synchronizedSet(Collections
+        .newSetFromMap(new WeakHashMap<Slot, Boolean>()));
+
+    PerThread(Class<?> receiver, Provider<?> delegate) {
+      super(receiver, Reusable.Mode.PER_THREAD, delegate);
+    }
+
+    @Override
+    public void clear() {
+      super.clear();
+      synchronized (slots) {
+        for (Slot s : slots) {
+          s.instance = null;
+        }
+      }
+    }
+
+    @Override
+    public Object get() {
+      if (cleared) {
+        return create();
+      }
+      Slot local = slot.get();
+      if (local == null) {
+        local = new Slot();
+        slot.set(local);
+        slots.add(local);
+      }
+      // A reentrant dispatch on this thread mustn't share the instance that is already in use
+      if (local.lent != null) {
+        return create();
+      }
+      Object toReturn = local.instance;
+      if (toReturn == null) {
+        toReturn = create();
+        local.instance = toReturn;
+      } else {
+        hits.incrementAndGet();
+      }
+      local.lent = toReturn;
+      return toReturn;
+    }
+
+    @Override
+    public void release(Object receiver) {
+      Slot local = slot.get();
+      if (local != null && local.lent == receiver) {
+        local.lent = null;
+      }
+    }
+  }
+
+  private static class Pooled extends ReceiverPool {
+    private final Queue<Object> idle;
+
+    Pooled(Class<?> receiver, Provider<?> delegate, int maxPooled) {
+      super(receiver, Reusable.Mode.POOLED, delegate);
+      idle = new ArrayBlockingQueue<Object>(Math.max(1, maxPooled));
+    }
+
+    @Override
+    public Object get() {
+      Object toReturn = idle.poll();
+      if (toReturn == null) {
+        return create();
+      }
+      hits.incrementAndGet();
+      return toReturn;
+    }
+
+    @Override
+    public void clear() {
+      super.clear();
+      idle.clear();
+    }
+
+    @Override
+    public void release(Object receiver) {
+      // Discard the instance if the pool is full or has been cleared
+      if (!cleared) {
+        idle.offer(receiver);
+      }
+    }
+  }
+
+  private static class SingleInstance extends ReceiverPool {
+    private volatile Object instance;
+
+    SingleInstance(Class<?> receiver, Provider<?> delegate) {
+      super(receiver, Reusable.Mode.SINGLETON, delegate);
+    }
+
+    @Override
+    public synchronized void clear() {
+      super.clear();
+      instance = null;
+    }
+
+    @Override
+    public Object get() {
+      if (cleared) {
+        return create();
+      }
+      Object toReturn = instance;
+      if (toReturn != null) {
+        hits.incrementAndGet();
+        return toReturn;
+      }
+      synchronized (this) {
+        if (instance == null) {
+          instance = create();
+        } else {
+          hits.incrementAndGet();
+        }
+        return instance;
+      }
+    }
+
+    @Override
+    public void release(Object receiver) {}
+  }
+
+  /**
+   * Returns a ReceiverPool for the receiver type, or {@code null} if the type is not
+   * {@link Reusable}.
+   */
+  public static ReceiverPool create(Class<?> receiver, Provider<?> delegate) {
+    Reusable reusable = receiver.getAnnotation(Reusable.class);
+    if (reusable == null) {
+      return null;
+    }
+    switch (reusable.value()) {
+      case PER_THREAD:
+        return new PerThread(receiver, delegate);
+      case POOLED:
+        return new Pooled(receiver, delegate, reusable.maxPooled());
+      case SINGLETON:
+        return new SingleInstance(receiver, delegate);
+      default:
+        throw new UnsupportedOperationException(reusable.value().name());
+    }
+  }
+
+  protected final AtomicLong hits = new AtomicLong();
+  protected volatile boolean cleared;
+  private final Provider<?> delegate;
+  private final AtomicLong misses = new AtomicLong();
+  private final Reusable.Mode mode;
+  private final Class<?> receiver;
+
+  ReceiverPool(Class<?> receiver, Reusable.Mode mode, Provider<?> delegate) {
+    this.delegate = delegate;
+    this.mode = mode;
+    this.receiver = receiver;
+  }
+
+  @Override
+  public void accept(ConfigurationVisitor visitor) {
+    visitor.receiverInstances(receiver, mode, hits.get(), misses.get());
+  }
+
+  /**
+   * Drops all retained instances once the registration has been canceled. Any later calls to
+   * {@link #get()} return new, unretained instances.
+   */
+  public void clear() {
+    cleared = true;
+  }
+
+  /**
+   * Returns the number of times that an existing instance was reused.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of times that a new instance was created.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Return an instance obtained from {@link #get()} once it is no longer in use.
+   */
+  public abstract void release(Object receiver);
+
+  /**
+   * Create a new instance of the receiver.
+   */
+  protected Object create() {
+    misses.incrementAndGet();
+    return delegate.get();
+  }
+}
@@ -34,11 +34,13 @@ import com.getperka.sea.Event;
 import com.getperka.sea.EventDispatch;
 import com.getperka.sea.ext.DispatchCompleteEvent;
 import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.DispatchTracer;
 import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.EventDecorator;
 import com.getperka.sea.ext.ReceiverTarget;
 import com.getperka.sea.inject.EventLogger;
 import com.getperka.sea.inject.ReceiverScope;
+import com.getperka.sea.metrics.DispatchMetrics;
 
 /**
  * The top-level invocation of a {@link ReceiverTarget ReceiverTarget's} work, including all
@@ -81,15 +83,27 @@ public class ReceiverStackInvocation implements Callable<DispatchResult> {
   @Inject
   private EventDispatch dispatch;
   private Event event;
+  /**
+   * The {@link System#nanoTime()} at which the event was fired or the invocation was suspended.
+   */
+  private long fired;
   @EventLogger
   @Inject
   private Logger logger;
   @Inject
   private InvocationManager manager;
   @Inject
+  private DispatchMetrics metrics;
+  @Inject
   private ReceiverScope receiverScope;
+  /**
+   * The number of times a decorator has suspended the invocation in order to retry it.
+   */
+  private int retryCount;
   private ReceiverTarget target;
   private State state;
+  @Inject
+  private DispatchTracer tracer;
 
   protected ReceiverStackInvocation() {}
 
@@ -101,24 +115,44 @@ public class ReceiverStackInvocation implements Callable<DispatchResult> {
     currentThread.setName(toString());
 
     receiverScope.enter(this, event, target, context);
+    long start = System.nanoTime();
+    Object token = tracer.beginInvocation(event, context, target);
     DispatchResult toReturn = null;
     try {
-      // Figure out a better ReceiverTarget interface to not need this cast
-      toReturn = ((ReceiverTargetImpl) target).dispatch(event, context);
+      long deadline = context.getDeadline();
+      if (deadline != 0 && start - deadline > 0) {
+        // Nobody is waiting for the outcome, so don't run any decorator or receiver code
+        toReturn = new ExpiredDispatchResult(event, target, retryCount);
+      } else {
+        // Figure out a better ReceiverTarget interface to not need this cast
+        toReturn = ((ReceiverTargetImpl) target).dispatch(event, context,
+            metrics.isDecoratorTiming());
+      }
     } catch (Throwable t) {
       logger.error("Unable to dispatch event", t);
     } finally {
       receiverScope.exit();
       currentThread.setName(name);
+      tracer.endInvocation(token, toReturn);
+      long end = System.nanoTime();
+      metrics.record(event.getClass(), target, start - fired, end - start, toReturn);
+      // A resumed invocation's queue wait is measured from the suspension
+      fired = end;
       // If the event was suspended, pretend like it never happened
-      if (!toReturn.wasSuspended()) {
+      if (toReturn == null || !toReturn.wasSuspended()) {
         maybeDispatchCompleteEvent(toReturn);
         manager.markComplete(this);
+      } else {
+        tracer.invocationSuspended(event, context, target);
       }
     }
     return toReturn;
   }
 
+  public int getRetryCount() {
+    return retryCount;
+  }
+
   public boolean isSynchronous() {
     return target.isSynchronous();
   }
@@ -131,6 +165,22 @@ public class ReceiverStackInvocation implements Callable<DispatchResult> {
     return target.toString();
   }
 
+  EventContext getContext() {
+    return context;
+  }
+
+  Event getEvent() {
+    return event;
+  }
+
+  ReceiverTarget getReceiverTarget() {
+    return target;
+  }
+
+  void recordRetry() {
+    retryCount++;
+  }
+
   void setContext(EventContext context) {
     this.context = context;
   }
@@ -139,6 +189,10 @@ public class ReceiverStackInvocation implements Callable<DispatchResult> {
     this.event = event;
   }
 
+  void setFired(long fired) {
+    this.fired = fired;
+  }
+
   void setReceiverTarget(ReceiverTarget target) {
     this.target = target;
   }
@@ -153,7 +207,7 @@ public class ReceiverStackInvocation implements Callable<DispatchResult> {
       complete.setContext(context);
       complete.setSource(event);
       complete.setResults(new ArrayList<DispatchResult>(state.getResults()));
-      dispatch.fire(complete);
+      dispatch.fire(complete, null, context.getTraceId(), context.getSequenceNumber());
     }
   }
 }
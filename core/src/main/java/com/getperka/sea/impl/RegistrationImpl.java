@@ -20,132 +20,90 @@ package com.getperka.sea.impl;
  * #L%
  */
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
-import javax.inject.Inject;
 import javax.inject.Provider;
 
-import org.slf4j.Logger;
-
 import com.getperka.sea.Event;
-import com.getperka.sea.Receiver;
 import com.getperka.sea.Registration;
 import com.getperka.sea.ext.ConfigurationProvider;
 import com.getperka.sea.ext.ConfigurationVisitor;
 import com.getperka.sea.ext.ReceiverTarget;
-import com.getperka.sea.inject.EventLogger;
-import com.google.inject.Injector;
 
+/**
+ * A lightweight pairing of the memoized {@link ReceiverMethod} metadata for a receiver class with
+ * the provider of its instances.
+ */
 public class RegistrationImpl implements ConfigurationProvider, Registration {
-  private DispatchMap dispatchMap;
-  private Provider<ReceiverTargetImpl> dispatchTargets;
-  private Injector injector;
-  private Logger logger;
-  private Map<Class<? extends Event>, List<ReceiverTarget>> targets = Collections.emptyMap();
-
-  protected RegistrationImpl() {}
+  private static final ReceiverTargetImpl[] EMPTY = new ReceiverTargetImpl[0];
+
+  private final DispatchMap dispatchMap;
+  private final Provider<?> provider;
+  private volatile ReceiverTargetImpl[] targets;
+
+  /**
+   * @param dispatchMap the map to notify when the registration is canceled
+   * @param methods the receiver methods declared by the registered type
+   * @param provider supplies receiver instances, may be {@code null} if all methods are static
+   */
+  public RegistrationImpl(DispatchMap dispatchMap, List<ReceiverMethod> methods,
+      Provider<?> provider) {
+    this.dispatchMap = dispatchMap;
+    this.provider = provider;
+    ReceiverTargetImpl[] temp = new ReceiverTargetImpl[methods.size()];
+    for (int i = 0, j = temp.length; i < j; i++) {
+      ReceiverMethod method = methods.get(i);
+      temp[i] = new ReceiverTargetImpl(method, method.isStatic() ? null : provider);
+    }
+    targets = temp;
+  }
 
   @Override
   public void accept(ConfigurationVisitor visitor) {
-    for (List<ReceiverTarget> list : targets.values()) {
-      for (ReceiverTarget target : list) {
-        ((ConfigurationProvider) target).accept(visitor);
-      }
+    ReceiverTargetImpl[] local = targets;
+    for (ReceiverTargetImpl target : local) {
+      target.accept(visitor);
+    }
+    if (local.length > 0 && provider instanceof ConfigurationProvider) {
+      ((ConfigurationProvider) provider).accept(visitor);
     }
   }
 
   @Override
   public void cancel() {
-    targets = Collections.emptyMap();
+    targets = EMPTY;
     dispatchMap.cancel(this);
+    if (provider instanceof ReceiverPool) {
+      ((ReceiverPool) provider).clear();
+    }
   }
 
   public List<ReceiverTarget> getReceiverTargets(Class<? extends Event> event) {
     List<ReceiverTarget> toReturn = new ArrayList<ReceiverTarget>();
-    for (Map.Entry<Class<? extends Event>, List<ReceiverTarget>> entry : targets.entrySet()) {
-      if (entry.getKey().isAssignableFrom(event)) {
-        toReturn.addAll(entry.getValue());
+    for (ReceiverTargetImpl target : targets) {
+      if (target.getEventType().isAssignableFrom(event)) {
+        toReturn.add(target);
       }
     }
 
     return toReturn;
   }
 
-  public boolean isCanceled() {
-    return targets.isEmpty();
+  /**
+   * Returns all of the targets created by the registration.
+   */
+  public List<ReceiverTargetImpl> getReceiverTargets() {
+    return Arrays.asList(targets);
   }
 
-  public <T> void set(Class<T> receiver, Provider<? extends T> provider) {
-    // Accumulate state in a new map
-    Map<Class<? extends Event>, List<ReceiverTarget>> temp =
-        new HashMap<Class<? extends Event>, List<ReceiverTarget>>();
-
-    Class<? super T> lookAt = receiver;
-    while (lookAt != null) {
-      for (Method m : lookAt.getDeclaredMethods()) {
-        Receiver annotation = m.getAnnotation(Receiver.class);
-        // Ignore anything not explicitly annotated to receive events
-        if (annotation == null) {
-          continue;
-        }
-
-        // Create a ReceiverTarget to handle dispatch to the method
-        ReceiverTargetImpl target = dispatchTargets.get();
-        target.setSynchronous(annotation.synchronous());
-        if (Modifier.isStatic(m.getModifiers())) {
-          target.setStaticDispatch(m);
-        } else {
-          if (provider == null) {
-            provider = injector.getProvider(receiver);
-          }
-          target.setInstanceDispatch(provider, m);
-        }
-
-        Class<? extends Event> event = target.getEventType();
-        if (event == null) {
-          logger.warn("Ignoring {}.{} because it does not receive an Event type",
-              receiver.getName(), m.getName());
-          continue;
-        }
-
-        List<ReceiverTarget> list = temp.get(event);
-        if (list == null) {
-          list = new ArrayList<ReceiverTarget>();
-          temp.put(event, list);
-        }
-
-        // Create a ReceiverTarget that will dispatch to the method
-        list.add(target);
-        logger.debug("{}.{} will receive {}",
-            new Object[] { receiver.getName(), m.getName(), event.getName() });
-      }
-      lookAt = lookAt.getSuperclass();
-    }
-
-    // Make the datastructure immutable
-    for (Map.Entry<?, List<ReceiverTarget>> entry : temp.entrySet()) {
-      entry.setValue(Collections.unmodifiableList(entry.getValue()));
-    }
-    targets = Collections.unmodifiableMap(temp);
+  public boolean isCanceled() {
+    return targets.length == 0;
   }
 
   @Override
   public String toString() {
-    return targets.toString();
-  }
-
-  @Inject
-  void inject(DispatchMap dispatchMap, Provider<ReceiverTargetImpl> dispatchTargets,
-      Injector injector, @EventLogger Logger logger) {
-    this.dispatchMap = dispatchMap;
-    this.dispatchTargets = dispatchTargets;
-    this.injector = injector;
-    this.logger = logger;
+    return Arrays.toString(targets);
   }
 }
@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 
+import com.getperka.sea.ext.DispatchTracer;
 import com.getperka.sea.ext.SuspendedEvent;
 import com.getperka.sea.inject.EventExecutor;
 import com.getperka.sea.inject.ReceiverScoped;
@@ -37,22 +38,43 @@ public class SuspendedEventImpl implements SuspendedEvent {
   @Inject
   ExecutorService svc;
   private final AtomicBoolean hasResumed = new AtomicBoolean();
+  @Inject
+  DispatchTracer tracer;
 
   /**
    * Requires injection.
    */
   protected SuspendedEventImpl() {}
 
+  /**
+   * Returns the dispatch's executor, which utilities that resume events from a timer thread should
+   * hand off to.
+   */
+  public ExecutorService getExecutor() {
+    return svc;
+  }
+
   @Override
   public void resume() {
-    if (!hasResumed.compareAndSet(false, true)) {
-      throw new IllegalStateException("Cannot resume a SuspendedEvent more than once");
-    }
-
+    markResumed();
     if (invocation.isSynchronous()) {
       invocation.call();
     } else {
       svc.submit(invocation);
     }
   }
+
+  @Override
+  public void resumeInCurrentThread() {
+    markResumed();
+    invocation.call();
+  }
+
+  private void markResumed() {
+    if (!hasResumed.compareAndSet(false, true)) {
+      throw new IllegalStateException("Cannot resume a SuspendedEvent more than once");
+    }
+    tracer.invocationResumed(invocation.getEvent(), invocation.getContext(),
+        invocation.getReceiverTarget());
+  }
 }
@@ -32,19 +32,34 @@ import com.google.inject.Provider;
  * Defines a scope whose lifetime is a call to {@link EventDecorator#wrap}.
  */
 public class DecoratorScope extends BaseScope {
-  private final ThreadLocal<Map<Key<?>, Object>> map = new ThreadLocal<Map<Key<?>, Object>>();
+  /**
+   * The per-thread scope data, which is retained between scope entries to avoid allocating a new
+   * map for each call to {@link EventDecorator#wrap}.
+   */
+  private static class Frame {
+    boolean active;
+    final Map<Key<?>, Object> values = new HashMap<Key<?>, Object>();
+  }
+
+  private final ThreadLocal<Frame> frame = new ThreadLocal<Frame>() {
+    @Override
+    protected Frame initialValue() {
+      return new Frame();
+    }
+  };
 
   public void enter() {
-    Map<Key<?>, Object> localMap = map.get();
-    if (localMap != null) {
+    Frame localFrame = frame.get();
+    if (localFrame.active) {
       throw new IllegalStateException("DecoratorScope is not reentrant");
     }
-    localMap = new HashMap<Key<?>, Object>();
-    map.set(localMap);
+    localFrame.active = true;
   }
 
   public void exit() {
-    map.remove();
+    Frame localFrame = frame.get();
+    localFrame.values.clear();
+    localFrame.active = false;
   }
 
   @Override
@@ -52,11 +67,11 @@ public class DecoratorScope extends BaseScope {
     return new MapProvider<T>(key, unscoped) {
       @Override
       protected Map<Key<?>, Object> scopeMap() {
-        Map<Key<?>, Object> localMap = map.get();
-        if (localMap == null) {
+        Frame localFrame = frame.get();
+        if (!localFrame.active) {
           throw new OutOfScopeException("Not in a DecoratorScope");
         }
-        return localMap;
+        return localFrame.values;
       }
     };
   }
@@ -0,0 +1,57 @@
+package com.getperka.sea.inject;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.impl.BindingMap;
+import com.getperka.sea.impl.DecoratorMap;
+import com.getperka.sea.impl.DispatchBindings;
+import com.getperka.sea.impl.DispatchImpl;
+import com.getperka.sea.impl.DispatchMap;
+import com.getperka.sea.impl.FireScheduler;
+import com.getperka.sea.impl.InvocationManager;
+import com.getperka.sea.impl.ObserverMap;
+import com.getperka.sea.metrics.DispatchMetrics;
+import com.google.inject.AbstractModule;
+
+/**
+ * Binds the types that hold the state of a single {@link EventDispatch}: its registrations,
+ * decorator and observer configuration, metrics, scheduled events, and drain state.
+ * These bindings are explicit so that they are created in a child injector when an
+ * {@link com.getperka.sea.EventDispatchGroup} is used, rather than being shared through the parent
+ * injector. {@link DispatchBindings} likewise gives each dispatch its own singleton decorators and
+ * observers.
+ */
+public class DispatchModule extends AbstractModule {
+  @Override
+  protected void configure() {
+    bind(EventDispatch.class).to(DispatchImpl.class);
+    bind(BindingMap.class);
+    bind(DecoratorMap.class);
+    bind(DispatchBindings.class);
+    bind(DispatchImpl.class);
+    bind(DispatchMap.class);
+    bind(DispatchMetrics.class);
+    bind(FireScheduler.class);
+    bind(InvocationManager.class);
+    bind(ObserverMap.class);
+  }
+}
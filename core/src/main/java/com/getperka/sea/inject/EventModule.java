@@ -34,7 +34,6 @@ import com.getperka.sea.ext.DispatchResult;
 import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.ReceiverTarget;
 import com.getperka.sea.ext.SuspendedEvent;
-import com.getperka.sea.impl.DispatchImpl;
 import com.getperka.sea.impl.DispatchResultImpl;
 import com.getperka.sea.impl.ReceiverStackInvocation;
 import com.getperka.sea.impl.SuspendedEventImpl;
@@ -59,8 +58,18 @@ public class EventModule extends AbstractModule {
     bindDecoratorScope();
 
     bind(DispatchResult.class).to(DispatchResultImpl.class);
-    bind(EventDispatch.class).to(DispatchImpl.class);
     bind(SuspendedEvent.class).to(SuspendedEventImpl.class);
+
+    configureDispatch();
+  }
+
+  /**
+   * Binds the per-dispatch types. This is a no-op in the parent injector of an
+   * {@link com.getperka.sea.EventDispatchGroup}, which installs a {@link DispatchModule} in each
+   * child injector instead.
+   */
+  protected void configureDispatch() {
+    install(new DispatchModule());
   }
 
   /**
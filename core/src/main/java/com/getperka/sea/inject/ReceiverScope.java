@@ -42,10 +42,12 @@ import com.google.inject.Provider;
 public class ReceiverScope extends BaseScope {
 
   private static class Frame {
+    final EventContext context;
     final Map<Key<?>, Object> values = new ConcurrentHashMap<Key<?>, Object>();
 
     Frame(ReceiverStackInvocation invocation, Event event, ReceiverTarget receiverTarget,
         EventContext context) {
+      this.context = context;
       values.put(currentEventKey, event);
       values.put(eventContextKey, context);
       values.put(invocationKey, invocation);
@@ -76,6 +78,24 @@ public class ReceiverScope extends BaseScope {
     frameStack.get().pop();
   }
 
+  /**
+   * Returns the context of the innermost currently-executing Event, or {@code null} if no receiver
+   * is being executed on the current thread.
+   */
+  public EventContext getCurrentContext() {
+    Frame frame = frameStack.get().peek();
+    return frame == null ? null : frame.context;
+  }
+
+  /**
+   * Returns the innermost currently-executing receiver, or {@code null} if no receiver is being
+   * executed on the current thread.
+   */
+  public ReceiverTarget getCurrentTarget() {
+    Frame frame = frameStack.get().peek();
+    return frame == null ? null : (ReceiverTarget) frame.values.get(receiverTargetKey);
+  }
+
   /**
    * Returns the list of currently-executing Events. This list will have more than one element if a
    * synchronous receiver is being executed.
@@ -0,0 +1,204 @@
+package com.getperka.sea.metrics;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.ReceiverTarget;
+import com.getperka.sea.impl.DispatchMap;
+import com.getperka.sea.impl.InvocationManager;
+import com.getperka.sea.impl.ReceiverTargetImpl;
+
+/**
+ * Tracks throughput, queue wait, execution time, exceptions, suspensions, and expired deadlines for
+ * each event type and each {@link ReceiverTarget} of an {@link com.getperka.sea.EventDispatch}.
+ * Recording an invocation does not allocate once an event type has been seen.
+ * 
+ * @see com.getperka.sea.EventDispatch#getMetrics()
+ */
+@Singleton
+public class DispatchMetrics implements DispatchMetricsMXBean {
+  private DispatchMap dispatchMap;
+  private volatile boolean decoratorTiming;
+  private final ConcurrentMap<Class<? extends Event>, DispatchStats> eventTypes =
+      new ConcurrentHashMap<Class<? extends Event>, DispatchStats>();
+  private InvocationManager invocationManager;
+  private final List<MetricsReporter> reporters = new CopyOnWriteArrayList<MetricsReporter>();
+
+  protected DispatchMetrics() {}
+
+  public void addReporter(MetricsReporter reporter) {
+    reporters.add(reporter);
+  }
+
+  /**
+   * Returns the statistics for an event type, or {@code null} if the event type has not been
+   * dispatched.
+   */
+  public DispatchStats getEventTypeStats(Class<? extends Event> eventType) {
+    return eventTypes.get(eventType);
+  }
+
+  @Override
+  public Map<String, DispatchStats> getEventTypes() {
+    Map<String, DispatchStats> toReturn = new TreeMap<String, DispatchStats>();
+    for (Map.Entry<Class<? extends Event>, DispatchStats> entry : eventTypes.entrySet()) {
+      toReturn.put(entry.getKey().getName(), entry.getValue());
+    }
+    return toReturn;
+  }
+
+  @Override
+  public int getPendingCount() {
+    return invocationManager.getPendingCount();
+  }
+
+  /**
+   * Returns the statistics for the currently-registered receivers. If a receiver method is
+   * registered more than once, the keys of the later registrations have a numeric suffix.
+   */
+  @Override
+  public Map<String, DispatchStats> getReceivers() {
+    Map<String, DispatchStats> toReturn = new TreeMap<String, DispatchStats>();
+    for (ReceiverTargetImpl target : dispatchMap.getReceiverTargets()) {
+      String name = target.toString();
+      String key = name;
+      for (int i = 2; toReturn.containsKey(key); i++) {
+        key = name + " #" + i;
+      }
+      toReturn.put(key, target.getStats());
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the statistics for a receiver target.
+   */
+  public DispatchStats getReceiverStats(ReceiverTarget target) {
+    return ((ReceiverTargetImpl) target).getStats();
+  }
+
+  @Override
+  public boolean isDecoratorTiming() {
+    return decoratorTiming;
+  }
+
+  /**
+   * Record the outcome of a receiver invocation.
+   * 
+   * @param eventType the type of event that was dispatched
+   * @param target the receiver that was invoked
+   * @param queueWaitNanos the time between the event being fired and the invocation starting
+   * @param executionNanos the duration of the invocation
+   * @param result the result of the invocation, or {@code null} if the invocation failed
+   */
+  public void record(Class<? extends Event> eventType, ReceiverTarget target,
+      long queueWaitNanos, long executionNanos, DispatchResult result) {
+    boolean threw = result == null || result.getThrown() != null;
+    boolean suspended = result != null && result.wasSuspended();
+    boolean expired = result != null && result.wasExpired();
+
+    DispatchStats stats = eventTypes.get(eventType);
+    if (stats == null) {
+      stats = new DispatchStats();
+      DispatchStats existing = eventTypes.putIfAbsent(eventType, stats);
+      if (existing != null) {
+        stats = existing;
+      }
+    }
+    DispatchStats receiverStats = target instanceof ReceiverTargetImpl ?
+        ((ReceiverTargetImpl) target).getStats() : null;
+
+    if (expired) {
+      stats.recordExpired(queueWaitNanos);
+      if (receiverStats != null) {
+        receiverStats.recordExpired(queueWaitNanos);
+      }
+      return;
+    }
+
+    stats.record(queueWaitNanos, executionNanos, threw, suspended);
+    if (receiverStats != null) {
+      receiverStats.record(queueWaitNanos, executionNanos, threw, suspended);
+    }
+  }
+
+  /**
+   * Register the metrics with the platform MBean server.
+   * 
+   * @param name a name to distinguish the dispatch from others in the same JVM
+   * @return the name under which the metrics were registered
+   */
+  public ObjectName registerMBean(String name) throws JMException {
+    return registerMBean(ManagementFactory.getPlatformMBeanServer(), name);
+  }
+
+  /**
+   * Register the metrics with an MBean server.
+   * 
+   * @param name a name to distinguish the dispatch from others in the same server
+   * @return the name under which the metrics were registered
+   */
+  public ObjectName registerMBean(MBeanServer server, String name) throws JMException {
+    ObjectName objectName = new ObjectName("com.getperka.sea:type=DispatchMetrics,name="
+      + ObjectName.quote(name));
+    server.registerMBean(this, objectName);
+    return objectName;
+  }
+
+  public void removeReporter(MetricsReporter reporter) {
+    reporters.remove(reporter);
+  }
+
+  /**
+   * Pass the current metrics to all registered {@link MetricsReporter} instances.
+   */
+  public void report() {
+    for (MetricsReporter reporter : reporters) {
+      reporter.report(this);
+    }
+  }
+
+  @Override
+  public void setDecoratorTiming(boolean decoratorTiming) {
+    this.decoratorTiming = decoratorTiming;
+  }
+
+  @Inject
+  void inject(DispatchMap dispatchMap, InvocationManager invocationManager) {
+    this.dispatchMap = dispatchMap;
+    this.invocationManager = invocationManager;
+  }
+}
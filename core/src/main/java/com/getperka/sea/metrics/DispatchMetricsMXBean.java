@@ -0,0 +1,53 @@
+package com.getperka.sea.metrics;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+
+/**
+ * The JMX view of a {@link DispatchMetrics}.
+ */
+public interface DispatchMetricsMXBean {
+  /**
+   * Statistics keyed by event type name.
+   */
+  Map<String, DispatchStats> getEventTypes();
+
+  /**
+   * The number of receiver invocations that have not yet completed.
+   */
+  int getPendingCount();
+
+  /**
+   * Statistics keyed by receiver method signature.
+   */
+  Map<String, DispatchStats> getReceivers();
+
+  /**
+   * Whether the time spent in each receiver method and each of its decorators is recorded. This is
+   * disabled by default, since it reads the clock twice per decorator on every invocation.
+   * 
+   * @see com.getperka.sea.ext.ConfigurationVisitor#decoratorTiming
+   */
+  boolean isDecoratorTiming();
+
+  void setDecoratorTiming(boolean decoratorTiming);
+}
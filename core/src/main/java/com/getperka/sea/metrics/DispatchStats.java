@@ -0,0 +1,101 @@
+package com.getperka.sea.metrics;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatch statistics for a single event type or receiver. All times are in nanoseconds.
+ */
+public class DispatchStats {
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong exceptionCount = new AtomicLong();
+  private final Histogram executionTime = new Histogram();
+  private final AtomicLong expiredCount = new AtomicLong();
+  private final Histogram queueWait = new Histogram();
+  private final AtomicLong suspensionCount = new AtomicLong();
+
+  /**
+   * Returns the number of times a receiver was invoked.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the number of invocations that ended with an exception.
+   */
+  public long getExceptionCount() {
+    return exceptionCount.get();
+  }
+
+  /**
+   * The time spent in decorators and receiver methods.
+   */
+  public Histogram getExecutionTime() {
+    return executionTime;
+  }
+
+  /**
+   * Returns the number of invocations that were skipped because the event's deadline had passed.
+   * Skipped invocations are not included in {@link #getCount()}.
+   */
+  public long getExpiredCount() {
+    return expiredCount.get();
+  }
+
+  /**
+   * The time between an event being fired and a receiver invocation beginning.
+   */
+  public Histogram getQueueWait() {
+    return queueWait;
+  }
+
+  /**
+   * Returns the number of invocations that were suspended.
+   */
+  public long getSuspensionCount() {
+    return suspensionCount.get();
+  }
+
+  /**
+   * Record a single invocation.
+   */
+  public void record(long queueWaitNanos, long executionNanos, boolean threw, boolean suspended) {
+    count.incrementAndGet();
+    queueWait.record(queueWaitNanos);
+    executionTime.record(executionNanos);
+    if (threw) {
+      exceptionCount.incrementAndGet();
+    }
+    if (suspended) {
+      suspensionCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Record an invocation that was skipped because the event's deadline had passed.
+   */
+  public void recordExpired(long queueWaitNanos) {
+    expiredCount.incrementAndGet();
+    queueWait.record(queueWaitNanos);
+  }
+}
@@ -0,0 +1,108 @@
+package com.getperka.sea.metrics;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative values with power-of-two bucket boundaries. Recording a
+ * value does not allocate, and percentiles are reported as the upper bound of the bucket that
+ * contains them, so they are accurate to within a factor of two.
+ */
+public class Histogram {
+  private static final int BUCKETS = 65;
+
+  /**
+   * Bucket {@code i} holds values in {@code [2^(i-1), 2^i)}, with zero in bucket 0.
+   */
+  private static int bucket(long value) {
+    return 64 - Long.numberOfLeadingZeros(value);
+  }
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long c = count.get();
+    return c == 0 ? 0 : (double) sum.get() / c;
+  }
+
+  public long getMedian() {
+    return getValueAtPercentile(50);
+  }
+
+  public long getPercentile99() {
+    return getValueAtPercentile(99);
+  }
+
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * Returns an upper bound for the value at the given percentile.
+   * 
+   * @param percentile a value between {@code 0} and {@code 100}
+   */
+  public long getValueAtPercentile(double percentile) {
+    long c = count.get();
+    if (c == 0) {
+      return 0;
+    }
+    long target = (long) Math.ceil(c * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= target) {
+        return i == 0 ? 0 : Math.min(max.get(), i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Record a value. Negative values are recorded as zero.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    buckets.incrementAndGet(bucket(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    for (long current = max.get(); value > current; current = max.get()) {
+      if (max.compareAndSet(current, value)) {
+        break;
+      }
+    }
+  }
+}
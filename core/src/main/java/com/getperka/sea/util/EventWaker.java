@@ -20,21 +20,25 @@ package com.getperka.sea.util;
  * #L%
  */
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.getperka.sea.ext.SuspendedEvent;
+import com.getperka.sea.impl.SuspendedEventImpl;
 
 /**
  * A utility class for associating a {@link SuspendedEvent} with a key object that will later be
@@ -43,37 +47,228 @@ import com.getperka.sea.ext.SuspendedEvent;
  * In addition to resuming events when a key is signaled, an EventWaker maintains a window of
  * recently-signaled keys to allow callers to detect a "just missed" condition.
  * <p>
+ * Registrations are partitioned across a number of independently-locked stripes by the hash of
+ * their keys, and resume deadlines are tracked by the {@link TimingWheel#shared() shared timing
+ * wheel}, so that very large numbers of events may be suspended at once. Timed-out events are
+ * resumed on the executor of the dispatch that suspended them, so that synchronous receivers never
+ * run on the wheel's thread. The recent-key window is periodically trimmed by a single daemon
+ * thread that is shared by all EventWaker instances.
+ * <p>
  * EventWaker instances are thread-safe.
  */
 public class EventWaker<T> {
   /**
-   * Prevents concurrent mutation of {@link #registration} or the queues that it contains.
+   * Periodically removes expired keys from {@link EventWaker#recentSignals}. The timeout does not
+   * keep the EventWaker alive, and stops rescheduling itself once the EventWaker has been
+   * collected.
+   */
+  private static class Cleanup extends TimingWheel.Timeout implements Runnable {
+    private final WeakReference<EventWaker<?>> waker;
+
+    Cleanup(EventWaker<?> waker) {
+      this.waker = new WeakReference<EventWaker<?>>(waker);
+    }
+
+    @Override
+    public void run() {
+      EventWaker<?> w = waker.get();
+      if (w == null) {
+        return;
+      }
+      w.cleanup();
+      TimingWheel.shared().schedule(this, w.getCleanupPeriodNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected void expire() {
+      Shared.EXECUTOR.execute(this);
+    }
+  }
+
+  /**
+   * Lazily creates the thread that trims the recent-key window and resumes events that don't
+   * belong to a dispatch.
+   */
+  private static class Shared {
+    static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+        new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "SEA EventWaker");
+            t.setDaemon(true);
+            return t;
+          }
+        });
+  }
+
+  /**
+   * A portion of the registrations.
+   */
+  private class Stripe {
+    /**
+     * Prevents concurrent mutation of {@link #registration} or the lists that it contains.
+     */
+    final Lock lock = new ReentrantLock();
+    final Map<T, Waiters> registration = new HashMap<T, Waiters>();
+
+    /**
+     * Remove all registrations, returning the events whose timeouts were canceled. Must be called
+     * while holding {@link #lock}.
+     */
+    void drain(Waiters waiters, List<SuspendedEvent> accumulator) {
+      for (Waiter w = waiters.head; w != null; w = w.next) {
+        w.list = null;
+        if (w.cancel()) {
+          accumulator.add(w.event);
+        }
+      }
+      waiters.head = null;
+      waiters.tail = null;
+      waiters.size = 0;
+    }
+  }
+
+  /**
+   * A registered event, which is linked into the list for its key until it is signaled or its
+   * timeout expires.
    */
-  private final Lock lock = new ReentrantLock();
+  private class Waiter extends TimingWheel.Timeout implements Runnable {
+    final SuspendedEvent event;
+    final T key;
+    /**
+     * The list that contains the waiter. Guarded by the stripe's lock.
+     */
+    Waiters list;
+    Waiter next;
+    Waiter prev;
+
+    Waiter(T key, SuspendedEvent event) {
+      this.event = event;
+      this.key = key;
+    }
+
+    /**
+     * Resume the timed-out event, cleaning up the registration along the way.
+     */
+    @Override
+    public void run() {
+      Stripe stripe = stripe(key);
+      stripe.lock.lock();
+      try {
+        Waiters waiters = list;
+        if (waiters != null) {
+          waiters.unlink(this);
+          if (waiters.size == 0) {
+            stripe.registration.remove(key);
+          }
+        }
+      } finally {
+        stripe.lock.unlock();
+      }
+      if (event instanceof SuspendedEventImpl) {
+        // Already running on the dispatch's executor, so don't submit the invocation again
+        try {
+          ((SuspendedEventImpl) event).resumeInCurrentThread();
+        } catch (IllegalStateException ignored) {}
+      } else {
+        quietResume(event);
+      }
+    }
+
+    /**
+     * Called with the wheel's slot locked, so the work is handed off to the dispatch's executor.
+     */
+    @Override
+    protected void expire() {
+      if (event instanceof SuspendedEventImpl) {
+        try {
+          ((SuspendedEventImpl) event).getExecutor().execute(this);
+          return;
+        } catch (RejectedExecutionException e) {
+          // The dispatch is shutting down, so resume the event wherever possible
+        }
+      }
+      Shared.EXECUTOR.execute(this);
+    }
+  }
+
+  /**
+   * The events registered for a single key, in registration order. Guarded by the stripe's lock.
+   */
+  private class Waiters {
+    Waiter head;
+    int size;
+    Waiter tail;
+
+    void link(Waiter w) {
+      w.list = this;
+      w.prev = tail;
+      if (tail == null) {
+        head = w;
+      } else {
+        tail.next = w;
+      }
+      tail = w;
+      size++;
+    }
+
+    void unlink(Waiter w) {
+      if (w.prev == null) {
+        head = w.next;
+      } else {
+        w.prev.next = w.next;
+      }
+      if (w.next == null) {
+        tail = w.prev;
+      } else {
+        w.next.prev = w.prev;
+      }
+      w.list = null;
+      w.next = null;
+      w.prev = null;
+      size--;
+    }
+  }
+
+  private static final long MAX_CLEANUP_PERIOD_NANOS = TimeUnit.MINUTES.toNanos(1);
+  private static final long MIN_CLEANUP_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
   private final ConcurrentMap<T, Long> recentSignals = new ConcurrentHashMap<T, Long>();
   private final AtomicLong recentWindowNanos = new AtomicLong();
-  private final Map<T, Queue<SuspendedEvent>> registration = new HashMap<T, Queue<SuspendedEvent>>();
-  private final ScheduledExecutorService svc = Executors.newSingleThreadScheduledExecutor();
+  private final int stripeMask;
+  private final List<Stripe> stripes;
 
   public EventWaker() {
-    svc.schedule(new Runnable() {
-      @Override
-      public void run() {
-        cleanup();
-      }
-    }, 1, TimeUnit.MINUTES);
+    // Use enough stripes that threads rarely contend
+    int count = Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4));
+    stripeMask = count - 1;
+    stripes = new ArrayList<Stripe>(count);
+    for (int i = 0; i < count; i++) {
+      stripes.add(new Stripe());
+    }
+
+    TimingWheel.shared().schedule(new Cleanup(this), MAX_CLEANUP_PERIOD_NANOS,
+        TimeUnit.NANOSECONDS);
   }
 
   /**
    * Reset all state in the EventWaker. Mainly intended for testing scenarios.
    */
   public void clear() {
-    lock.lock();
-    try {
-      recentSignals.clear();
-      registration.clear();
-    } finally {
-      lock.unlock();
+    recentSignals.clear();
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        for (Waiters waiters : stripe.registration.values()) {
+          // Forget the events, but allow their timeouts to resume them
+          while (waiters.head != null) {
+            waiters.unlink(waiters.head);
+          }
+        }
+        stripe.registration.clear();
+      } finally {
+        stripe.lock.unlock();
+      }
     }
   }
 
@@ -82,12 +277,13 @@ public class EventWaker<T> {
    * tracking for the given key.
    */
   public int getPendingEventCount(T key) {
-    lock.lock();
+    Stripe stripe = stripe(key);
+    stripe.lock.lock();
     try {
-      Queue<SuspendedEvent> queue = getQueue(key, false, false);
-      return queue == null ? 0 : queue.size();
+      Waiters waiters = stripe.registration.get(key);
+      return waiters == null ? 0 : waiters.size;
     } finally {
-      lock.unlock();
+      stripe.lock.unlock();
     }
   }
 
@@ -100,13 +296,8 @@ public class EventWaker<T> {
    *          timeout window from returning {@code true} unless the key is signaled again
    */
   public boolean isRecent(T key, boolean remove) {
-    lock.lock();
-    try {
-      Long nanoTime = remove ? recentSignals.remove(key) : recentSignals.get(key);
-      return nanoTime != null && (System.nanoTime() - nanoTime) < recentWindowNanos.get();
-    } finally {
-      lock.unlock();
-    }
+    Long nanoTime = remove ? recentSignals.remove(key) : recentSignals.get(key);
+    return nanoTime != null && (System.nanoTime() - nanoTime) < recentWindowNanos.get();
   }
 
   /**
@@ -114,6 +305,9 @@ public class EventWaker<T> {
    * or the given time duration has elapsed. Multiple events may be associated with the same key;
    * all events registered to a key will be resumed when that key is signaled.
    * <p>
+   * Timeouts are measured with the resolution of the {@link TimingWheel#shared() shared timing
+   * wheel}, so an event may be resumed up to one millisecond after {@code delay} has elapsed.
+   * <p>
    * It is not an error if the event is resumed by means other than the EventWaker.
    * <p>
    * This method will return immediately.
@@ -123,18 +317,21 @@ public class EventWaker<T> {
    * @param delay the amount of time after which the event will be automatically resumed
    * @param unit the measurement unit of {@code delay}
    */
-  public void resumeAfterSignal(final T key, final SuspendedEvent event, long delay, TimeUnit unit) {
-    lock.lock();
+  public void resumeAfterSignal(T key, SuspendedEvent event, long delay, TimeUnit unit) {
+    Waiter waiter = new Waiter(key, event);
+    Stripe stripe = stripe(key);
+    stripe.lock.lock();
     try {
-      getQueue(key, true, false).add(event);
-      svc.schedule(new Runnable() {
-        @Override
-        public void run() {
-          scheduleResume(key, event);
-        }
-      }, delay, unit);
+      Waiters waiters = stripe.registration.get(key);
+      if (waiters == null) {
+        waiters = new Waiters();
+        stripe.registration.put(key, waiters);
+      }
+      waiters.link(waiter);
+      // Schedule while locked, so that a concurrent signal will always be able to cancel
+      TimingWheel.shared().schedule(waiter, delay, unit);
     } finally {
-      lock.unlock();
+      stripe.lock.unlock();
     }
   }
 
@@ -157,18 +354,25 @@ public class EventWaker<T> {
    * Trigger any {@link SuspendedEvent} instances waiting for {@code key}.
    */
   public void signal(T key) {
-    lock.lock();
-    try {
+    if (recentWindowNanos.get() > 0) {
       recentSignals.put(key, System.nanoTime());
-      Queue<SuspendedEvent> queue = getQueue(key, false, true);
-      if (queue == null) {
+    }
+
+    List<SuspendedEvent> toResume = new ArrayList<SuspendedEvent>();
+    Stripe stripe = stripe(key);
+    stripe.lock.lock();
+    try {
+      Waiters waiters = stripe.registration.remove(key);
+      if (waiters == null) {
         return;
       }
-      for (SuspendedEvent evt : queue) {
-        quietResume(evt);
-      }
+      stripe.drain(waiters, toResume);
     } finally {
-      lock.unlock();
+      stripe.lock.unlock();
+    }
+
+    for (SuspendedEvent evt : toResume) {
+      quietResume(evt);
     }
   }
 
@@ -176,35 +380,35 @@ public class EventWaker<T> {
    * Resumes all registered {@link SuspendedEvent} instances.
    */
   public void signalAll() {
-    lock.lock();
-    try {
-      for (Queue<SuspendedEvent> queue : registration.values()) {
-        for (SuspendedEvent evt : queue) {
-          quietResume(evt);
+    List<SuspendedEvent> toResume = new ArrayList<SuspendedEvent>();
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        for (Waiters waiters : stripe.registration.values()) {
+          stripe.drain(waiters, toResume);
         }
+        stripe.registration.clear();
+      } finally {
+        stripe.lock.unlock();
       }
-      registration.clear();
-    } finally {
-      lock.unlock();
+    }
+
+    for (SuspendedEvent evt : toResume) {
+      quietResume(evt);
     }
   }
 
   void cleanup() {
-    lock.lock();
-    try {
-      long window = recentWindowNanos.get();
-      if (window <= 0) {
-        recentSignals.clear();
-        return;
-      }
-      long cutoff = System.nanoTime() - window;
-      for (Iterator<Long> it = recentSignals.values().iterator(); it.hasNext();) {
-        if (it.next() < cutoff) {
-          it.remove();
-        }
+    long window = recentWindowNanos.get();
+    if (window <= 0) {
+      recentSignals.clear();
+      return;
+    }
+    long cutoff = System.nanoTime() - window;
+    for (Iterator<Long> it = recentSignals.values().iterator(); it.hasNext();) {
+      if (it.next() < cutoff) {
+        it.remove();
       }
-    } finally {
-      lock.unlock();
     }
   }
 
@@ -215,13 +419,15 @@ public class EventWaker<T> {
     return recentSignals;
   }
 
-  private Queue<SuspendedEvent> getQueue(T key, boolean create, boolean remove) {
-    Queue<SuspendedEvent> queue = remove ? registration.remove(key) : registration.get(key);
-    if (queue == null && create) {
-      queue = new ConcurrentLinkedQueue<SuspendedEvent>();
-      registration.put(key, queue);
+  /**
+   * Trim the recent-key window about as often as keys fall out of it, within reasonable bounds.
+   */
+  private long getCleanupPeriodNanos() {
+    long window = recentWindowNanos.get();
+    if (window <= 0) {
+      return MAX_CLEANUP_PERIOD_NANOS;
     }
-    return queue;
+    return Math.max(MIN_CLEANUP_PERIOD_NANOS, Math.min(window, MAX_CLEANUP_PERIOD_NANOS));
   }
 
   private void quietResume(SuspendedEvent evt) {
@@ -230,22 +436,11 @@ public class EventWaker<T> {
     } catch (IllegalStateException ignored) {}
   }
 
-  /**
-   * Resume a {@link SuspendedEvent}, cleaning up {@link #registration} along the way.
-   */
-  private void scheduleResume(T key, final SuspendedEvent event) {
-    lock.lock();
-    try {
-      Queue<SuspendedEvent> queue = getQueue(key, false, false);
-      if (queue != null) {
-        queue.remove(event);
-        if (queue.isEmpty()) {
-          getQueue(key, false, true);
-        }
-      }
-    } finally {
-      lock.unlock();
-    }
-    quietResume(event);
+  private Stripe stripe(T key) {
+    int h = key == null ? 0 : key.hashCode();
+    // Spread the high bits, since only the low bits select the stripe
+    h ^= (h >>> 20) ^ (h >>> 12);
+    h ^= (h >>> 7) ^ (h >>> 4);
+    return stripes.get(h & stripeMask);
   }
 }
@@ -0,0 +1,197 @@
+package com.getperka.sea.util;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.ext.ConfigurationVisitor;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventObserver;
+import com.getperka.sea.ext.ReceiverDescriptor;
+import com.getperka.sea.impl.HasInjector;
+import com.google.inject.Key;
+
+/**
+ * Produces the reflection and serialization metadata that an ahead-of-time compiler such as
+ * GraalVM {@code native-image} needs to run a configured {@link EventDispatch}. The metadata is
+ * computed by visiting the dispatch, so the dispatch should have all of its receivers, global
+ * decorators, and observers registered before it is written.
+ * 
+ * <pre>
+ * EventDispatch dispatch = createProductionDispatch();
+ * NativeImageConfiguration.write(dispatch, new File(&quot;META-INF/native-image/com.example/app&quot;));
+ * </pre>
+ * 
+ * Types that are only registered via a subclass that declares no receiver methods of its own are
+ * not visible to the visitor and must be added to the metadata by hand.
+ */
+public class NativeImageConfiguration extends ConfigurationVisitor {
+  /**
+   * Visit the dispatch and write {@code reflect-config.json} and
+   * {@code serialization-config.json} into the given directory.
+   */
+  public static void write(EventDispatch dispatch, File directory) throws IOException {
+    NativeImageConfiguration config = new NativeImageConfiguration();
+    dispatch.accept(config);
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    Writer out = new FileWriter(new File(directory, "reflect-config.json"));
+    try {
+      config.writeReflectConfig(out);
+    } finally {
+      out.close();
+    }
+    out = new FileWriter(new File(directory, "serialization-config.json"));
+    try {
+      config.writeSerializationConfig(out);
+    } finally {
+      out.close();
+    }
+  }
+
+  private static void writeNames(Writer out, Collection<String> names, String attributes)
+      throws IOException {
+    out.write("[\n");
+    for (Iterator<String> it = names.iterator(); it.hasNext();) {
+      out.write("  { \"name\" : \"" + it.next() + "\"" + attributes + " }");
+      out.write(it.hasNext() ? ",\n" : "\n");
+    }
+    out.write("]\n");
+  }
+
+  /**
+   * Types that must be reflectively constructed, injected, or scanned.
+   */
+  private final Set<String> reflected = new TreeSet<String>();
+  /**
+   * Event types that may be handled by the default {@code EventTransport}.
+   */
+  private final Set<String> serialized = new TreeSet<String>();
+
+  @Override
+  public void decoratorBinding(Class<? extends Annotation> annotation,
+      Class<? extends EventDecorator<?, ?>> decorator) {
+    addType(annotation);
+    addType(decorator);
+  }
+
+  /**
+   * Records all types bound in the dispatch's injector, which includes SEA's own implementation
+   * types and any receivers, decorators, or observers that have been instantiated.
+   */
+  @Override
+  public void eventDispatch(EventDispatch dispatch) {
+    if (dispatch instanceof HasInjector) {
+      for (Key<?> key : ((HasInjector) dispatch).getInjector().getAllBindings().keySet()) {
+        addType(key.getTypeLiteral().getRawType());
+      }
+    }
+  }
+
+  public Set<String> getReflectedTypeNames() {
+    return reflected;
+  }
+
+  public Set<String> getSerializedTypeNames() {
+    return serialized;
+  }
+
+  @Override
+  public void observer(Annotation annotation, EventObserver<?, ?> observer) {
+    addType(annotation.annotationType());
+    addType(observer.getClass());
+  }
+
+  @Override
+  public void observerBinding(Class<? extends Annotation> annotation,
+      Class<? extends EventObserver<?, ?>> observer) {
+    addType(annotation);
+    addType(observer);
+  }
+
+  @Override
+  public void receiverMethod(Method method, Class<? extends Event> event,
+      List<Annotation> annotations) {
+    // Receiver types are scanned up to the root of their hierarchy
+    for (Class<?> clazz = method.getDeclaringClass(); clazz != null
+      && !Object.class.equals(clazz); clazz = clazz.getSuperclass()) {
+      addType(clazz);
+      addDescriptor(clazz);
+    }
+    for (Annotation annotation : annotations) {
+      addType(annotation.annotationType());
+    }
+    addType(event);
+    if (Serializable.class.isAssignableFrom(event)) {
+      serialized.add(event.getName());
+    }
+  }
+
+  /**
+   * Write the reflection metadata in {@code reflect-config.json} format.
+   */
+  public void writeReflectConfig(Writer out) throws IOException {
+    writeNames(out, reflected, ", \"allDeclaredConstructors\" : true, "
+      + "\"allDeclaredMethods\" : true, \"allDeclaredFields\" : true");
+  }
+
+  /**
+   * Write the serialization metadata in {@code serialization-config.json} format.
+   */
+  public void writeSerializationConfig(Writer out) throws IOException {
+    writeNames(out, serialized, "");
+  }
+
+  /**
+   * Include the {@link ReceiverDescriptor} generated for the type, if there is one.
+   */
+  private void addDescriptor(Class<?> clazz) {
+    ClassLoader loader = clazz.getClassLoader();
+    if (loader == null) {
+      return;
+    }
+    try {
+      addType(Class.forName(clazz.getName() + ReceiverDescriptor.SUFFIX, false, loader));
+    } catch (ClassNotFoundException ignored) {}
+  }
+
+  private void addType(Class<?> clazz) {
+    if (clazz.isPrimitive() || clazz.isArray() || clazz.getName().startsWith("java.")) {
+      return;
+    }
+    reflected.add(clazz.getName());
+  }
+}
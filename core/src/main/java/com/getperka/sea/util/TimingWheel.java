@@ -0,0 +1,281 @@
+package com.getperka.sea.util;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel that expires {@link Timeout} instances from a single background thread.
+ * Timeouts are linked directly into the wheel's slots, so scheduling and canceling a timeout does
+ * not allocate, and a {@link Timeout} may be rescheduled once it has expired or been canceled.
+ * <p>
+ * Timeouts expire no earlier than requested and, unless the wheel thread is starved, no later than
+ * one tick after. The thread parks while no timeouts are scheduled.
+ * <p>
+ * TimingWheel instances are thread-safe.
+ */
+public class TimingWheel {
+  /**
+   * An action to perform when a delay has elapsed. A Timeout may be scheduled with only one wheel
+   * at a time.
+   */
+  public abstract static class Timeout {
+    private volatile Slot slot;
+    private Timeout next;
+    private Timeout prev;
+    private long tick;
+
+    /**
+     * Prevent the timeout from expiring.
+     * 
+     * @return {@code true} if the timeout was scheduled and has been canceled, or {@code false} if
+     *         it was not scheduled or has already expired, in which case {@link #expire()} has
+     *         returned
+     */
+    public final boolean cancel() {
+      Slot s = slot;
+      if (s == null) {
+        return false;
+      }
+      synchronized (s) {
+        if (slot != s) {
+          return false;
+        }
+        s.unlink(this);
+      }
+      s.wheel().pending.decrementAndGet();
+      return true;
+    }
+
+    /**
+     * Returns {@code true} if the timeout is scheduled and has not yet expired.
+     */
+    public final boolean isScheduled() {
+      return slot != null;
+    }
+
+    /**
+     * Called from the wheel's thread once the timeout's delay has elapsed. The timeout's slot is
+     * locked while this method executes, so that {@link #cancel()} cannot return while the timeout
+     * is being expired. Implementations should therefore return quickly and must not block.
+     */
+    protected abstract void expire();
+  }
+
+  /**
+   * A doubly-linked list of the timeouts that expire on ticks congruent to the slot's index.
+   */
+  private class Slot {
+    private Timeout head;
+    /**
+     * The last tick for which the slot was examined. Guarded by the slot's monitor.
+     */
+    private long lastTick = -1;
+
+    void expire(long tick) {
+      synchronized (this) {
+        lastTick = tick;
+        Timeout t = head;
+        while (t != null) {
+          Timeout next = t.next;
+          if (t.tick <= tick) {
+            unlink(t);
+            pending.decrementAndGet();
+            try {
+              t.expire();
+            } catch (Throwable e) {
+              thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+            // The callback may have canceled or rescheduled the successor, so start over
+            if (next != null && next.slot != this) {
+              next = head;
+            }
+          }
+          t = next;
+        }
+      }
+    }
+
+    /**
+     * Must be called while holding the slot's monitor.
+     */
+    void link(Timeout t, long tick) {
+      t.tick = tick;
+      t.prev = null;
+      t.next = head;
+      if (head != null) {
+        head.prev = t;
+      }
+      head = t;
+      t.slot = this;
+    }
+
+    /**
+     * Must be called while holding the slot's monitor.
+     */
+    void unlink(Timeout t) {
+      if (t.prev == null) {
+        head = t.next;
+      } else {
+        t.prev.next = t.next;
+      }
+      if (t.next != null) {
+        t.next.prev = t.prev;
+      }
+      t.next = null;
+      t.prev = null;
+      t.slot = null;
+    }
+
+    TimingWheel wheel() {
+      return TimingWheel.this;
+    }
+  }
+
+  /**
+   * Lazily creates the shared wheel.
+   */
+  private static class Shared {
+    static final TimingWheel INSTANCE = new TimingWheel(1, TimeUnit.MILLISECONDS, 1024,
+        "SEA timing wheel");
+  }
+
+  /**
+   * Delays longer than this are truncated to avoid overflowing {@link System#nanoTime()}.
+   */
+  private static final long MAX_DELAY_NANOS = TimeUnit.DAYS.toNanos(365);
+
+  /**
+   * Returns a process-wide wheel with a one-millisecond tick.
+   */
+  public static TimingWheel shared() {
+    return Shared.INSTANCE;
+  }
+
+  private final int mask;
+  /**
+   * The number of scheduled timeouts, used to decide when the thread may park indefinitely.
+   */
+  private final AtomicInteger pending = new AtomicInteger();
+  private final Slot[] slots;
+  private final long start = System.nanoTime();
+  private final Thread thread;
+  private final long tickNanos;
+
+  /**
+   * Create a wheel and start its thread.
+   * 
+   * @param tick the resolution of the wheel
+   * @param unit the measurement unit of {@code tick}
+   * @param slots the number of slots in the wheel, which will be rounded up to a power of two
+   * @param threadName the name of the daemon thread that expires timeouts
+   */
+  public TimingWheel(long tick, TimeUnit unit, int slots, String threadName) {
+    if (tick <= 0 || slots <= 0) {
+      throw new IllegalArgumentException("The tick and the number of slots must be positive");
+    }
+    tickNanos = unit.toNanos(tick);
+    int size = Integer.highestOneBit(slots);
+    if (size < slots) {
+      size <<= 1;
+    }
+    mask = size - 1;
+    this.slots = new Slot[size];
+    for (int i = 0; i < size; i++) {
+      this.slots[i] = new Slot();
+    }
+
+    thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        TimingWheel.this.run();
+      }
+    }, threadName);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Returns the approximate number of scheduled timeouts.
+   */
+  public int getPendingCount() {
+    return pending.get();
+  }
+
+  /**
+   * Schedule a timeout to expire after the given delay.
+   * 
+   * @throws IllegalStateException if the timeout is already scheduled
+   */
+  public void schedule(Timeout timeout, long delay, TimeUnit unit) {
+    if (timeout.slot != null) {
+      throw new IllegalStateException("The timeout is already scheduled");
+    }
+    long delayNanos = Math.max(0, Math.min(unit.toNanos(delay), MAX_DELAY_NANOS));
+    long elapsed = System.nanoTime() + delayNanos - start;
+    // Round up, so that the timeout never expires early
+    long tick = (elapsed + tickNanos - 1) / tickNanos;
+
+    if (pending.getAndIncrement() == 0) {
+      LockSupport.unpark(thread);
+    }
+    for (;; tick++) {
+      Slot slot = slots[(int) (tick & mask)];
+      synchronized (slot) {
+        // If the wheel has already passed the desired tick, use the next one instead
+        if (tick > slot.lastTick) {
+          slot.link(timeout, tick);
+          return;
+        }
+      }
+    }
+  }
+
+  private void run() {
+    long current = (System.nanoTime() - start) / tickNanos;
+    for (;;) {
+      if (pending.get() == 0) {
+        LockSupport.park(this);
+      }
+      long now = System.nanoTime();
+      long target = (now - start) / tickNanos;
+      if (target <= current) {
+        LockSupport.parkNanos(this, start + (current + 1) * tickNanos - now);
+        continue;
+      }
+
+      if (target - current > mask) {
+        // After a long idle period, examine each slot once instead of every missed tick
+        for (int i = 0; i <= mask; i++) {
+          slots[(int) ((target - i) & mask)].expire(target - i);
+        }
+      } else {
+        while (current < target) {
+          current++;
+          slots[(int) (current & mask)].expire(current);
+        }
+      }
+      current = target;
+    }
+  }
+}
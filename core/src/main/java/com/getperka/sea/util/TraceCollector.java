@@ -0,0 +1,279 @@
+package com.getperka.sea.util;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.Registration;
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.EventContext;
+
+/**
+ * Rebuilds the tree of events caused by an originating event, using the
+ * {@link EventContext#getTraceId() trace id} and
+ * {@link EventContext#getParentSequenceNumber() parent sequence number} of each event. Each
+ * {@link Span} records when its event was dispatched and when its {@link DispatchCompleteEvent}
+ * was fired, so the end-to-end latency of a chain of events can be attributed to its links.
+ * <p>
+ * The collector is registered as a synchronous receiver of every event, so it should be used for
+ * diagnostics rather than left attached to a busy dispatch. Only the most recent spans are
+ * retained.
+ */
+public class TraceCollector {
+  /**
+   * The dispatch of a single event within a trace.
+   */
+  public static class Span {
+    private final List<Span> children = new CopyOnWriteArrayList<Span>();
+    private volatile long end;
+    private final Class<? extends Event> eventType;
+    private final long parentSequenceNumber;
+    private final long sequenceNumber;
+    private final long start;
+    private final long traceId;
+
+    Span(Class<? extends Event> eventType, EventContext context, long start) {
+      this.eventType = eventType;
+      this.parentSequenceNumber = context.getParentSequenceNumber();
+      this.sequenceNumber = context.getSequenceNumber();
+      this.start = start;
+      this.traceId = context.getTraceId();
+    }
+
+    /**
+     * Returns the spans of the events that were fired as a consequence of this span's event, in the
+     * order in which they were dispatched.
+     */
+    public List<Span> getChildren() {
+      return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Returns the time between the event being dispatched and all of its receivers completing, or
+     * {@code -1} if the receivers have not completed.
+     */
+    public long getDurationNanos() {
+      long e = end;
+      return e == 0 ? -1 : e - start;
+    }
+
+    public Class<? extends Event> getEventType() {
+      return eventType;
+    }
+
+    public long getParentSequenceNumber() {
+      return parentSequenceNumber;
+    }
+
+    public long getSequenceNumber() {
+      return sequenceNumber;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the event was dispatched.
+     */
+    public long getStartNanos() {
+      return start;
+    }
+
+    /**
+     * Returns the time between this span's event being dispatched and the completion of the last
+     * event in its subtree.
+     */
+    public long getTotalNanos() {
+      return lastEnd() - start;
+    }
+
+    public long getTraceId() {
+      return traceId;
+    }
+
+    /**
+     * Returns {@code true} if the receivers for this span and all of its descendants have
+     * completed.
+     */
+    public boolean isComplete() {
+      if (end == 0) {
+        return false;
+      }
+      for (Span child : children) {
+        if (!child.isComplete()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Renders the subtree, one span per line, with offsets and durations in microseconds.
+     */
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      append(sb, start, 0);
+      return sb.toString();
+    }
+
+    private void append(StringBuilder sb, long origin, int depth) {
+      for (int i = 0; i < depth; i++) {
+        sb.append("  ");
+      }
+      sb.append(eventType.getName()).append(" #").append(sequenceNumber)
+          .append(" +").append((start - origin) / 1000).append("us ");
+      long duration = getDurationNanos();
+      sb.append(duration < 0 ? "(pending)" : duration / 1000 + "us").append("\n");
+      for (Span child : children) {
+        child.append(sb, origin, depth + 1);
+      }
+    }
+
+    private long lastEnd() {
+      long toReturn = end == 0 ? start : end;
+      for (Span child : children) {
+        toReturn = Math.max(toReturn, child.lastEnd());
+      }
+      return toReturn;
+    }
+  }
+
+  private static final int DEFAULT_MAX_SPANS = 10000;
+
+  /**
+   * Creates a collector that is registered with the given dispatch and retains a default number of
+   * spans.
+   */
+  public static TraceCollector create(EventDispatch dispatch) {
+    return create(dispatch, DEFAULT_MAX_SPANS);
+  }
+
+  /**
+   * Creates a collector that is registered with the given dispatch.
+   * 
+   * @param dispatch the dispatch to observe
+   * @param maxSpans the number of spans to retain
+   */
+  public static TraceCollector create(EventDispatch dispatch, int maxSpans) {
+    TraceCollector toReturn = new TraceCollector(maxSpans);
+    toReturn.registration = dispatch.register(toReturn);
+    return toReturn;
+  }
+
+  private Registration registration;
+  /**
+   * The spans of events without a local parent, keyed by trace id.
+   */
+  private final Map<Long, List<Span>> roots = new HashMap<Long, List<Span>>();
+  /**
+   * All retained spans, keyed by sequence number and evicted in insertion order.
+   */
+  private final Map<Long, Span> spans;
+
+  protected TraceCollector(final int maxSpans) {
+    spans = new LinkedHashMap<Long, Span>() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Span> eldest) {
+        if (size() <= maxSpans) {
+          return false;
+        }
+        Span span = eldest.getValue();
+        List<Span> list = roots.get(span.getTraceId());
+        if (list != null && list.remove(span) && list.isEmpty()) {
+          roots.remove(span.getTraceId());
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Stop collecting spans. Spans that have already been collected remain available.
+   */
+  public void cancel() {
+    registration.cancel();
+  }
+
+  /**
+   * Returns the spans in a trace that have no retained parent. This is normally the single
+   * originating event, but will contain additional spans if the trace entered this process more
+   * than once (e.g. through a messaging system) or if a parent has been evicted.
+   */
+  public synchronized List<Span> getTrace(long traceId) {
+    List<Span> list = roots.get(traceId);
+    return list == null ? Collections.<Span> emptyList() : new ArrayList<Span>(list);
+  }
+
+  /**
+   * Returns the ids of the traces with retained spans.
+   */
+  public synchronized List<Long> getTraceIds() {
+    return new ArrayList<Long>(roots.keySet());
+  }
+
+  @Receiver(synchronous = true)
+  synchronized void complete(DispatchCompleteEvent evt) {
+    Span span = spans.get(evt.getContext().getSequenceNumber());
+    if (span != null && span.getTraceId() == evt.getContext().getTraceId()) {
+      span.end = System.nanoTime();
+    }
+  }
+
+  @Receiver(synchronous = true)
+  synchronized void dispatched(Event evt, EventContext context) {
+    if (evt instanceof DispatchCompleteEvent) {
+      return;
+    }
+    Span span = new Span(evt.getClass(), context, System.nanoTime());
+    spans.put(span.getSequenceNumber(), span);
+
+    // A parent in another process may share a sequence number with an unrelated local event
+    Span parent = spans.get(span.getParentSequenceNumber());
+    if (parent != null && parent.getTraceId() == span.getTraceId()) {
+      parent.children.add(span);
+      return;
+    }
+    List<Span> list = roots.get(span.getTraceId());
+    if (list == null) {
+      list = new ArrayList<Span>();
+      roots.put(span.getTraceId(), list);
+    }
+    // Receivers run concurrently, so a child may have been recorded before this span
+    for (Iterator<Span> it = list.iterator(); it.hasNext();) {
+      Span child = it.next();
+      if (child.getParentSequenceNumber() == span.getSequenceNumber()) {
+        span.children.add(child);
+        it.remove();
+      }
+    }
+    list.add(span);
+  }
+}
@@ -0,0 +1,151 @@
+package com.getperka.sea;
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.EventContext;
+
+/**
+ * Tests {@link EventDispatch#fireWithDeadline}.
+ */
+public class DeadlineTest {
+  static class Blocker implements Event {}
+
+  static class MyEvent implements Event {}
+
+  static class MyReceiver {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final BlockingQueue<DispatchCompleteEvent> completed =
+        new LinkedBlockingQueue<DispatchCompleteEvent>();
+    final BlockingQueue<EventContext> received = new LinkedBlockingQueue<EventContext>();
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @Receiver
+    void block(Blocker evt) throws InterruptedException {
+      blocked.countDown();
+      release.await();
+    }
+
+    @Receiver
+    void complete(DispatchCompleteEvent evt) {
+      if (evt.getSource() instanceof MyEvent) {
+        completed.add(evt);
+      }
+    }
+
+    @Receiver
+    void myEvent(MyEvent evt, EventContext context) {
+      received.add(context);
+    }
+  }
+
+  static class Trigger implements Event {}
+
+  static class TriggerReceiver {
+    @Inject
+    EventDispatch dispatch;
+
+    @Receiver
+    void trigger(Trigger evt) {
+      dispatch.fire(new MyEvent());
+    }
+  }
+
+  private EventDispatch dispatch;
+  private ExecutorService executor;
+  private MyReceiver receiver;
+
+  @After
+  public void after() {
+    dispatch.shutdown();
+    executor.shutdownNow();
+  }
+
+  @Before
+  public void before() {
+    // A single thread makes it easy to hold events in the queue
+    executor = Executors.newSingleThreadExecutor();
+    dispatch = EventDispatchers.create(executor);
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testExpired() throws InterruptedException {
+    dispatch.fire(new Blocker());
+    receiver.blocked.await();
+
+    dispatch.fireWithDeadline(new MyEvent(), 1, TimeUnit.MILLISECONDS);
+    Thread.sleep(10);
+    receiver.release.countDown();
+
+    DispatchCompleteEvent complete = receiver.completed.take();
+    assertFalse(complete.wasReceived());
+    DispatchResult result = complete.getResults().get(0);
+    assertTrue(result.wasExpired());
+    assertFalse(result.wasReceived());
+    assertTrue(receiver.received.isEmpty());
+    assertEquals(1, dispatch.getMetrics().getEventTypeStats(MyEvent.class).getExpiredCount());
+    assertEquals(0, dispatch.getMetrics().getEventTypeStats(MyEvent.class).getCount());
+  }
+
+  /**
+   * Events fired by a receiver inherit the deadline of the event being received.
+   */
+  @Test(timeout = TestConstants.testDelay)
+  public void testInherited() throws InterruptedException {
+    dispatch.register(TriggerReceiver.class);
+    dispatch.fireWithDeadline(new Trigger(), 1, TimeUnit.MINUTES);
+    EventContext context = receiver.received.take();
+    assertTrue(context.getDeadline() != 0);
+    assertTrue(context.getDeadline() - context.getFireTime() <= TimeUnit.MINUTES.toNanos(1));
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testNotExpired() throws InterruptedException {
+    dispatch.fireWithDeadline(new MyEvent(), 1, TimeUnit.MINUTES);
+    receiver.received.take();
+    DispatchResult result = receiver.completed.take().getResults().get(0);
+    assertFalse(result.wasExpired());
+    assertTrue(result.wasReceived());
+
+    // Events without a deadline never expire
+    dispatch.fire(new MyEvent());
+    assertEquals(0, receiver.received.take().getDeadline());
+  }
+}
@@ -0,0 +1,103 @@
+package com.getperka.sea;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.impl.DispatchMap;
+import com.getperka.sea.impl.HasInjector;
+import com.getperka.sea.impl.ReceiverMap;
+import com.getperka.sea.inject.EventExecutor;
+import com.getperka.sea.util.EventLatch;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+public class EventDispatchGroupTest {
+  static class MyEvent implements Event {}
+
+  static class MyReceiver {
+    final AtomicInteger received = new AtomicInteger();
+
+    @Receiver(synchronous = true)
+    void receive(MyEvent evt) {
+      received.incrementAndGet();
+    }
+  }
+
+  private EventDispatch a;
+  private EventDispatch b;
+
+  @Before
+  public void before() {
+    EventDispatchGroup group = EventDispatchGroup.create();
+    a = group.createDispatch();
+    b = group.createDispatch();
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testIsolation() {
+    MyReceiver receiverA = new MyReceiver();
+    MyReceiver receiverB = new MyReceiver();
+    a.register(receiverA);
+    b.register(receiverB);
+
+    a.fire(new MyEvent());
+    assertEquals(1, receiverA.received.get());
+    assertEquals(0, receiverB.received.get());
+
+    // Draining one dispatch doesn't affect the other
+    a.setDraining(true);
+    assertTrue(a.isDraining());
+    assertFalse(b.isDraining());
+    b.fire(new MyEvent());
+    assertEquals(1, receiverB.received.get());
+
+    // Asynchronous dispatch still works through the shared executor
+    assertSame(MyEvent.class,
+        EventLatch.create(b, MyEvent.class, 1)
+            .awaitSingleEventAfter(new MyEvent(), 1, TimeUnit.SECONDS).getClass());
+  }
+
+  @Test
+  public void testSharing() {
+    assertNotSame(a, b);
+
+    Injector injectorA = ((HasInjector) a).getInjector();
+    Injector injectorB = ((HasInjector) b).getInjector();
+    assertNotSame(injectorA.getInstance(DispatchMap.class),
+        injectorB.getInstance(DispatchMap.class));
+    assertSame(injectorA.getInstance(ReceiverMap.class), injectorB.getInstance(ReceiverMap.class));
+
+    Key<ExecutorService> executorKey = Key.get(ExecutorService.class, EventExecutor.class);
+    assertSame(injectorA.getInstance(executorKey), injectorB.getInstance(executorKey));
+  }
+}
@@ -28,7 +28,11 @@ import java.lang.annotation.RetentionPolicy;
 
 import org.junit.Test;
 
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.ReceiverTarget;
 import com.getperka.sea.impl.ReceiverMethodInvocation;
+import com.getperka.sea.inject.CurrentEvent;
 import com.getperka.sea.util.EventLatch;
 import com.google.inject.AbstractModule;
 import com.google.inject.name.Names;
@@ -62,6 +66,29 @@ public class InjectionTest {
     assertTrue(latch.getEventQueue().poll().ok);
   }
 
+  /**
+   * Verify the values that are supplied directly by the invocation, rather than the injector.
+   */
+  @Test(timeout = TestConstants.testDelay)
+  public void testBuiltInBindings() {
+    EventDispatch dispatch = EventDispatchers.create();
+
+    EventLatch<MyEvent> latch = new EventLatch<MyEvent>(dispatch, 1) {
+      @Receiver
+      void receiver(EventContext context, @CurrentEvent MyEvent evt, DispatchResult result,
+          ReceiverTarget target, ReceiverMethodInvocation invocation) {
+        evt.ok = context != null && context.getSequenceNumber() > 0
+          && evt == result.getEvent() && target == result.getTarget()
+          && result == invocation.getDispatchResult();
+        countDown(evt);
+      }
+    };
+    dispatch.fire(new MyEvent());
+
+    latch.awaitUninterruptibly();
+    assertTrue(latch.getEventQueue().poll().ok);
+  }
+
   @Test
   public void testBadReceiverDeclaration() {
     try {
@@ -0,0 +1,177 @@
+package com.getperka.sea;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.ext.ConfigurationVisitor;
+
+/**
+ * Verifies the reuse of {@link Reusable} receiver instances.
+ */
+public class ReusableReceiverTest {
+  static class MyEvent implements Event {}
+
+  static class NestedEvent implements Event {
+    final int depth;
+
+    NestedEvent(int depth) {
+      this.depth = depth;
+    }
+  }
+
+  @Reusable(Reusable.Mode.PER_THREAD)
+  static class PerThreadReceiver {
+    static final AtomicInteger created = new AtomicInteger();
+    static EventDispatch dispatch;
+    static final Set<Object> seen = Collections.synchronizedSet(Collections
+        .newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+
+    PerThreadReceiver() {
+      created.incrementAndGet();
+    }
+
+    @Receiver(synchronous = true)
+    void receive(NestedEvent evt) {
+      seen.add(this);
+      if (evt.depth > 0) {
+        dispatch.fire(new NestedEvent(evt.depth - 1));
+      }
+    }
+  }
+
+  @Reusable(Reusable.Mode.POOLED)
+  static class PooledReceiver {
+    static final AtomicInteger created = new AtomicInteger();
+    static final Set<Object> seen = Collections.synchronizedSet(Collections
+        .newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+
+    PooledReceiver() {
+      created.incrementAndGet();
+    }
+
+    @Receiver(synchronous = true)
+    void receive(MyEvent evt) {
+      seen.add(this);
+    }
+  }
+
+  @Reusable(Reusable.Mode.SINGLETON)
+  static class SingletonReceiver {
+    static final AtomicInteger created = new AtomicInteger();
+
+    SingletonReceiver() {
+      created.incrementAndGet();
+    }
+
+    @Receiver(synchronous = true)
+    void receive(MyEvent evt) {}
+  }
+
+  static class UnpooledReceiver {
+    static final AtomicInteger created = new AtomicInteger();
+
+    UnpooledReceiver() {
+      created.incrementAndGet();
+    }
+
+    @Receiver(synchronous = true)
+    void receive(MyEvent evt) {}
+  }
+
+  private EventDispatch dispatch;
+
+  @Before
+  public void before() {
+    dispatch = EventDispatchers.create();
+    PooledReceiver.created.set(0);
+    PooledReceiver.seen.clear();
+    PerThreadReceiver.created.set(0);
+    PerThreadReceiver.dispatch = dispatch;
+    PerThreadReceiver.seen.clear();
+    SingletonReceiver.created.set(0);
+    UnpooledReceiver.created.set(0);
+  }
+
+  @Test
+  public void testPooled() {
+    dispatch.register(PooledReceiver.class);
+    for (int i = 0; i < 10; i++) {
+      dispatch.fire(new MyEvent());
+    }
+    assertEquals(1, PooledReceiver.created.get());
+    assertEquals(1, PooledReceiver.seen.size());
+
+    final long[] counts = new long[2];
+    dispatch.accept(new ConfigurationVisitor() {
+      @Override
+      public void receiverInstances(Class<?> receiver, Reusable.Mode mode, long hits,
+          long misses) {
+        assertEquals(PooledReceiver.class, receiver);
+        assertEquals(Reusable.Mode.POOLED, mode);
+        counts[0] = hits;
+        counts[1] = misses;
+      }
+    });
+    assertEquals(9, counts[0]);
+    assertEquals(1, counts[1]);
+  }
+
+  @Test
+  public void testPerThreadReentrant() {
+    dispatch.register(PerThreadReceiver.class);
+    dispatch.fire(new NestedEvent(1));
+    // The nested dispatch must not share the instance that is still in use
+    assertEquals(2, PerThreadReceiver.seen.size());
+
+    // The retained instance is reused once it has been released
+    dispatch.fire(new NestedEvent(0));
+    assertEquals(2, PerThreadReceiver.seen.size());
+    assertEquals(2, PerThreadReceiver.created.get());
+  }
+
+  @Test
+  public void testSingleton() {
+    dispatch.register(SingletonReceiver.class);
+    for (int i = 0; i < 10; i++) {
+      dispatch.fire(new MyEvent());
+    }
+    assertEquals(1, SingletonReceiver.created.get());
+  }
+
+  @Test
+  public void testUnpooled() {
+    dispatch.register(UnpooledReceiver.class);
+    for (int i = 0; i < 10; i++) {
+      dispatch.fire(new MyEvent());
+    }
+    assertTrue(UnpooledReceiver.created.get() >= 10);
+  }
+}
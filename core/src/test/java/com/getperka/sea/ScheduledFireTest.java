@@ -0,0 +1,163 @@
+package com.getperka.sea;
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.ext.EventContext;
+
+/**
+ * Tests {@link EventDispatch#fireAfter}, {@link EventDispatch#fireAt}, and
+ * {@link EventDispatch#fireAtFixedRate}.
+ */
+public class ScheduledFireTest {
+  static class MyEvent implements Event {}
+
+  static class MyReceiver {
+    final BlockingQueue<EventContext> contexts = new LinkedBlockingQueue<EventContext>();
+    final BlockingQueue<Long> received = new LinkedBlockingQueue<Long>();
+
+    @Receiver
+    void myEvent(MyEvent evt, EventContext context) {
+      contexts.add(context);
+      received.add(System.nanoTime());
+    }
+  }
+
+  static class Trigger implements Event {}
+
+  static class TriggerReceiver {
+    @Inject
+    EventDispatch dispatch;
+
+    @Receiver
+    void trigger(Trigger evt) {
+      dispatch.fireAfter(new MyEvent(), 1, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private EventDispatch dispatch;
+  private MyReceiver receiver;
+
+  @After
+  public void after() {
+    dispatch.shutdown();
+  }
+
+  @Before
+  public void before() {
+    dispatch = EventDispatchers.create();
+    receiver = new MyReceiver();
+    dispatch.register(receiver);
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testCancel() throws InterruptedException {
+    Registration registration = dispatch.fireAfter(new MyEvent(), 10, TimeUnit.MILLISECONDS);
+    registration.cancel();
+    // Canceling twice has no effect
+    registration.cancel();
+    assertEquals(null, receiver.received.poll(50, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Events that come due while draining are discarded.
+   */
+  @Test(timeout = TestConstants.testDelay)
+  public void testDraining() throws InterruptedException {
+    dispatch.setDraining(true);
+    dispatch.fireAfter(new MyEvent(), 1, TimeUnit.MILLISECONDS);
+    assertEquals(null, receiver.received.poll(50, TimeUnit.MILLISECONDS));
+
+    dispatch.setDraining(false);
+    dispatch.fireAfter(new MyEvent(), 1, TimeUnit.MILLISECONDS);
+    receiver.received.take();
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testFireAfter() throws InterruptedException {
+    long start = System.nanoTime();
+    dispatch.fireAfter(new MyEvent(), 20, TimeUnit.MILLISECONDS);
+    long received = receiver.received.take();
+    assertTrue(received - start >= TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testFireAt() throws InterruptedException {
+    dispatch.fireAt(new MyEvent(), new Date(System.currentTimeMillis() + 10));
+    // A time in the past fires immediately
+    dispatch.fireAt(new MyEvent(), new Date(0));
+    receiver.received.take();
+    receiver.received.take();
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testFixedRate() throws InterruptedException {
+    Registration registration = dispatch.fireAtFixedRate(new Provider<MyEvent>() {
+      @Override
+      public MyEvent get() {
+        return new MyEvent();
+      }
+    }, 0, 5, TimeUnit.MILLISECONDS);
+    for (int i = 0; i < 3; i++) {
+      receiver.received.take();
+    }
+    registration.cancel();
+
+    // Allow an occurrence that was already queued to finish
+    Thread.sleep(20);
+    receiver.received.clear();
+    assertEquals(null, receiver.received.poll(50, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * A delayed event fired from within a receiver is caused by the event being received.
+   */
+  @Test(timeout = TestConstants.testDelay)
+  public void testFromReceiver() throws InterruptedException {
+    dispatch.register(TriggerReceiver.class);
+    dispatch.fire(new Trigger());
+    EventContext context = receiver.contexts.take();
+    assertTrue(context.getParentSequenceNumber() > 0);
+  }
+
+  @Test(timeout = TestConstants.testDelay)
+  public void testShutdown() throws InterruptedException {
+    dispatch.fireAfter(new MyEvent(), 20, TimeUnit.MILLISECONDS);
+    dispatch.shutdown();
+    assertEquals(null, receiver.received.poll(50, TimeUnit.MILLISECONDS));
+    assertNotNull(dispatch.fireAfter(new MyEvent(), 0, TimeUnit.MILLISECONDS));
+    assertEquals(null, receiver.received.poll(20, TimeUnit.MILLISECONDS));
+  }
+}
@@ -0,0 +1,120 @@
+package com.getperka.sea;
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventDecoratorBinding;
+import com.getperka.sea.ext.StatelessDecorator;
+
+/**
+ * Verifies that {@link StatelessDecorator} instances and their contexts are reused.
+ */
+public class StatelessDecoratorTest {
+  @EventDecoratorBinding(MyDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Audited {}
+
+  static class MyEvent implements Event {
+    boolean nested;
+  }
+
+  @StatelessDecorator
+  static class MyDecorator implements EventDecorator<Audited, MyEvent> {
+    static final AtomicInteger instances = new AtomicInteger();
+    static final List<Context<Audited, MyEvent>> seen = new ArrayList<Context<Audited, MyEvent>>();
+
+    MyDecorator() {
+      instances.incrementAndGet();
+    }
+
+    @Override
+    public Callable<Object> wrap(Context<Audited, MyEvent> ctx) {
+      seen.add(ctx);
+      return ctx.getWork();
+    }
+  }
+
+  @Audited
+  static class MyReceiver {
+    EventDispatch dispatch;
+    final List<MyEvent> received = new ArrayList<MyEvent>();
+
+    @Receiver(synchronous = true)
+    void receive(MyEvent evt) {
+      received.add(evt);
+      if (evt.nested) {
+        dispatch.fire(new MyEvent());
+      }
+    }
+  }
+
+  private EventDispatch dispatch;
+  private MyReceiver receiver;
+
+  @Before
+  public void before() {
+    MyDecorator.instances.set(0);
+    MyDecorator.seen.clear();
+    dispatch = EventDispatchers.create();
+    receiver = new MyReceiver();
+    receiver.dispatch = dispatch;
+    dispatch.register(receiver);
+  }
+
+  @Test
+  public void testContextReused() {
+    dispatch.fire(new MyEvent());
+    dispatch.fire(new MyEvent());
+
+    assertEquals(2, receiver.received.size());
+    assertEquals(1, MyDecorator.instances.get());
+    assertEquals(2, MyDecorator.seen.size());
+    assertSame(MyDecorator.seen.get(0), MyDecorator.seen.get(1));
+  }
+
+  @Test
+  public void testNestedDispatch() {
+    dispatch.fire(new MyEvent());
+    MyEvent outer = new MyEvent();
+    outer.nested = true;
+    dispatch.fire(outer);
+
+    assertEquals(3, receiver.received.size());
+    assertEquals(1, MyDecorator.instances.get());
+    assertEquals(3, MyDecorator.seen.size());
+    // The outer invocation reuses the first context, the nested invocation needs its own
+    assertSame(MyDecorator.seen.get(0), MyDecorator.seen.get(1));
+    assertNotSame(MyDecorator.seen.get(1), MyDecorator.seen.get(2));
+  }
+}
@@ -0,0 +1,104 @@
+package com.getperka.sea;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventDecoratorBinding;
+import com.getperka.sea.ext.StatelessDecorator;
+
+/**
+ * Verifies that {@link EventDispatch#warmUp} creates reusable decorators ahead of time.
+ */
+public class WarmUpTest {
+  @EventDecoratorBinding(MyDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Counted {}
+
+  static class MyEvent implements Event {}
+
+  @StatelessDecorator
+  static class MyDecorator implements EventDecorator<Counted, MyEvent> {
+    static final AtomicInteger instances = new AtomicInteger();
+    static final AtomicInteger wrapped = new AtomicInteger();
+
+    MyDecorator() {
+      instances.incrementAndGet();
+    }
+
+    @Override
+    public Callable<Object> wrap(Context<Counted, MyEvent> ctx) {
+      wrapped.incrementAndGet();
+      return ctx.getWork();
+    }
+  }
+
+  static class MyReceiver {
+    static final AtomicInteger received = new AtomicInteger();
+
+    @Counted
+    @Receiver(synchronous = true)
+    static void receive(MyEvent evt) {
+      received.incrementAndGet();
+    }
+  }
+
+  private EventDispatch dispatch;
+
+  @Before
+  public void before() {
+    dispatch = EventDispatchers.create();
+    dispatch.register(MyReceiver.class);
+    MyDecorator.instances.set(0);
+    MyDecorator.wrapped.set(0);
+    MyReceiver.received.set(0);
+  }
+
+  @Test
+  public void testExplicitTypes() {
+    dispatch.warmUp(Collections.<Class<? extends Event>> singletonList(MyEvent.class));
+    assertEquals(1, MyDecorator.instances.get());
+    assertEquals(0, MyDecorator.wrapped.get());
+    assertEquals(0, MyReceiver.received.get());
+
+    dispatch.fire(new MyEvent());
+    assertEquals(1, MyDecorator.instances.get());
+    assertEquals(1, MyDecorator.wrapped.get());
+    assertEquals(1, MyReceiver.received.get());
+  }
+
+  @Test
+  public void testRegisteredTypes() {
+    dispatch.warmUp();
+    assertEquals(1, MyDecorator.instances.get());
+    assertEquals(0, MyReceiver.received.get());
+  }
+}
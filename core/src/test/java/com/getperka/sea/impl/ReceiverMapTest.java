@@ -0,0 +1,75 @@
+package com.getperka.sea.impl;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.Registration;
+import com.getperka.sea.ext.ReceiverTarget;
+
+public class ReceiverMapTest {
+  static class MyEvent implements Event {}
+
+  static class MyReceiver {
+    @Receiver
+    void receive(MyEvent evt) {}
+  }
+
+  private DispatchMap dispatchMap;
+  private ReceiverMap receiverMap;
+
+  @Before
+  public void before() {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatchMap = ((HasInjector) dispatch).getInjector().getInstance(DispatchMap.class);
+    receiverMap = ((HasInjector) dispatch).getInjector().getInstance(ReceiverMap.class);
+  }
+
+  @Test
+  public void testSharedMetadata() {
+    assertSame(receiverMap.getDeclarations(MyReceiver.class),
+        receiverMap.getDeclarations(MyReceiver.class));
+
+    Registration r1 = dispatchMap.register(new MyReceiver());
+    dispatchMap.register(new MyReceiver());
+
+    List<ReceiverTarget> targets = dispatchMap.getTargets(MyEvent.class);
+    assertEquals(2, targets.size());
+    ReceiverTargetImpl t1 = (ReceiverTargetImpl) targets.get(0);
+    ReceiverTargetImpl t2 = (ReceiverTargetImpl) targets.get(1);
+    assertNotSame(t1, t2);
+    assertSame(t1.getReceiverMethod(), t2.getReceiverMethod());
+
+    r1.cancel();
+    assertEquals(1, dispatchMap.getTargets(MyEvent.class).size());
+  }
+}
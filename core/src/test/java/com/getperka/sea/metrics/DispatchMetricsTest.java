@@ -0,0 +1,140 @@
+package com.getperka.sea.metrics;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+
+/**
+ * Verifies the statistics recorded by {@link DispatchMetrics}.
+ */
+public class DispatchMetricsTest {
+  static class MyEvent implements Event {
+    boolean fail;
+  }
+
+  static class MyReceiver {
+    @Receiver(synchronous = true)
+    static void receive(MyEvent evt) {
+      if (evt.fail) {
+        throw new RuntimeException("Expected");
+      }
+    }
+  }
+
+  private EventDispatch dispatch;
+
+  @Before
+  public void before() {
+    dispatch = EventDispatchers.create();
+    dispatch.register(MyReceiver.class);
+  }
+
+  @Test
+  public void testHistogram() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getValueAtPercentile(50));
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(5050, histogram.getSum());
+    assertEquals(100, histogram.getMax());
+    assertEquals(50.5, histogram.getMean(), 0.001);
+    // 50 falls in the [32, 64) bucket
+    assertEquals(63, histogram.getMedian());
+    assertEquals(100, histogram.getPercentile99());
+  }
+
+  @Test
+  public void testMBean() throws Exception {
+    dispatch.fire(new MyEvent());
+
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    ObjectName name = dispatch.getMetrics().registerMBean(server, "test");
+    assertEquals(0, server.getAttribute(name, "PendingCount"));
+    TabularData eventTypes = (TabularData) server.getAttribute(name, "EventTypes");
+    assertEquals(1, eventTypes.size());
+    TabularData receivers = (TabularData) server.getAttribute(name, "Receivers");
+    assertEquals(1, receivers.size());
+  }
+
+  @Test
+  public void testRecording() {
+    dispatch.fire(new MyEvent());
+    dispatch.fire(new MyEvent());
+    MyEvent failing = new MyEvent();
+    failing.fail = true;
+    dispatch.fire(failing);
+
+    DispatchMetrics metrics = dispatch.getMetrics();
+    DispatchStats eventStats = metrics.getEventTypeStats(MyEvent.class);
+    assertNotNull(eventStats);
+    assertEquals(3, eventStats.getCount());
+    assertEquals(1, eventStats.getExceptionCount());
+    assertEquals(0, eventStats.getSuspensionCount());
+    assertEquals(3, eventStats.getExecutionTime().getCount());
+    assertEquals(3, eventStats.getQueueWait().getCount());
+
+    Map<String, DispatchStats> receivers = metrics.getReceivers();
+    assertEquals(1, receivers.size());
+    DispatchStats receiverStats = receivers.values().iterator().next();
+    assertEquals(3, receiverStats.getCount());
+    assertEquals(1, receiverStats.getExceptionCount());
+    assertTrue(metrics.getEventTypes().containsKey(MyEvent.class.getName()));
+  }
+
+  @Test
+  public void testReporter() {
+    final AtomicInteger reports = new AtomicInteger();
+    MetricsReporter reporter = new MetricsReporter() {
+      @Override
+      public void report(DispatchMetrics metrics) {
+        reports.incrementAndGet();
+        assertEquals(0, metrics.getPendingCount());
+      }
+    };
+    dispatch.getMetrics().addReporter(reporter);
+    dispatch.getMetrics().report();
+    assertEquals(1, reports.get());
+
+    dispatch.getMetrics().removeReporter(reporter);
+    dispatch.getMetrics().report();
+    assertEquals(1, reports.get());
+  }
+}
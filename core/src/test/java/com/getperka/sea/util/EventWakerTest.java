@@ -21,14 +21,25 @@ package com.getperka.sea.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.SuspendedEvent;
 
 /**
@@ -38,13 +49,87 @@ public class EventWakerTest {
   static class FakeSuspendedEvent implements SuspendedEvent {
     final AtomicBoolean didResume = new AtomicBoolean();
     final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicInteger resumeCount = new AtomicInteger();
 
     @Override
     public void resume() {
       didResume.set(true);
+      resumeCount.incrementAndGet();
       latch.countDown();
       // throw new IllegalStateException("Expected");
     }
+
+    @Override
+    public void resumeInCurrentThread() {
+      resume();
+    }
+  }
+
+  static class MyEvent implements Event {}
+
+  static class SuspendingReceiver {
+    final SynchronousQueue<Thread> resumedOn = new SynchronousQueue<Thread>();
+    final AtomicBoolean suspended = new AtomicBoolean();
+    final EventWaker<Object> waker = new EventWaker<Object>();
+
+    @Receiver(synchronous = true)
+    void receive(MyEvent evt, EventContext ctx) throws InterruptedException {
+      if (suspended.compareAndSet(false, true)) {
+        waker.resumeAfterSignal(new Object(), ctx.suspend(), 10, TimeUnit.MILLISECONDS);
+      } else {
+        resumedOn.put(Thread.currentThread());
+      }
+    }
+  }
+
+  /**
+   * Mix signals and timeouts across many keys, and verify that each event is resumed exactly once.
+   */
+  @Test
+  public void testManyKeys() throws InterruptedException {
+    EventWaker<Integer> waker = new EventWaker<Integer>();
+    int keys = 1000;
+    FakeSuspendedEvent[] events = new FakeSuspendedEvent[keys * 10];
+    for (int i = 0; i < events.length; i++) {
+      events[i] = new FakeSuspendedEvent();
+      waker.resumeAfterSignal(i % keys, events[i], 10, TimeUnit.MILLISECONDS);
+    }
+    for (int i = 0; i < keys; i += 2) {
+      waker.signal(i);
+      assertEquals(0, waker.getPendingEventCount(i));
+    }
+
+    for (FakeSuspendedEvent event : events) {
+      assertTrue(event.latch.await(1, TimeUnit.SECONDS));
+    }
+    // Give any duplicate resumption a chance to happen
+    Thread.sleep(20);
+    for (int i = 0; i < events.length; i++) {
+      assertEquals(1, events[i].resumeCount.get());
+      assertEquals(0, waker.getPendingEventCount(i % keys));
+    }
+  }
+
+  /**
+   * A timed-out synchronous receiver must run on the dispatch's executor, not the shared thread.
+   */
+  @Test
+  public void testTimeoutResumesOnDispatchExecutor() throws InterruptedException {
+    final ThreadGroup group = new ThreadGroup("dispatch");
+    ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        return new Thread(group, r);
+      }
+    });
+    EventDispatch dispatch = EventDispatchers.create(executor);
+    SuspendingReceiver receiver = new SuspendingReceiver();
+    dispatch.register(receiver);
+
+    dispatch.fire(new MyEvent());
+    Thread resumedOn = receiver.resumedOn.poll(1, TimeUnit.SECONDS);
+    assertSame(group, resumedOn.getThreadGroup());
+    executor.shutdown();
   }
 
   @Test
@@ -116,7 +201,7 @@ public class EventWakerTest {
     FakeSuspendedEvent event = new FakeSuspendedEvent();
 
     waker.resumeAfterSignal(key, event, 1, TimeUnit.NANOSECONDS);
-    Thread.sleep(1);
-    assertTrue(event.didResume.get());
+    assertTrue(event.latch.await(1, TimeUnit.SECONDS));
+    assertEquals(0, waker.getPendingEventCount(key));
   }
 }
@@ -0,0 +1,74 @@
+package com.getperka.sea.util;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.impl.DispatchImpl;
+
+public class NativeImageConfigurationTest {
+  static class MyEvent implements Event, Serializable {
+    private static final long serialVersionUID = 1L;
+  }
+
+  static class MyReceiver extends ReceiverBase {}
+
+  static class OtherEvent implements Event {}
+
+  static class ReceiverBase {
+    @Receiver
+    void receive(MyEvent evt) {}
+
+    @Receiver
+    void receive(OtherEvent evt) {}
+  }
+
+  @Test
+  public void test() throws IOException {
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.register(MyReceiver.class);
+
+    NativeImageConfiguration config = new NativeImageConfiguration();
+    dispatch.accept(config);
+
+    assertTrue(config.getReflectedTypeNames().contains(ReceiverBase.class.getName()));
+    assertTrue(config.getReflectedTypeNames().contains(MyEvent.class.getName()));
+    assertTrue(config.getReflectedTypeNames().contains(DispatchImpl.class.getName()));
+    assertFalse(config.getReflectedTypeNames().contains(Object.class.getName()));
+    assertTrue(config.getSerializedTypeNames().contains(MyEvent.class.getName()));
+    assertFalse(config.getSerializedTypeNames().contains(OtherEvent.class.getName()));
+
+    StringWriter out = new StringWriter();
+    config.writeSerializationConfig(out);
+    assertTrue(out.toString().contains("{ \"name\" : \"" + MyEvent.class.getName() + "\" }"));
+  }
+}
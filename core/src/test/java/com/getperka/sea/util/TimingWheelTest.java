@@ -0,0 +1,141 @@
+package com.getperka.sea.util;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.getperka.sea.util.TimingWheel.Timeout;
+
+/**
+ * Verifies the scheduling guarantees of {@link TimingWheel}.
+ */
+public class TimingWheelTest {
+  static class MyTimeout extends Timeout {
+    final AtomicInteger count = new AtomicInteger();
+    volatile long expired;
+    CountDownLatch latch = new CountDownLatch(1);
+
+    @Override
+    protected void expire() {
+      expired = System.nanoTime();
+      count.incrementAndGet();
+      latch.countDown();
+    }
+  }
+
+  private final TimingWheel wheel = new TimingWheel(1, TimeUnit.MILLISECONDS, 16, "test wheel");
+
+  @Test(timeout = testDelay)
+  public void testCancel() throws InterruptedException {
+    MyTimeout timeout = new MyTimeout();
+    wheel.schedule(timeout, 20, TimeUnit.MILLISECONDS);
+    assertTrue(timeout.isScheduled());
+    assertEquals(1, wheel.getPendingCount());
+
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.isScheduled());
+    assertFalse(timeout.cancel());
+    assertEquals(0, wheel.getPendingCount());
+
+    Thread.sleep(50);
+    assertEquals(0, timeout.count.get());
+  }
+
+  /**
+   * A timeout that cancels a sibling in the same slot must not prevent the rest of the slot from
+   * expiring on time.
+   */
+  @Test(timeout = testDelay)
+  public void testCancelSibling() throws InterruptedException {
+    // A single slot with a long tick, so that timeouts scheduled together share a tick
+    TimingWheel wheel = new TimingWheel(200, TimeUnit.MILLISECONDS, 1, "single slot wheel");
+    MyTimeout late = new MyTimeout();
+    final MyTimeout sibling = new MyTimeout();
+    MyTimeout canceler = new MyTimeout() {
+      @Override
+      protected void expire() {
+        sibling.cancel();
+        super.expire();
+      }
+    };
+
+    // Timeouts are expired in the reverse of the order in which they were scheduled
+    wheel.schedule(late, 0, TimeUnit.MILLISECONDS);
+    wheel.schedule(sibling, 0, TimeUnit.MILLISECONDS);
+    wheel.schedule(canceler, 0, TimeUnit.MILLISECONDS);
+    late.latch.await();
+
+    assertTrue(late.expired - canceler.expired < TimeUnit.MILLISECONDS.toNanos(100));
+    assertEquals(0, wheel.getPendingCount());
+  }
+
+  @Test(timeout = testDelay)
+  public void testExpire() throws InterruptedException {
+    MyTimeout timeout = new MyTimeout();
+    long start = System.nanoTime();
+    wheel.schedule(timeout, 10, TimeUnit.MILLISECONDS);
+    timeout.latch.await();
+
+    assertTrue(timeout.expired - start >= TimeUnit.MILLISECONDS.toNanos(10));
+    assertFalse(timeout.isScheduled());
+    assertFalse(timeout.cancel());
+    assertEquals(0, wheel.getPendingCount());
+
+    // Timeouts may be reused once they have expired
+    timeout.latch = new CountDownLatch(1);
+    wheel.schedule(timeout, 0, TimeUnit.MILLISECONDS);
+    timeout.latch.await();
+    assertEquals(2, timeout.count.get());
+  }
+
+  /**
+   * Delays longer than a full rotation of the wheel must not expire early.
+   */
+  @Test(timeout = testDelay)
+  public void testMultipleRotations() throws InterruptedException {
+    MyTimeout shortTimeout = new MyTimeout();
+    MyTimeout longTimeout = new MyTimeout();
+    long start = System.nanoTime();
+    wheel.schedule(longTimeout, 50, TimeUnit.MILLISECONDS);
+    wheel.schedule(shortTimeout, 2, TimeUnit.MILLISECONDS);
+
+    shortTimeout.latch.await();
+    assertTrue(longTimeout.isScheduled());
+    longTimeout.latch.await();
+    assertTrue(longTimeout.expired - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testScheduleTwice() {
+    MyTimeout timeout = new MyTimeout();
+    wheel.schedule(timeout, 1, TimeUnit.SECONDS);
+    wheel.schedule(timeout, 1, TimeUnit.SECONDS);
+  }
+}
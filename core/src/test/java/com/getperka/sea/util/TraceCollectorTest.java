@@ -0,0 +1,143 @@
+package com.getperka.sea.util;
+
+/*
+ * #%L
+ * Simple Event Architecture - Core
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static com.getperka.sea.TestConstants.testDelay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventDecoratorBinding;
+import com.getperka.sea.util.TraceCollector.Span;
+
+/**
+ * Verifies the propagation of trace information and the trees built by {@link TraceCollector}.
+ */
+public class TraceCollectorTest {
+  static class Deferred implements Event {}
+
+  @EventDecoratorBinding(DeferringDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Defers {}
+
+  static class DeferringDecorator implements EventDecorator<Defers, Event> {
+    @Override
+    public Callable<Object> wrap(Context<Defers, Event> ctx) {
+      ctx.fireLater(new Deferred());
+      return ctx.getWork();
+    }
+  }
+
+  static class First implements Event {}
+
+  static class MyReceiver {
+    @Receiver
+    void first(First evt, EventDispatch dispatch) {
+      dispatch.fire(new Second());
+    }
+
+    @Defers
+    @Receiver
+    void second(Second evt) {}
+  }
+
+  static class Second implements Event {}
+
+  private EventDispatch dispatch;
+
+  @Before
+  public void before() {
+    dispatch = EventDispatchers.create();
+    dispatch.register(MyReceiver.class);
+  }
+
+  @Test(timeout = testDelay)
+  public void testChain() throws InterruptedException {
+    TraceCollector collector = TraceCollector.create(dispatch);
+    dispatch.fire(new First());
+
+    List<Long> traceIds = collector.getTraceIds();
+    assertEquals(1, traceIds.size());
+    List<Span> roots = collector.getTrace(traceIds.get(0));
+    assertEquals(1, roots.size());
+    Span root = roots.get(0);
+    while (!root.isComplete()) {
+      Thread.sleep(10);
+    }
+
+    assertSame(First.class, root.getEventType());
+    assertEquals(0, root.getParentSequenceNumber());
+    assertEquals(1, root.getChildren().size());
+
+    Span second = root.getChildren().get(0);
+    assertSame(Second.class, second.getEventType());
+    assertEquals(root.getSequenceNumber(), second.getParentSequenceNumber());
+    assertEquals(root.getTraceId(), second.getTraceId());
+    assertEquals(1, second.getChildren().size());
+
+    Span deferred = second.getChildren().get(0);
+    assertSame(Deferred.class, deferred.getEventType());
+    assertEquals(second.getSequenceNumber(), deferred.getParentSequenceNumber());
+
+    assertTrue(root.getTotalNanos() >= second.getDurationNanos());
+    assertTrue(root.toString().contains(Deferred.class.getName()));
+  }
+
+  @Test(timeout = testDelay)
+  public void testRemoteParent() {
+    final EventContext[] contexts = new EventContext[2];
+    // Use a dispatch without MyReceiver, which would fire additional events
+    EventDispatch dispatch = EventDispatchers.create();
+    dispatch.register(new Object() {
+      @Receiver(synchronous = true)
+      void first(First evt, EventContext context) {
+        contexts[0] = context;
+      }
+
+      @Receiver(synchronous = true)
+      void second(Second evt, EventContext context) {
+        contexts[1] = context;
+      }
+    });
+
+    dispatch.fire(new First());
+    dispatch.fire(new Second(), null, 42, 7);
+
+    assertEquals(0, contexts[0].getParentSequenceNumber());
+    assertTrue(contexts[0].getTraceId() != 0);
+    assertEquals(42, contexts[1].getTraceId());
+    assertEquals(7, contexts[1].getParentSequenceNumber());
+  }
+}
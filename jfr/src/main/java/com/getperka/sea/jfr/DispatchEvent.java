@@ -0,0 +1,43 @@
+package com.getperka.sea.jfr;
+
+/*
+ * #%L
+ * Simple Event Architecture - Java Flight Recorder
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventContext;
+
+/**
+ * The base type for flight recorder events that describe the dispatch of a single SEA event.
+ */
+@Category("Simple Event Architecture")
+abstract class DispatchEvent extends jdk.jfr.Event {
+  @Label("Event Type")
+  Class<?> eventType;
+  @Label("Sequence Number")
+  long sequenceNumber;
+
+  void set(Event event, EventContext context) {
+    eventType = event.getClass();
+    sequenceNumber = context == null ? 0 : context.getSequenceNumber();
+  }
+}
@@ -0,0 +1,34 @@
+package com.getperka.sea.jfr;
+
+/*
+ * #%L
+ * Simple Event Architecture - Java Flight Recorder
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Description("An event fired into an EventDispatch, including observer evaluation and the "
+  + "execution of synchronous receivers.")
+@Label("Fire")
+@Name("com.getperka.sea.Fire")
+class FireEvent extends DispatchEvent {
+  @Label("Suppressed")
+  boolean suppressed;
+}
@@ -0,0 +1,36 @@
+package com.getperka.sea.jfr;
+
+/*
+ * #%L
+ * Simple Event Architecture - Java Flight Recorder
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Description("A receiver invocation, from the start of its decorators until the receiver "
+  + "method returns.")
+@Label("Invocation")
+@Name("com.getperka.sea.Invocation")
+class InvocationEvent extends ReceiverEvent {
+  @Label("Suspended")
+  boolean suspended;
+  @Label("Threw")
+  boolean threw;
+}
@@ -0,0 +1,210 @@
+package com.getperka.sea.jfr;
+
+/*
+ * #%L
+ * Simple Event Architecture - Java Flight Recorder
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Annotation;
+
+import javax.inject.Singleton;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.DispatchResult;
+import com.getperka.sea.ext.DispatchTracer;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.EventObserver;
+import com.getperka.sea.ext.ReceiverTarget;
+
+/**
+ * Emits Java Flight Recorder events for each stage of an event's dispatch. The events are in the
+ * {@code com.getperka.sea} namespace and may be enabled individually in a recording's settings.
+ * When an event type is disabled, the only cost is the construction of an event object, which the
+ * JIT is generally able to eliminate.
+ * 
+ * @see JfrModule
+ */
+@Singleton
+public class JfrDispatchTracer extends DispatchTracer {
+  protected JfrDispatchTracer() {}
+
+  @Override
+  public Object beginDecorator(Event event, EventContext context, ReceiverTarget target,
+      Annotation annotation) {
+    DecoratorWrapEvent toReturn = new DecoratorWrapEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.set(event, context, target);
+    toReturn.annotation = annotation.annotationType();
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public Object beginDrain() {
+    DrainingEvent toReturn = new DrainingEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public Object beginFire(Event event, EventContext context) {
+    FireEvent toReturn = new FireEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.set(event, context);
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public Object beginInvocation(Event event, EventContext context, ReceiverTarget target) {
+    InvocationEvent toReturn = new InvocationEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.set(event, context, target);
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public Object beginMessageReceive() {
+    MessageReceiveEvent toReturn = new MessageReceiveEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public Object beginMessageSend(Event event, EventContext context) {
+    MessageSendEvent toReturn = new MessageSendEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.set(event, context);
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public Object beginObserver(Event event, EventContext context, EventObserver<?, ?> observer) {
+    ObserverEvent toReturn = new ObserverEvent();
+    if (!toReturn.isEnabled()) {
+      return null;
+    }
+    toReturn.set(event, context);
+    toReturn.observer = observer.getClass();
+    toReturn.begin();
+    return toReturn;
+  }
+
+  @Override
+  public void endDecorator(Object token) {
+    if (token != null) {
+      ((DecoratorWrapEvent) token).complete();
+    }
+  }
+
+  @Override
+  public void endDrain(Object token) {
+    if (token != null) {
+      ((DrainingEvent) token).commit();
+    }
+  }
+
+  @Override
+  public void endFire(Object token, boolean suppressed) {
+    if (token != null) {
+      FireEvent evt = (FireEvent) token;
+      evt.suppressed = suppressed;
+      evt.commit();
+    }
+  }
+
+  @Override
+  public void endInvocation(Object token, DispatchResult result) {
+    if (token != null) {
+      InvocationEvent evt = (InvocationEvent) token;
+      evt.suspended = result != null && result.wasSuspended();
+      evt.threw = result == null || result.getThrown() != null;
+      evt.complete();
+    }
+  }
+
+  @Override
+  public void endMessageReceive(Object token, Event event) {
+    if (token != null) {
+      MessageReceiveEvent evt = (MessageReceiveEvent) token;
+      if (event != null) {
+        evt.set(event, null);
+      }
+      evt.commit();
+    }
+  }
+
+  @Override
+  public void endMessageSend(Object token) {
+    if (token != null) {
+      ((MessageSendEvent) token).commit();
+    }
+  }
+
+  @Override
+  public void endObserver(Object token, boolean suppressed) {
+    if (token != null) {
+      ObserverEvent evt = (ObserverEvent) token;
+      evt.suppressed = suppressed;
+      evt.commit();
+    }
+  }
+
+  @Override
+  public void invocationQueued(Event event, EventContext context, ReceiverTarget target) {
+    InvocationQueuedEvent evt = new InvocationQueuedEvent();
+    if (evt.isEnabled()) {
+      evt.set(event, context, target);
+      evt.complete();
+    }
+  }
+
+  @Override
+  public void invocationResumed(Event event, EventContext context, ReceiverTarget target) {
+    InvocationResumedEvent evt = new InvocationResumedEvent();
+    if (evt.isEnabled()) {
+      evt.set(event, context, target);
+      evt.complete();
+    }
+  }
+
+  @Override
+  public void invocationSuspended(Event event, EventContext context, ReceiverTarget target) {
+    InvocationSuspendedEvent evt = new InvocationSuspendedEvent();
+    if (evt.isEnabled()) {
+      evt.set(event, context, target);
+      evt.complete();
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.getperka.sea.jfr;
+
+/*
+ * #%L
+ * Simple Event Architecture - Java Flight Recorder
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Label;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.ext.EventContext;
+import com.getperka.sea.ext.ReceiverTarget;
+
+/**
+ * The base type for flight recorder events that concern a specific receiver method.
+ */
+abstract class ReceiverEvent extends DispatchEvent {
+  @Label("Receiver")
+  String receiver;
+  /**
+   * Not recorded. The signature is computed only if the event is committed.
+   */
+  transient ReceiverTarget target;
+
+  /**
+   * Commits the event, computing the receiver signature only if the event will be recorded.
+   */
+  void complete() {
+    if (shouldCommit()) {
+      receiver = String.valueOf(target);
+      commit();
+    }
+  }
+
+  void set(Event event, EventContext context, ReceiverTarget target) {
+    set(event, context);
+    this.target = target;
+  }
+}
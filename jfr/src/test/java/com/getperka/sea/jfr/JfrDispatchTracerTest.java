@@ -0,0 +1,94 @@
+package com.getperka.sea.jfr;
+
+/*
+ * #%L
+ * Simple Event Architecture - Java Flight Recorder
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.Receiver;
+
+/**
+ * Verifies that flight recorder events are emitted for an event's dispatch.
+ */
+public class JfrDispatchTracerTest {
+  static class MyEvent implements Event {}
+
+  static class MyReceiver {
+    @Receiver(synchronous = true)
+    static void receive(MyEvent evt) {}
+  }
+
+  @Test
+  public void test() throws Exception {
+    EventDispatch dispatch = EventDispatchers.create(new JfrModule());
+    dispatch.register(MyReceiver.class);
+
+    File file = File.createTempFile("sea", ".jfr");
+    file.deleteOnExit();
+    Recording recording = new Recording();
+    try {
+      for (String name : new String[] { "Drain", "Fire", "Invocation" }) {
+        recording.enable("com.getperka.sea." + name).withoutThreshold();
+      }
+      recording.start();
+      dispatch.fire(new MyEvent());
+      dispatch.setDraining(true);
+      recording.stop();
+      recording.dump(file.toPath());
+    } finally {
+      recording.close();
+    }
+
+    Map<String, RecordedEvent> byName = new HashMap<String, RecordedEvent>();
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+    for (RecordedEvent evt : events) {
+      if (!evt.hasField("eventType")
+        || MyEvent.class.getName().equals(evt.getClass("eventType").getName())) {
+        byName.put(evt.getEventType().getName(), evt);
+      }
+    }
+
+    assertTrue(byName.containsKey("com.getperka.sea.Drain"));
+
+    RecordedEvent fire = byName.get("com.getperka.sea.Fire");
+    assertEquals(1, fire.getLong("sequenceNumber"));
+    assertEquals(false, fire.getBoolean("suppressed"));
+
+    RecordedEvent invocation = byName.get("com.getperka.sea.Invocation");
+    assertEquals(1, invocation.getLong("sequenceNumber"));
+    assertTrue(invocation.getString("receiver").contains("MyReceiver.receive"));
+    assertEquals(false, invocation.getBoolean("threw"));
+  }
+}
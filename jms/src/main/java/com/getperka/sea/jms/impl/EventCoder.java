@@ -50,6 +50,15 @@ public class EventCoder {
   @Inject
   EventTransport transport;
 
+  /**
+   * The message property that holds the sequence number of the sending event, which becomes the
+   * parent of the received event.
+   */
+  static final String PARENT_SEQUENCE_PROPERTY = "SeaParentSequenceNumber";
+  /**
+   * The message property that holds the trace id of the sending event.
+   */
+  static final String TRACE_ID_PROPERTY = "SeaTraceId";
   private static final Charset UTF8 = Charset.forName("UTF-8");
 
   /**
@@ -141,21 +150,26 @@ public class EventCoder {
   public Message encode(Session session, Event event, EventContext context)
       throws EventTransportException {
     try {
+      Message message;
       if (event instanceof MessageEvent) {
         try {
-          Message message = ((MessageEvent) event).toMessage(session);
+          message = ((MessageEvent) event).toMessage(session);
           message.setStringProperty("MessageEvent", event.getClass().getName());
-          return message;
         } finally {
           session.close();
         }
+      } else {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!transport.encode(event, context, output)) {
+          return null;
+        }
+        BytesMessage bytesMessage = session.createBytesMessage();
+        bytesMessage.writeBytes(output.toByteArray());
+        message = bytesMessage;
       }
-      ByteArrayOutputStream output = new ByteArrayOutputStream();
-      if (!transport.encode(event, context, output)) {
-        return null;
-      }
-      BytesMessage message = session.createBytesMessage();
-      message.writeBytes(output.toByteArray());
+      // Allow the receiver to continue the trace
+      message.setLongProperty(TRACE_ID_PROPERTY, context.getTraceId());
+      message.setLongProperty(PARENT_SEQUENCE_PROPERTY, context.getSequenceNumber());
       return message;
     } catch (JMSException e) {
       throw new EventTransportException("Unable to encode event", e);
@@ -51,6 +51,7 @@ import com.getperka.sea.Event;
 import com.getperka.sea.EventDispatch;
 import com.getperka.sea.Receiver;
 import com.getperka.sea.ext.DispatchCompleteEvent;
+import com.getperka.sea.ext.DispatchTracer;
 import com.getperka.sea.ext.DrainEvent;
 import com.getperka.sea.ext.EventContext;
 import com.getperka.sea.ext.EventTransport;
@@ -362,6 +363,8 @@ public class MessageBridge implements MessageListener {
   @Inject
   Provider<Session> sessions;
   @Inject
+  DispatchTracer tracer;
+  @Inject
   EventTransport transport;
 
   private String applicationName;
@@ -412,6 +415,7 @@ public class MessageBridge implements MessageListener {
      * We want to encode the Event on the sending thread since the event could reference some kind
      * of thread-local state (e.g. an EntityManager).
      */
+    Object token = tracer.beginMessageSend(event, context);
     Session session = sessions.get();
     try {
       Message message = eventCoder.encode(session, event, context);
@@ -420,6 +424,7 @@ public class MessageBridge implements MessageListener {
       }
     } finally {
       session.close();
+      tracer.endMessageSend(token);
     }
   }
 
@@ -429,8 +434,10 @@ public class MessageBridge implements MessageListener {
    */
   @Override
   public void onMessage(Message message) {
+    Object token = tracer.beginMessageReceive();
+    Event event = null;
     try {
-      Event event = eventCoder.decode(message);
+      event = eventCoder.decode(message);
       EventMetadata meta = eventMetadata.get(event);
       try {
         if (message.getJMSReplyTo() != null) {
@@ -440,10 +447,23 @@ public class MessageBridge implements MessageListener {
         logger.error("Unable to determine reply-to information. " +
           "This event may be lost if re-fired.", e);
       }
+      // Continue the sender's trace, if it provided one
+      long traceId = 0;
+      long parentSequenceNumber = 0;
+      try {
+        if (message.propertyExists(EventCoder.TRACE_ID_PROPERTY)) {
+          traceId = message.getLongProperty(EventCoder.TRACE_ID_PROPERTY);
+          parentSequenceNumber = message.getLongProperty(EventCoder.PARENT_SEQUENCE_PROPERTY);
+        }
+      } catch (JMSException e) {
+        logger.warn("Unable to read trace information", e);
+      }
       // Pass this as the dispatch context to detect send-loops in maybeSendToJms
-      dispatch.fire(event, this);
+      dispatch.fire(event, this, traceId, parentSequenceNumber);
     } catch (EventTransportException e) {
       logger.error("Unable to decode incoming JMS message", e);
+    } finally {
+      tracer.endMessageReceive(token, event);
     }
   }
 
@@ -0,0 +1,42 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Creates the {@link ExecutorService} that a dispatch under test uses for asynchronous dispatch.
+ * 
+ * @see StandardExecutors
+ */
+public interface ExecutorChoice {
+  /**
+   * Create a new executor.
+   * 
+   * @param threads the number of threads that the executor should use, if it is bounded
+   */
+  ExecutorService create(int threads);
+
+  /**
+   * A short name for reports.
+   */
+  String getName();
+}
@@ -0,0 +1,48 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.getperka.sea.Event;
+
+/**
+ * A link in the chain of events caused by a single request.
+ */
+class LoadEvent implements Event {
+  private final int depth;
+  private final Request request;
+
+  LoadEvent(Request request, int depth) {
+    this.depth = depth;
+    this.request = request;
+  }
+
+  /**
+   * Returns the position of the event in its chain, where the event fired by the generator has a
+   * depth of {@code 0}.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  public Request getRequest() {
+    return request;
+  }
+}
@@ -0,0 +1,105 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.getperka.sea.EventDispatch;
+
+/**
+ * Drives a {@link Topology} installed in an {@link EventDispatch} with an open-loop load. Requests
+ * are issued from the calling thread at the times given by a {@link Schedule}, whether or not
+ * earlier requests have completed, and each request's latency is measured from its scheduled time.
+ * A dispatch that stalls therefore accrues latency for every request that should have been issued
+ * during the stall, instead of silently reducing the offered load.
+ * 
+ * <pre>
+ * EventDispatch dispatch = EventDispatchers.create(executor);
+ * LoadGenerator generator = new LoadGenerator(dispatch, new Topology().fanOut(4));
+ * LoadResult result = generator.run(Schedule.constantRate(10000, 10, TimeUnit.SECONDS),
+ *     30, TimeUnit.SECONDS);
+ * </pre>
+ */
+public class LoadGenerator {
+  /**
+   * Parking is imprecise, so the final stretch before a request is due is spent spinning.
+   */
+  private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /**
+   * Block until the given {@link System#nanoTime()}.
+   * 
+   * @return the time at which the method returned
+   */
+  private static long awaitTime(long target) {
+    for (long now = System.nanoTime();; now = System.nanoTime()) {
+      long remaining = target - now;
+      if (remaining <= 0) {
+        return now;
+      }
+      if (remaining > SPIN_NANOS) {
+        LockSupport.parkNanos(remaining - SPIN_NANOS);
+      }
+    }
+  }
+
+  private final EventDispatch dispatch;
+  private final Topology topology;
+
+  /**
+   * Installs the topology into the dispatch.
+   * 
+   * @see Topology#install(EventDispatch)
+   */
+  public LoadGenerator(EventDispatch dispatch, Topology topology) {
+    this.dispatch = dispatch;
+    this.topology = topology;
+    topology.install(dispatch);
+  }
+
+  public Topology getTopology() {
+    return topology;
+  }
+
+  /**
+   * Issue the requests in the schedule and wait for them to complete.
+   * 
+   * @param schedule the times at which to issue requests
+   * @param timeout the maximum time to wait for outstanding requests once the last request has
+   *          been issued
+   * @return the measurements for the completed requests
+   */
+  public LoadResult run(Schedule schedule, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    LoadRun run = new LoadRun(topology, schedule.getCount());
+    long maxSendLag = 0;
+    long start = System.nanoTime();
+    for (int i = 0, j = schedule.getCount(); i < j; i++) {
+      long intended = start + schedule.getOffsetNanos(i);
+      long now = awaitTime(intended);
+      maxSendLag = Math.max(maxSendLag, now - intended);
+      dispatch.fire(new LoadEvent(new Request(run, i, intended), 0));
+    }
+    run.await(timeout, unit);
+    return run.toResult(schedule, start, maxSendLag);
+  }
+}
@@ -0,0 +1,291 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+
+/**
+ * Measures how throughput and latency change with the executor used for dispatch and the number of
+ * threads it is given. Every combination of executor, thread count, and schedule is run against a
+ * fresh dispatch, and one line of results is printed for each, so the output of several runs can
+ * be plotted as throughput/latency curves.
+ * <p>
+ * The harness can be run from the command line, with arguments of the form {@code --name=value}:
+ * 
+ * <pre>
+ * java com.getperka.sea.load.LoadHarness --executors=fixed,bounded --threads=1,8,64 \
+ *     --rates=10000,50000 --duration=10 --fanout=4 --depth=2 --decorators=3 --receiver-work=20
+ * </pre>
+ * 
+ * The thread count bounds the parallelism of the dispatch, not the number of processors available
+ * to the JVM. To compare machines of different sizes, or to restrict a large machine, launch the
+ * harness under {@code taskset} or a container CPU limit; the processor count is printed with the
+ * results.
+ */
+public class LoadHarness {
+  private static final String USAGE = "Arguments:\n"
+      + "  --executors=cached,fixed,bounded  executors to compare (default fixed)\n"
+      + "  --threads=1,2,4                   thread counts (default powers of two to #cpus)\n"
+      + "  --rates=10000                     requests per second (default 10000)\n"
+      + "  --arrivals=constant|poisson       request spacing (default constant)\n"
+      + "  --replay=file                     replay saved arrival times instead of --rates\n"
+      + "  --speed=1.0                       replay speed-up factor\n"
+      + "  --duration=10                     seconds per run\n"
+      + "  --warmup=2                        seconds of warm-up before each run\n"
+      + "  --timeout=30                      seconds to wait for stragglers\n"
+      + "  --fanout=1 --depth=1 --decorators=0 --observers=0\n"
+      + "  --receiver-work=0 --decorator-work=0  microseconds of CPU work";
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    List<ExecutorChoice> executors = new ArrayList<ExecutorChoice>();
+    int[] threads = null;
+    List<Double> rates = new ArrayList<Double>();
+    boolean poisson = false;
+    String replay = null;
+    double speed = 1;
+    long duration = 10;
+    long warmUp = 2;
+    long timeout = 30;
+    Topology topology = new Topology();
+
+    for (String arg : args) {
+      int idx = arg.indexOf('=');
+      if (!arg.startsWith("--") || idx < 0) {
+        System.err.println("Unexpected argument " + arg + "\n" + USAGE);
+        System.exit(1);
+      }
+      String name = arg.substring(2, idx);
+      String value = arg.substring(idx + 1);
+      if ("executors".equals(name)) {
+        for (String executor : value.split(",")) {
+          executors.add(StandardExecutors.valueOf(executor.trim().toUpperCase()));
+        }
+      } else if ("threads".equals(name)) {
+        String[] parts = value.split(",");
+        threads = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+          threads[i] = Integer.parseInt(parts[i].trim());
+        }
+      } else if ("rates".equals(name)) {
+        for (String rate : value.split(",")) {
+          rates.add(Double.parseDouble(rate.trim()));
+        }
+      } else if ("arrivals".equals(name)) {
+        poisson = "poisson".equals(value);
+      } else if ("replay".equals(name)) {
+        replay = value;
+      } else if ("speed".equals(name)) {
+        speed = Double.parseDouble(value);
+      } else if ("duration".equals(name)) {
+        duration = Long.parseLong(value);
+      } else if ("warmup".equals(name)) {
+        warmUp = Long.parseLong(value);
+      } else if ("timeout".equals(name)) {
+        timeout = Long.parseLong(value);
+      } else if ("fanout".equals(name)) {
+        topology.fanOut(Integer.parseInt(value));
+      } else if ("depth".equals(name)) {
+        topology.chainDepth(Integer.parseInt(value));
+      } else if ("decorators".equals(name)) {
+        topology.decorators(Integer.parseInt(value));
+      } else if ("observers".equals(name)) {
+        topology.observers(Integer.parseInt(value));
+      } else if ("receiver-work".equals(name)) {
+        topology.receiverWork(Long.parseLong(value), TimeUnit.MICROSECONDS);
+      } else if ("decorator-work".equals(name)) {
+        topology.decoratorWork(Long.parseLong(value), TimeUnit.MICROSECONDS);
+      } else {
+        System.err.println("Unknown argument " + arg + "\n" + USAGE);
+        System.exit(1);
+      }
+    }
+
+    LoadHarness harness = new LoadHarness()
+        .timeout(timeout, TimeUnit.SECONDS)
+        .topology(topology);
+    for (ExecutorChoice executor : executors) {
+      harness.executor(executor);
+    }
+    if (threads != null) {
+      harness.threads(threads);
+    }
+    if (replay != null) {
+      Reader in = new FileReader(replay);
+      try {
+        harness.schedule(Schedule.read(in).speedUp(speed));
+      } finally {
+        in.close();
+      }
+    } else {
+      if (rates.isEmpty()) {
+        rates.add(10000d);
+      }
+      for (double rate : rates) {
+        harness.schedule(poisson ? Schedule.poisson(rate, duration, TimeUnit.SECONDS, 0)
+            : Schedule.constantRate(rate, duration, TimeUnit.SECONDS));
+      }
+    }
+    if (warmUp > 0) {
+      harness.warmUp(Schedule.constantRate(rates.isEmpty() ? 1000 : rates.get(0), warmUp,
+          TimeUnit.SECONDS));
+    }
+    harness.run(System.out);
+  }
+
+  /**
+   * Returns the powers of two up to, and including, the number of available processors.
+   */
+  private static int[] defaultThreads() {
+    int cpus = Runtime.getRuntime().availableProcessors();
+    List<Integer> list = new ArrayList<Integer>();
+    for (int i = 1; i < cpus; i *= 2) {
+      list.add(i);
+    }
+    list.add(cpus);
+    int[] toReturn = new int[list.size()];
+    for (int i = 0; i < toReturn.length; i++) {
+      toReturn[i] = list.get(i);
+    }
+    return toReturn;
+  }
+
+  private final List<ExecutorChoice> executors = new ArrayList<ExecutorChoice>();
+  private final List<Schedule> schedules = new ArrayList<Schedule>();
+  private int[] threads;
+  private long timeoutNanos = TimeUnit.SECONDS.toNanos(30);
+  private Topology topology = new Topology();
+  private Schedule warmUp;
+
+  /**
+   * Add an executor to compare. If no executors are added, {@link StandardExecutors#FIXED} is
+   * used.
+   */
+  public LoadHarness executor(ExecutorChoice executor) {
+    executors.add(executor);
+    return this;
+  }
+
+  /**
+   * Run each combination of executor, thread count, and schedule, printing one line per run.
+   * 
+   * @return the results, in the order in which they were printed
+   */
+  public List<LoadResult> run(PrintStream out) throws InterruptedException {
+    if (schedules.isEmpty()) {
+      throw new IllegalStateException("No schedules");
+    }
+    List<ExecutorChoice> toCompare = executors.isEmpty() ?
+        Collections.<ExecutorChoice> singletonList(StandardExecutors.FIXED) : executors;
+    int[] threadCounts = threads == null ? defaultThreads() : threads;
+
+    out.println("# " + Runtime.getRuntime().availableProcessors() + " available processors, Java "
+        + System.getProperty("java.version") + " " + System.getProperty("java.vm.name"));
+    out.println("# " + topology + ", " + topology.getInvocationsPerRequest()
+        + " receiver invocations per request");
+    out.println(String.format("%-8s %7s %10s %10s %9s %9s %9s %9s %9s %9s %9s",
+        "executor", "threads", "offered/s", "achieved/s", "completed", "p50(us)", "p90(us)",
+        "p99(us)", "p99.9(us)", "max(us)", "lag(us)"));
+
+    List<LoadResult> toReturn = new ArrayList<LoadResult>();
+    for (ExecutorChoice choice : toCompare) {
+      for (int threadCount : threadCounts) {
+        for (Schedule schedule : schedules) {
+          LoadResult result = runOne(choice, threadCount, schedule);
+          toReturn.add(result);
+          out.println(String.format("%-8s %7d %10.0f %10.0f %9s %9d %9d %9d %9d %9d %9d",
+              choice.getName(), threadCount, result.getOfferedRate(), result.getThroughput(),
+              result.getCompleted() + "/" + result.getRequests(),
+              result.getLatencyAtPercentile(50) / 1000, result.getLatencyAtPercentile(90) / 1000,
+              result.getLatencyAtPercentile(99) / 1000,
+              result.getLatencyAtPercentile(99.9) / 1000, result.getMaxLatencyNanos() / 1000,
+              result.getMaxSendLagNanos() / 1000));
+        }
+      }
+    }
+    return toReturn;
+  }
+
+  /**
+   * Add a schedule to run with each executor and thread count.
+   */
+  public LoadHarness schedule(Schedule schedule) {
+    schedules.add(schedule);
+    return this;
+  }
+
+  /**
+   * The thread counts to pass to each executor. The default is the powers of two up to the number
+   * of available processors.
+   */
+  public LoadHarness threads(int... threads) {
+    this.threads = threads.clone();
+    return this;
+  }
+
+  /**
+   * The maximum time to wait for outstanding requests after a schedule has been issued.
+   */
+  public LoadHarness timeout(long timeout, TimeUnit unit) {
+    this.timeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
+  public LoadHarness topology(Topology topology) {
+    this.topology = topology;
+    return this;
+  }
+
+  /**
+   * A schedule whose results are discarded, run before each measured schedule.
+   */
+  public LoadHarness warmUp(Schedule warmUp) {
+    this.warmUp = warmUp;
+    return this;
+  }
+
+  private LoadResult runOne(ExecutorChoice choice, int threadCount, Schedule schedule)
+      throws InterruptedException {
+    ExecutorService executor = choice.create(threadCount);
+    EventDispatch dispatch = EventDispatchers.create(executor);
+    try {
+      LoadGenerator generator = new LoadGenerator(dispatch, topology);
+      dispatch.warmUp();
+      if (warmUp != null) {
+        generator.run(warmUp, timeoutNanos, TimeUnit.NANOSECONDS);
+      }
+      return generator.run(schedule, timeoutNanos, TimeUnit.NANOSECONDS);
+    } finally {
+      dispatch.shutdown();
+      executor.shutdownNow();
+    }
+  }
+}
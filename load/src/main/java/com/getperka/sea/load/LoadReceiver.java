@@ -0,0 +1,51 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.Receiver;
+
+/**
+ * Consumes the topology's receiver work and continues the chain of events.
+ */
+class LoadReceiver {
+  private final EventDispatch dispatch;
+
+  LoadReceiver(EventDispatch dispatch) {
+    this.dispatch = dispatch;
+  }
+
+  @Receiver
+  void receive(LoadEvent evt) {
+    Request request = evt.getRequest();
+    Topology topology = request.getTopology();
+    try {
+      Topology.spin(topology.getReceiverWorkNanos());
+      int nextDepth = evt.getDepth() + 1;
+      if (nextDepth < topology.getChainDepth()) {
+        request.expect(topology.getFanOut());
+        dispatch.fire(new LoadEvent(request, nextDepth));
+      }
+    } finally {
+      request.received();
+    }
+  }
+}
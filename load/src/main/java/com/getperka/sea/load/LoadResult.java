@@ -0,0 +1,116 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput and latency observed by a single {@link LoadGenerator} run. Latencies are measured
+ * from the time at which the {@link Schedule} intended each request to be issued, rather than the
+ * time at which it was actually issued, so delays in the generator itself are charged to the
+ * requests that they affect.
+ */
+public class LoadResult {
+  private final long elapsedNanos;
+  private final long[] latencies;
+  private final long maxSendLagNanos;
+  private final int requests;
+  private final Schedule schedule;
+
+  LoadResult(Schedule schedule, int requests, long[] latencies, long elapsedNanos,
+      long maxSendLagNanos) {
+    this.elapsedNanos = elapsedNanos;
+    this.latencies = latencies;
+    this.maxSendLagNanos = maxSendLagNanos;
+    this.requests = requests;
+    this.schedule = schedule;
+  }
+
+  /**
+   * Returns the number of requests that completed before the run's timeout elapsed.
+   */
+  public int getCompleted() {
+    return latencies.length;
+  }
+
+  /**
+   * Returns the time between the start of the run and the completion of the last request.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the exact latency at the given percentile of the completed requests.
+   * 
+   * @param percentile a value between {@code 0} and {@code 100}
+   */
+  public long getLatencyAtPercentile(double percentile) {
+    if (latencies.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(latencies.length * percentile / 100);
+    return latencies[Math.max(0, Math.min(latencies.length, rank) - 1)];
+  }
+
+  public long getMaxLatencyNanos() {
+    return latencies.length == 0 ? 0 : latencies[latencies.length - 1];
+  }
+
+  /**
+   * Returns the largest amount by which the generator fell behind its schedule. A large value
+   * indicates that {@link com.getperka.sea.EventDispatch#fire} blocked the generator or that the
+   * generator was starved of CPU time.
+   */
+  public long getMaxSendLagNanos() {
+    return maxSendLagNanos;
+  }
+
+  /**
+   * Returns the rate at which the schedule issued requests, in requests per second.
+   */
+  public double getOfferedRate() {
+    return schedule.getRate();
+  }
+
+  public int getRequests() {
+    return requests;
+  }
+
+  /**
+   * Returns the rate at which requests were completed, in requests per second.
+   */
+  public double getThroughput() {
+    if (elapsedNanos <= 0) {
+      return 0;
+    }
+    return latencies.length * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d/%d requests, %.0f/s offered, %.0f/s achieved, p50=%dus p99=%dus max=%dus",
+        getCompleted(), requests, getOfferedRate(), getThroughput(),
+        getLatencyAtPercentile(50) / 1000, getLatencyAtPercentile(99) / 1000,
+        getMaxLatencyNanos() / 1000);
+  }
+}
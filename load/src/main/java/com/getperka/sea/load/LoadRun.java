@@ -0,0 +1,83 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the completion times of the requests issued by a single {@link LoadGenerator} run. Each
+ * request owns a slot in the arrays, so recording a completion does not contend with other
+ * requests.
+ */
+class LoadRun {
+  private final AtomicLongArray completions;
+  private final CountDownLatch done;
+  private final AtomicLongArray latencies;
+  private final Topology topology;
+
+  LoadRun(Topology topology, int requests) {
+    this.completions = new AtomicLongArray(requests);
+    this.done = new CountDownLatch(requests);
+    this.latencies = new AtomicLongArray(requests);
+    this.topology = topology;
+  }
+
+  public Topology getTopology() {
+    return topology;
+  }
+
+  /**
+   * Wait for all requests to complete.
+   * 
+   * @return {@code true} if all requests completed before the timeout elapsed
+   */
+  boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+    return done.await(timeout, unit);
+  }
+
+  void complete(int index, long intendedStart, long now) {
+    latencies.set(index, now - intendedStart);
+    completions.set(index, now);
+    done.countDown();
+  }
+
+  LoadResult toResult(Schedule schedule, long start, long maxSendLag) {
+    int requests = completions.length();
+    long[] completed = new long[requests];
+    int count = 0;
+    long lastCompletion = 0;
+    for (int i = 0; i < requests; i++) {
+      long completion = completions.get(i);
+      if (completion != 0) {
+        completed[count++] = latencies.get(i);
+        lastCompletion = Math.max(lastCompletion, completion);
+      }
+    }
+    completed = Arrays.copyOf(completed, count);
+    Arrays.sort(completed);
+
+    long end = count == requests ? lastCompletion : System.nanoTime();
+    return new LoadResult(schedule, requests, completed, end - start, maxSendLag);
+  }
+}
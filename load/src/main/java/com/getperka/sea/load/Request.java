@@ -0,0 +1,60 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the receiver invocations that remain before a request is complete.
+ */
+class Request {
+  private final int index;
+  private final long intendedStart;
+  private final AtomicLong pending;
+  private final LoadRun run;
+
+  Request(LoadRun run, int index, long intendedStart) {
+    this.index = index;
+    this.intendedStart = intendedStart;
+    this.pending = new AtomicLong(run.getTopology().getFanOut());
+    this.run = run;
+  }
+
+  public Topology getTopology() {
+    return run.getTopology();
+  }
+
+  /**
+   * Called before firing an event that will be received by {@code count} receivers.
+   */
+  void expect(int count) {
+    pending.addAndGet(count);
+  }
+
+  /**
+   * Called when a receiver invocation has finished.
+   */
+  void received() {
+    if (pending.decrementAndGet() == 0) {
+      run.complete(index, intendedStart, System.nanoTime());
+    }
+  }
+}
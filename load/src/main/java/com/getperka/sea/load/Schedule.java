@@ -0,0 +1,209 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.util.TraceCollector;
+import com.getperka.sea.util.TraceCollector.Span;
+
+/**
+ * The times, relative to the start of a run, at which a {@link LoadGenerator} issues requests. The
+ * generator follows the schedule regardless of how quickly the dispatch completes earlier requests,
+ * so the offered load does not fall when the dispatch slows down.
+ * <p>
+ * A schedule may be captured from a {@link TraceCollector} and saved with {@link #write(Writer)},
+ * one offset in microseconds per line, to replay the arrival pattern of a real workload.
+ */
+public class Schedule {
+  /**
+   * Issue requests at evenly-spaced intervals.
+   * 
+   * @param perSecond the number of requests per second
+   * @param duration the length of the schedule
+   */
+  public static Schedule constantRate(double perSecond, long duration, TimeUnit unit) {
+    int count = count(perSecond, duration, unit);
+    long[] offsets = new long[count];
+    double interval = TimeUnit.SECONDS.toNanos(1) / perSecond;
+    for (int i = 0; i < count; i++) {
+      offsets[i] = (long) (i * interval);
+    }
+    return new Schedule(offsets, "constant " + (long) perSecond + "/s");
+  }
+
+  /**
+   * Issue requests with exponentially-distributed intervals, as would be produced by a large
+   * population of independent clients.
+   * 
+   * @param perSecond the mean number of requests per second
+   * @param duration the length of the schedule
+   * @param seed the seed for the random intervals
+   */
+  public static Schedule poisson(double perSecond, long duration, TimeUnit unit, long seed) {
+    Random random = new Random(seed);
+    long end = unit.toNanos(duration);
+    double meanInterval = TimeUnit.SECONDS.toNanos(1) / perSecond;
+    List<Long> offsets = new ArrayList<Long>(count(perSecond, duration, unit));
+    for (double t = 0; t < end; t -= meanInterval * Math.log(1 - random.nextDouble())) {
+      offsets.add((long) t);
+    }
+    return new Schedule(toArray(offsets), "poisson " + (long) perSecond + "/s");
+  }
+
+  /**
+   * Replay the arrival times of the events that began the traces retained by a collector.
+   */
+  public static Schedule fromTrace(TraceCollector collector) {
+    List<Long> starts = new ArrayList<Long>();
+    for (Long traceId : collector.getTraceIds()) {
+      for (Span span : collector.getTrace(traceId)) {
+        starts.add(span.getStartNanos());
+      }
+    }
+    return fromTimes(toArray(starts), "trace");
+  }
+
+  /**
+   * Read a schedule saved by {@link #write(Writer)}. Blank lines and lines beginning with
+   * {@code #} are ignored.
+   */
+  public static Schedule read(Reader in) throws IOException {
+    BufferedReader reader = new BufferedReader(in);
+    List<Long> times = new ArrayList<Long>();
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      line = line.trim();
+      if (line.length() == 0 || line.startsWith("#")) {
+        continue;
+      }
+      try {
+        times.add(TimeUnit.MICROSECONDS.toNanos(Long.parseLong(line)));
+      } catch (NumberFormatException e) {
+        throw new IOException("Bad schedule entry: " + line);
+      }
+    }
+    return fromTimes(toArray(times), "replay");
+  }
+
+  private static int count(double perSecond, long duration, TimeUnit unit) {
+    if (perSecond <= 0) {
+      throw new IllegalArgumentException("The rate must be positive");
+    }
+    return (int) (perSecond * unit.toNanos(duration) / TimeUnit.SECONDS.toNanos(1));
+  }
+
+  /**
+   * Sort arbitrary times and make them relative to the earliest.
+   */
+  private static Schedule fromTimes(long[] times, String description) {
+    Arrays.sort(times);
+    for (int i = times.length - 1; i >= 0; i--) {
+      times[i] -= times[0];
+    }
+    return new Schedule(times, description);
+  }
+
+  private static long[] toArray(List<Long> list) {
+    long[] toReturn = new long[list.size()];
+    for (int i = 0, j = toReturn.length; i < j; i++) {
+      toReturn[i] = list.get(i);
+    }
+    return toReturn;
+  }
+
+  private final String description;
+  private final long[] offsets;
+
+  private Schedule(long[] offsets, String description) {
+    this.description = description;
+    this.offsets = offsets;
+  }
+
+  public int getCount() {
+    return offsets.length;
+  }
+
+  /**
+   * Returns the offset of the last request.
+   */
+  public long getDurationNanos() {
+    return offsets.length == 0 ? 0 : offsets[offsets.length - 1];
+  }
+
+  /**
+   * Returns the time at which the {@code index}th request should be issued, relative to the start
+   * of the run.
+   */
+  public long getOffsetNanos(int index) {
+    return offsets[index];
+  }
+
+  /**
+   * Returns the mean rate at which requests are issued, in requests per second.
+   */
+  public double getRate() {
+    long duration = getDurationNanos();
+    if (duration == 0) {
+      return 0;
+    }
+    // There are count - 1 intervals between the first and last request
+    return (offsets.length - 1) * (double) TimeUnit.SECONDS.toNanos(1) / duration;
+  }
+
+  /**
+   * Returns a schedule that issues the same requests {@code factor} times as quickly.
+   */
+  public Schedule speedUp(double factor) {
+    if (factor <= 0) {
+      throw new IllegalArgumentException("The factor must be positive");
+    }
+    long[] scaled = new long[offsets.length];
+    for (int i = 0; i < scaled.length; i++) {
+      scaled[i] = (long) (offsets[i] / factor);
+    }
+    return new Schedule(scaled, description + " x" + factor);
+  }
+
+  @Override
+  public String toString() {
+    return description + ", " + offsets.length + " requests over "
+        + TimeUnit.NANOSECONDS.toMillis(getDurationNanos()) + "ms";
+  }
+
+  /**
+   * Save the schedule, one offset in microseconds per line.
+   */
+  public void write(Writer out) throws IOException {
+    for (long offset : offsets) {
+      out.write(Long.toString(TimeUnit.NANOSECONDS.toMicros(offset)));
+      out.write('\n');
+    }
+    out.flush();
+  }
+}
@@ -0,0 +1,90 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executors provided by {@code java.util.concurrent} that are most commonly used with a
+ * dispatch.
+ */
+public enum StandardExecutors implements ExecutorChoice {
+  /**
+   * An unbounded cached thread pool, like the one used when no executor is specified. The thread
+   * count is ignored.
+   */
+  CACHED {
+    @Override
+    public ExecutorService create(int threads) {
+      return Executors.newCachedThreadPool(new LoadThreadFactory());
+    }
+  },
+  /**
+   * A fixed number of threads sharing an unbounded queue.
+   */
+  FIXED {
+    @Override
+    public ExecutorService create(int threads) {
+      return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<Runnable>(), new LoadThreadFactory());
+    }
+  },
+  /**
+   * A fixed number of threads sharing a bounded queue. When the queue is full, the thread that
+   * fires an event executes its receivers, which applies back-pressure to the generator.
+   */
+  BOUNDED {
+    @Override
+    public ExecutorService create(int threads) {
+      return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(threads * QUEUE_PER_THREAD), new LoadThreadFactory(),
+          new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+  };
+
+  /**
+   * Creates daemon threads, so that an abandoned run does not prevent the JVM from exiting.
+   */
+  static class LoadThreadFactory implements ThreadFactory {
+    private static final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread t = new Thread(r, "sea-load-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    }
+  }
+
+  private static final int QUEUE_PER_THREAD = 64;
+
+  @Override
+  public String getName() {
+    return name().toLowerCase();
+  }
+}
@@ -0,0 +1,109 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Callable;
+
+import com.getperka.sea.ext.EventDecorator;
+import com.getperka.sea.ext.EventDecoratorBinding;
+import com.getperka.sea.ext.EventObserver;
+import com.getperka.sea.ext.EventObserverBinding;
+
+/**
+ * Declares the binding annotations used to assemble a {@link Topology}. Decorator annotations are
+ * only deduplicated by type, so each layer of decoration requires its own annotation.
+ */
+@SyntheticBindings.Layer0
+@SyntheticBindings.Layer1
+@SyntheticBindings.Layer2
+@SyntheticBindings.Layer3
+@SyntheticBindings.Layer4
+@SyntheticBindings.Layer5
+@SyntheticBindings.Layer6
+@SyntheticBindings.Layer7
+@SyntheticBindings.Observed
+class SyntheticBindings {
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer0 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer1 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer2 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer3 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer4 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer5 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer6 {}
+
+  @EventDecoratorBinding(PassThroughDecorator.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Layer7 {}
+
+  @EventObserverBinding(PassThroughObserver.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Observed {}
+
+  /**
+   * Consumes the topology's decorator work and then invokes the receiver.
+   */
+  static class PassThroughDecorator implements EventDecorator<Annotation, LoadEvent> {
+    @Override
+    public Callable<Object> wrap(EventDecorator.Context<Annotation, LoadEvent> ctx) {
+      Topology.spin(ctx.getEvent().getRequest().getTopology().getDecoratorWorkNanos());
+      return ctx.getWork();
+    }
+  }
+
+  /**
+   * Examines, but never suppresses, each event.
+   */
+  static class PassThroughObserver implements EventObserver<Annotation, LoadEvent> {
+    @Override
+    public void initialize(Annotation annotation) {}
+
+    @Override
+    public void observeEvent(EventObserver.Context<LoadEvent> context) {}
+
+    @Override
+    public void shutdown() {}
+  }
+
+  private SyntheticBindings() {}
+}
@@ -0,0 +1,262 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.load.SyntheticBindings.Layer0;
+import com.getperka.sea.load.SyntheticBindings.Layer1;
+import com.getperka.sea.load.SyntheticBindings.Layer2;
+import com.getperka.sea.load.SyntheticBindings.Layer3;
+import com.getperka.sea.load.SyntheticBindings.Layer4;
+import com.getperka.sea.load.SyntheticBindings.Layer5;
+import com.getperka.sea.load.SyntheticBindings.Layer6;
+import com.getperka.sea.load.SyntheticBindings.Layer7;
+import com.getperka.sea.load.SyntheticBindings.Observed;
+
+/**
+ * Describes the synthetic receivers, decorators, and observers that a {@link LoadGenerator} drives.
+ * Each request fired by the generator is delivered to {@link #fanOut(int) fan-out} receivers, each
+ * of which fires a follow-on event until the {@link #chainDepth(int) chain depth} is reached, so a
+ * single request results in {@code fanOut + fanOut^2 + ... + fanOut^chainDepth} receiver
+ * invocations. A request is complete when the last of those invocations returns.
+ * 
+ * <pre>
+ * Topology topology = new Topology()
+ *     .fanOut(2)
+ *     .chainDepth(3)
+ *     .decorators(4)
+ *     .receiverWork(20, TimeUnit.MICROSECONDS);
+ * </pre>
+ */
+public class Topology {
+  /**
+   * The maximum number of distinct decorators that may be applied to each receiver.
+   */
+  public static final int MAX_DECORATORS = 8;
+
+  /**
+   * Supplies a subset of the binding annotations declared on {@link SyntheticBindings}.
+   */
+  static class Selection implements AnnotatedElement {
+    private final Annotation[] annotations;
+
+    Selection(List<Annotation> annotations) {
+      this.annotations = annotations.toArray(new Annotation[annotations.size()]);
+    }
+
+    @Override
+    public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
+      for (Annotation a : annotations) {
+        if (annotationClass.equals(a.annotationType())) {
+          return annotationClass.cast(a);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public Annotation[] getAnnotations() {
+      return annotations.clone();
+    }
+
+    @Override
+    public Annotation[] getDeclaredAnnotations() {
+      return annotations.clone();
+    }
+
+    @Override
+    public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
+      return getAnnotation(annotationClass) != null;
+    }
+  }
+
+  private static final List<Class<? extends Annotation>> LAYERS;
+
+  static {
+    List<Class<? extends Annotation>> layers = new ArrayList<Class<? extends Annotation>>();
+    layers.add(Layer0.class);
+    layers.add(Layer1.class);
+    layers.add(Layer2.class);
+    layers.add(Layer3.class);
+    layers.add(Layer4.class);
+    layers.add(Layer5.class);
+    layers.add(Layer6.class);
+    layers.add(Layer7.class);
+    LAYERS = layers;
+  }
+
+  /**
+   * Busy-wait for the given number of nanoseconds, to simulate CPU-bound work.
+   */
+  static void spin(long nanos) {
+    if (nanos <= 0) {
+      return;
+    }
+    long start = System.nanoTime();
+    while (System.nanoTime() - start < nanos) {}
+  }
+
+  private int chainDepth = 1;
+  private int decorators;
+  private long decoratorWorkNanos;
+  private int fanOut = 1;
+  private int observers;
+  private long receiverWorkNanos;
+
+  /**
+   * The number of events in each causal chain, including the event fired by the generator. The
+   * default value is {@code 1}.
+   */
+  public Topology chainDepth(int chainDepth) {
+    if (chainDepth < 1) {
+      throw new IllegalArgumentException("chainDepth must be at least 1");
+    }
+    this.chainDepth = chainDepth;
+    return this;
+  }
+
+  /**
+   * The number of pass-through decorators applied to each receiver, up to
+   * {@link #MAX_DECORATORS}. The default value is {@code 0}.
+   */
+  public Topology decorators(int decorators) {
+    if (decorators < 0 || decorators > MAX_DECORATORS) {
+      throw new IllegalArgumentException("decorators must be between 0 and " + MAX_DECORATORS);
+    }
+    this.decorators = decorators;
+    return this;
+  }
+
+  /**
+   * The amount of CPU time that each decorator consumes before invoking the receiver.
+   */
+  public Topology decoratorWork(long duration, TimeUnit unit) {
+    this.decoratorWorkNanos = unit.toNanos(duration);
+    return this;
+  }
+
+  /**
+   * The number of receivers for each event. The default value is {@code 1}.
+   */
+  public Topology fanOut(int fanOut) {
+    if (fanOut < 1) {
+      throw new IllegalArgumentException("fanOut must be at least 1");
+    }
+    this.fanOut = fanOut;
+    return this;
+  }
+
+  public int getChainDepth() {
+    return chainDepth;
+  }
+
+  public int getDecorators() {
+    return decorators;
+  }
+
+  public long getDecoratorWorkNanos() {
+    return decoratorWorkNanos;
+  }
+
+  public int getFanOut() {
+    return fanOut;
+  }
+
+  public int getObservers() {
+    return observers;
+  }
+
+  public long getReceiverWorkNanos() {
+    return receiverWorkNanos;
+  }
+
+  /**
+   * Returns the number of receiver invocations required to complete a single request.
+   */
+  public long getInvocationsPerRequest() {
+    long toReturn = 0;
+    long level = 1;
+    for (int i = 0; i < chainDepth; i++) {
+      level *= fanOut;
+      toReturn += level;
+    }
+    return toReturn;
+  }
+
+  /**
+   * Register the synthetic receivers, decorators, and observers with a newly-created dispatch.
+   * Global decorators cannot be unregistered, so a dispatch should not be reused after a topology
+   * has been installed.
+   */
+  public void install(EventDispatch dispatch) {
+    if (decorators > 0) {
+      List<Annotation> layers = new ArrayList<Annotation>();
+      for (Class<? extends Annotation> layer : LAYERS.subList(0, decorators)) {
+        layers.add(SyntheticBindings.class.getAnnotation(layer));
+      }
+      dispatch.addGlobalDecorator(new Selection(layers));
+    }
+
+    // Each registration of an observer binding creates a new observer instance
+    AnnotatedElement observed = new Selection(Collections.<Annotation> singletonList(
+        SyntheticBindings.class.getAnnotation(Observed.class)));
+    for (int i = 0; i < observers; i++) {
+      dispatch.addGlobalDecorator(observed);
+    }
+
+    for (int i = 0; i < fanOut; i++) {
+      dispatch.register(new LoadReceiver(dispatch));
+    }
+  }
+
+  /**
+   * The number of pass-through observers examining each event. The default value is {@code 0}.
+   */
+  public Topology observers(int observers) {
+    if (observers < 0) {
+      throw new IllegalArgumentException("observers must not be negative");
+    }
+    this.observers = observers;
+    return this;
+  }
+
+  /**
+   * The amount of CPU time that each receiver invocation consumes.
+   */
+  public Topology receiverWork(long duration, TimeUnit unit) {
+    this.receiverWorkNanos = unit.toNanos(duration);
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "fanOut=" + fanOut + " chainDepth=" + chainDepth + " decorators=" + decorators
+        + " observers=" + observers + " receiverWork=" + receiverWorkNanos / 1000 + "us"
+        + " decoratorWork=" + decoratorWorkNanos / 1000 + "us";
+  }
+}
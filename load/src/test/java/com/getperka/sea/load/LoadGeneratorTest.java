@@ -0,0 +1,132 @@
+package com.getperka.sea.load;
+
+/*
+ * #%L
+ * Simple Event Architecture - Load Generator
+ * %%
+ * Copyright (C) 2012 - 2013 Perka Inc.
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.getperka.sea.Event;
+import com.getperka.sea.EventDispatch;
+import com.getperka.sea.EventDispatchers;
+import com.getperka.sea.util.TraceCollector;
+
+/**
+ * Verifies the bookkeeping of {@link LoadGenerator} and the construction of {@link Schedule}
+ * instances.
+ */
+public class LoadGeneratorTest {
+  static class MyEvent implements Event {}
+
+  private EventDispatch dispatch;
+
+  @Before
+  public void before() {
+    dispatch = EventDispatchers.create();
+  }
+
+  @After
+  public void after() {
+    dispatch.shutdown();
+  }
+
+  /**
+   * Each decorator's work must be included in the request latency.
+   */
+  @Test
+  public void testDecoratorWork() throws InterruptedException {
+    Topology topology = new Topology()
+        .decorators(3)
+        .decoratorWork(2, TimeUnit.MILLISECONDS);
+    LoadGenerator generator = new LoadGenerator(dispatch, topology);
+    LoadResult result = generator.run(Schedule.constantRate(10, 100, TimeUnit.MILLISECONDS), 10,
+        TimeUnit.SECONDS);
+
+    assertEquals(1, result.getRequests());
+    assertEquals(1, result.getCompleted());
+    assertTrue(result.getMaxLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(6));
+  }
+
+  @Test
+  public void testFromTrace() throws InterruptedException {
+    TraceCollector collector = TraceCollector.create(dispatch);
+    for (int i = 0; i < 3; i++) {
+      dispatch.fire(new MyEvent());
+      Thread.sleep(10);
+    }
+    collector.cancel();
+
+    Schedule schedule = Schedule.fromTrace(collector);
+    assertEquals(3, schedule.getCount());
+    assertEquals(0, schedule.getOffsetNanos(0));
+    assertTrue(schedule.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test
+  public void testRun() throws InterruptedException {
+    Topology topology = new Topology()
+        .fanOut(2)
+        .chainDepth(3)
+        .decorators(2)
+        .observers(2)
+        .receiverWork(10, TimeUnit.MICROSECONDS);
+    assertEquals(14, topology.getInvocationsPerRequest());
+
+    LoadGenerator generator = new LoadGenerator(dispatch, topology);
+    Schedule schedule = Schedule.constantRate(1000, 200, TimeUnit.MILLISECONDS);
+    assertEquals(200, schedule.getCount());
+
+    LoadResult result = generator.run(schedule, 10, TimeUnit.SECONDS);
+    assertEquals(200, result.getRequests());
+    assertEquals(200, result.getCompleted());
+    assertTrue(result.getThroughput() > 0);
+    assertTrue(result.getLatencyAtPercentile(50) <= result.getLatencyAtPercentile(99));
+    assertTrue(result.getLatencyAtPercentile(99) <= result.getMaxLatencyNanos());
+  }
+
+  @Test
+  public void testSchedule() throws IOException {
+    Schedule schedule = Schedule.constantRate(100, 1, TimeUnit.SECONDS);
+    assertEquals(100, schedule.getCount());
+    assertEquals(100, schedule.getRate(), 0.01);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(10), schedule.getOffsetNanos(1));
+
+    StringWriter out = new StringWriter();
+    schedule.write(out);
+    Schedule read = Schedule.read(new StringReader("# comment\n\n" + out));
+    assertEquals(schedule.getCount(), read.getCount());
+    assertEquals(schedule.getDurationNanos(), read.getDurationNanos());
+
+    Schedule faster = read.speedUp(2);
+    assertEquals(200, faster.getRate(), 0.01);
+
+    Schedule poisson = Schedule.poisson(1000, 1, TimeUnit.SECONDS, 0);
+    assertTrue(poisson.getCount() > 900 && poisson.getCount() < 1100);
+  }
+}